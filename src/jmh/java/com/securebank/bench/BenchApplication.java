@@ -0,0 +1,27 @@
+package com.securebank.bench;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+// Service layer only: no web server, no HTTP security chain
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = SecurityAutoConfiguration.class)
+@EntityScan("com.securebank.model")
+@EnableJpaRepositories("com.securebank.repository")
+@ComponentScan(
+        basePackages = "com.securebank",
+        excludeFilters = @ComponentScan.Filter(
+                type = FilterType.REGEX,
+                pattern = {
+                        "com\\.securebank\\.bench\\..*",
+                        "com\\.securebank\\.config\\..*",
+                        "com\\.securebank\\.controller\\..*",
+                        "com\\.securebank\\.security\\.JwtAuthenticationFilter"
+                }))
+public class BenchApplication {
+}
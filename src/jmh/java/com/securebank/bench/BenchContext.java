@@ -0,0 +1,82 @@
+package com.securebank.bench;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Boots the service layer against the bench profile's Postgres database, whose schema is
+ * created on boot and dropped on close, and seeds one user with two accounts. The user is installed as a global security context so every JMH worker thread
+ * acts as that user.
+ */
+public class BenchContext implements AutoCloseable {
+
+    public static final String USER_EMAIL = "bench@securebank.com";
+
+    private final ConfigurableApplicationContext context;
+    private final Long sourceAccountId;
+    private final Long destinationAccountId;
+
+    public BenchContext() {
+        this(BenchApplication.class);
+    }
+
+    // Arguments are applied as command-line arguments, so they override the bench profile
+    public BenchContext(Class<?> application, String... args) {
+        context = new SpringApplicationBuilder(application)
+                .profiles("bench")
+                .run(args);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (first_name, last_name, email, password, phone_number, enabled, "
+                + "account_non_locked, failed_attempt, created_at) "
+                + "VALUES ('Bench', 'User', ?, 'x', '000', true, true, 0, CURRENT_TIMESTAMP)", USER_EMAIL);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, USER_EMAIL);
+        sourceAccountId = insertAccount(jdbcTemplate, userId, "BENCH00001", new BigDecimal("1000000000.00"));
+        destinationAccountId = insertAccount(jdbcTemplate, userId, "BENCH00002", BigDecimal.ZERO);
+
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                USER_EMAIL, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    private static Long insertAccount(JdbcTemplate jdbcTemplate, Long userId, String number, BigDecimal balance) {
+        jdbcTemplate.update("INSERT INTO accounts (account_number, account_type, balance, active, created_at, user_id) "
+                + "VALUES (?, 'CHECKING', ?, true, CURRENT_TIMESTAMP, ?)", number, balance, userId);
+        return jdbcTemplate.queryForObject("SELECT id FROM accounts WHERE account_number = ?", Long.class, number);
+    }
+
+    // Unwraps transactional proxies so package-private helpers run on the real bean
+    @SuppressWarnings("unchecked")
+    public <T> T bean(Class<T> type) {
+        Object bean = context.getBean(type);
+        Object target = AopProxyUtils.getSingletonTarget(bean);
+        return (T) (target != null ? target : bean);
+    }
+
+    public Long sourceAccountId() {
+        return sourceAccountId;
+    }
+
+    public Long destinationAccountId() {
+        return destinationAccountId;
+    }
+
+    // Only set when the application runs a web server
+    public int serverPort() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    @Override
+    public void close() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+}
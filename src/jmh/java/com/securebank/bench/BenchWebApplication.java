@@ -0,0 +1,31 @@
+package com.securebank.bench;
+
+import com.securebank.config.VirtualThreadConfig;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+// The REST controllers on embedded Tomcat, in either execution mode; still no HTTP security chain,
+// so requests act as the bench user without a token (JwtServiceBenchmark covers token checks)
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {SecurityAutoConfiguration.class, ManagementWebSecurityAutoConfiguration.class})
+@EntityScan("com.securebank.model")
+@EnableJpaRepositories("com.securebank.repository")
+@ComponentScan(
+        basePackages = "com.securebank",
+        excludeFilters = @ComponentScan.Filter(
+                type = FilterType.REGEX,
+                pattern = {
+                        "com\\.securebank\\.bench\\..*",
+                        "com\\.securebank\\.config\\..*",
+                        "com\\.securebank\\.security\\.JwtAuthenticationFilter"
+                }))
+@Import(VirtualThreadConfig.class)
+public class BenchWebApplication {
+}
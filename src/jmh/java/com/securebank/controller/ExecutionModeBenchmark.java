@@ -0,0 +1,70 @@
+package com.securebank.controller;
+
+import com.securebank.bench.BenchContext;
+import com.securebank.bench.BenchWebApplication;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the two request execution modes: 400 clients, twice Tomcat's 200 platform threads,
+ * each posting deposits over HTTP to the real controllers on embedded Tomcat, served either by
+ * the platform pool or by one virtual thread per request (the virtual-threads profile, which
+ * also resizes the connection pool). SampleTime reports latency percentiles per mode, p99
+ * included, next to throughput. The virtual mode needs Java 21. Run with
+ * -jvmArgsAppend -Djdk.tracePinnedThreads=short to list any carrier pinning as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(400)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    private BenchContext bench;
+    private HttpClient client;
+    private HttpRequest deposit;
+
+    @Setup
+    public void setUp() {
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--spring.main.web-application-type=servlet"));
+        if ("virtual".equals(mode)) {
+            args.add("--spring.profiles.active=virtual-threads");
+        }
+        bench = new BenchContext(BenchWebApplication.class, args.toArray(String[]::new));
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        deposit = HttpRequest.newBuilder(URI.create("http://localhost:" + bench.serverPort() + "/api/transactions/deposit"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"accountId\":" + bench.sourceAccountId()
+                        + ",\"amount\":10.00,\"description\":\"Benchmark deposit\"}"))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        bench.close();
+    }
+
+    @Benchmark
+    public int deposit() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(deposit, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Deposit failed with HTTP " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
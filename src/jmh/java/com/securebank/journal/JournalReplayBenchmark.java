@@ -0,0 +1,61 @@
+package com.securebank.journal;
+
+import com.securebank.dto.JournalReplayReportDTO;
+import com.securebank.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recovery cost: one full replay of a 1 GB journal (groups of 100 postings, all committed), so
+ * the time per operation is the time per gigabyte. Startup recovery only scans the last two
+ * segments (128 MB by default); a full replay is what rebuilding balances from the journal costs.
+ * The journal is written once per trial, so the first iterations include a cold page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JournalReplayBenchmark {
+
+    @Param({"1024"})
+    private int journalMegabytes;
+
+    private Path directory;
+    private JournalReplay replay;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory(Path.of(System.getProperty("journal.bench.dir",
+                System.getProperty("java.io.tmpdir"))), "journal-bench");
+        PostingJournal journal = new PostingJournal(new JdbcTemplate(), new SimpleMeterRegistry(), true,
+                directory.toString(), 64 * 1024 * 1024);
+        journal.start();
+        List<Transaction> group = PostingJournalBenchmark.group(100);
+        int groupBytes = JournalRecords.group(0, 0, group).length;
+        long target = (long) journalMegabytes * 1024 * 1024;
+        for (long written = 0; written < target; written += groupBytes) {
+            journal.finish(journal.append(group), true);
+        }
+        replay = new JournalReplay(journal, new JdbcTemplate(), null, null, List.of());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public JournalReplayReportDTO replay() {
+        return replay.replay(false, 0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.securebank.journal;
+
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal append throughput: 8 threads, like concurrent group commits, each appending a group and
+ * marking it committed, which is what a posting pays before its transaction opens. Concurrent
+ * appends share syncs, so the result depends on the disk's fsync latency; run it on the disk the
+ * journal will use (java.io.tmpdir, or -Djournal.bench.dir=...). Every operation adds a record,
+ * so expect a few GB of segments per run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class PostingJournalBenchmark {
+
+    // Postings per group: a lone posting, and a busy group commit
+    @Param({"1", "100"})
+    private int groupSize;
+
+    private Path directory;
+    private PostingJournal journal;
+    private List<Transaction> group;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory(Path.of(System.getProperty("journal.bench.dir",
+                System.getProperty("java.io.tmpdir"))), "journal-bench");
+        journal = new PostingJournal(new JdbcTemplate(), new SimpleMeterRegistry(), true, directory.toString(),
+                64 * 1024 * 1024);
+        journal.start();
+        group = group(groupSize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void append() {
+        journal.finish(journal.append(group), true);
+    }
+
+    static List<Transaction> group(int size) {
+        List<Transaction> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Account account = new Account();
+            account.setId(1_000_000L + i);
+            Transaction transaction = new Transaction();
+            transaction.setAccount(account);
+            transaction.setAmount(Money.ofMinor(-4250, 2));
+            transaction.setReferenceNumber("TXN" + (7_100_000_000_000_000L + i));
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,82 @@
+package com.securebank.ledger;
+
+import com.securebank.bench.BenchContext;
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention on one account: 16 threads each commit their own ledger transaction against the same
+ * account, the way writers on separate nodes would, bypassing the per-node group commit. Compares
+ * the plain account row with hot-account mode, for credits and for funds-checked debits, which
+ * still serialize in hot mode. Runs on the bench profile's Postgres database, like the other
+ * end-to-end benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class HotAccountBenchmark {
+
+    @Param({"false", "true"})
+    private boolean hot;
+
+    private BenchContext bench;
+    private LedgerWriter ledgerWriter;
+    private HotAccountManager hotAccountManager;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() {
+        bench = new BenchContext();
+        ledgerWriter = bench.bean(LedgerWriter.class);
+        hotAccountManager = bench.bean(HotAccountManager.class);
+        transactionTemplate = new TransactionTemplate(bench.bean(PlatformTransactionManager.class));
+        if (hot) {
+            hotAccountManager.enable(bench.sourceAccountId());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (hot) {
+            hotAccountManager.disable(bench.sourceAccountId());
+        }
+        bench.close();
+    }
+
+    @Benchmark
+    public void credit() {
+        LedgerEntry entry = LedgerEntry.credit(transaction("1.00", Transaction.TransactionType.DEPOSIT));
+        transactionTemplate.executeWithoutResult(status -> ledgerWriter.write(List.of(entry)));
+    }
+
+    @Benchmark
+    public void checkedDebit() {
+        LedgerEntry entry = LedgerEntry.debit(transaction("-1.00", Transaction.TransactionType.WITHDRAWAL),
+                "Insufficient funds");
+        transactionTemplate.executeWithoutResult(status -> ledgerWriter.write(List.of(entry)));
+    }
+
+    private Transaction transaction(String amount, Transaction.TransactionType type) {
+        Account account = new Account();
+        account.setId(bench.sourceAccountId());
+        Transaction transaction = new Transaction();
+        transaction.setReferenceNumber("BENCH" + System.nanoTime());
+        transaction.setType(type);
+        transaction.setAmount(Money.of(new BigDecimal(amount)));
+        transaction.setDescription("Hot account benchmark");
+        transaction.setAccount(account);
+        return transaction;
+    }
+}
@@ -0,0 +1,137 @@
+package com.securebank.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money against the BigDecimal path it replaced, on what a posting does per amount: moving it
+ * between two balances (funds check, debit, credit, negated leg), and reading and writing it as
+ * JSON with the serializers the application registers. Each pair runs the same steps on both
+ * types. Run with -prof gc for bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final long AMOUNT_MINOR = 4250;
+    private static final byte[] JSON = "{\"amount\":42.50}".getBytes(StandardCharsets.UTF_8);
+
+    public record DecimalAmount(BigDecimal amount) {
+    }
+
+    public record MoneyAmount(Money amount) {
+    }
+
+    private BigDecimal decimalAmount;
+    private BigDecimal decimalSource;
+    private BigDecimal decimalDestination;
+    private Money moneyAmount;
+    private Money moneySource;
+    private Money moneyDestination;
+    private ObjectWriter decimalWriter;
+    private ObjectWriter moneyWriter;
+    private ObjectReader decimalReader;
+    private ObjectReader moneyReader;
+
+    @Setup
+    public void setUp() {
+        decimalAmount = new BigDecimal("42.50");
+        decimalSource = new BigDecimal("1000000.00");
+        decimalDestination = new BigDecimal("250.00");
+        moneyAmount = Money.of(decimalAmount);
+        moneySource = Money.of(decimalSource);
+        moneyDestination = Money.of(decimalDestination);
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(Money.class, new MoneyJsonComponent.Serializer())
+                .addDeserializer(Money.class, new MoneyJsonComponent.Deserializer()));
+        decimalWriter = objectMapper.writerFor(DecimalAmount.class);
+        moneyWriter = objectMapper.writerFor(MoneyAmount.class);
+        decimalReader = objectMapper.readerFor(DecimalAmount.class);
+        moneyReader = objectMapper.readerFor(MoneyAmount.class);
+    }
+
+    // There and back, so the balances stay put across invocations
+    @Benchmark
+    public BigDecimal transferBigDecimal() {
+        BigDecimal out = transfer(decimalAmount);
+        transfer(decimalAmount.negate());
+        return out;
+    }
+
+    @Benchmark
+    public Money transferMoney() {
+        Money out = transfer(moneyAmount);
+        transfer(moneyAmount.negate());
+        return out;
+    }
+
+    // A new value each time, as mapped from a row: a reused BigDecimal would write its cached string
+    @Benchmark
+    public byte[] writeBigDecimal() throws IOException {
+        BigDecimal amount = BigDecimal.valueOf(AMOUNT_MINOR, Money.DEFAULT_SCALE);
+        return decimalWriter.writeValueAsBytes(new DecimalAmount(amount));
+    }
+
+    @Benchmark
+    public byte[] writeMoney() throws IOException {
+        return moneyWriter.writeValueAsBytes(new MoneyAmount(Money.ofMinor(AMOUNT_MINOR)));
+    }
+
+    @Benchmark
+    public DecimalAmount readBigDecimal() throws IOException {
+        // What the request path did: parse, then check the scale on conversion
+        DecimalAmount value = decimalReader.readValue(JSON);
+        value.amount().setScale(Money.DEFAULT_SCALE);
+        return value;
+    }
+
+    @Benchmark
+    public MoneyAmount readMoney() throws IOException {
+        return moneyReader.readValue(JSON);
+    }
+
+    private BigDecimal transfer(BigDecimal amount) {
+        BigDecimal debit = amount.signum() > 0 ? amount : amount.negate();
+        BigDecimal from = amount.signum() > 0 ? decimalSource : decimalDestination;
+        if (from.compareTo(debit) < 0) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        if (amount.signum() > 0) {
+            decimalSource = decimalSource.subtract(debit);
+            decimalDestination = decimalDestination.add(debit);
+        } else {
+            decimalDestination = decimalDestination.subtract(debit);
+            decimalSource = decimalSource.add(debit);
+        }
+        return debit.negate();
+    }
+
+    private Money transfer(Money amount) {
+        Money debit = amount.abs();
+        Money from = amount.isPositive() ? moneySource : moneyDestination;
+        if (from.compareTo(debit) < 0) {
+            throw new IllegalStateException("Insufficient funds");
+        }
+        if (amount.isPositive()) {
+            moneySource = moneySource.minus(debit);
+            moneyDestination = moneyDestination.plus(debit);
+        } else {
+            moneyDestination = moneyDestination.minus(debit);
+            moneySource = moneySource.plus(debit);
+        }
+        return debit.negate();
+    }
+}
@@ -0,0 +1,70 @@
+package com.securebank.payment;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory side of the scheduler at scale: a wheel holding 1M pending schedules spread over the
+ * default one-hour horizon. Each operation is one tick of the engine: turn the wheel, split the
+ * due ids into claim batches, and put each id back one horizon later, as a recurring schedule
+ * would be, so the wheel stays at 1M. Run with -prof gc for allocation per tick. The retained
+ * size per pending schedule is measured once per trial and printed. The claim, payment and
+ * advance statements need Postgres (UPDATE ... RETURNING with SKIP LOCKED) and are not covered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ScheduledPaymentBenchmark {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final long HORIZON_MILLIS = 3_600_000;
+    private static final int BATCH_SIZE = 200;
+
+    @Param({"1000000"})
+    private int schedules;
+
+    private TimingWheel wheel;
+    private long nowMillis;
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        nowMillis = 0;
+        wheel = new TimingWheel(TICK_MILLIS, (int) (2 * HORIZON_MILLIS / TICK_MILLIS), nowMillis);
+        for (int id = 0; id < schedules; id++) {
+            wheel.add(id, (long) id * HORIZON_MILLIS / schedules);
+        }
+        long after = usedHeap();
+        System.out.printf("%n%d pending schedules retain %.1f bytes each%n",
+                wheel.size(), (double) (after - before) / wheel.size());
+    }
+
+    @Benchmark
+    public void fireTick(Blackhole blackhole) {
+        nowMillis += TICK_MILLIS;
+        long[] due = wheel.advance(nowMillis);
+        for (int from = 0; from < due.length; from += BATCH_SIZE) {
+            blackhole.consume(Arrays.copyOfRange(due, from, Math.min(from + BATCH_SIZE, due.length)));
+        }
+        for (long id : due) {
+            wheel.add(id, nowMillis + HORIZON_MILLIS);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Take the lowest of a few collections, so garbage from setup does not count
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,56 @@
+package com.securebank.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    // 0 disables the verified-claims cache, so every call pays for a full parse
+    @Param({"0", "10000"})
+    private int cacheMaxSize;
+
+    private JwtService jwtService;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        set("secretKey", "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        set("jwtExpiration", 86400000L);
+        set("refreshExpiration", 604800000L);
+        set("cacheMaxSize", cacheMaxSize);
+        set("cacheTtl", 300000L);
+        jwtService.init();
+
+        userDetails = User.withUsername("bench@securebank.com").password("x").roles("USER").build();
+        token = jwtService.generateToken(userDetails);
+    }
+
+    private void set(String name, Object value) throws ReflectiveOperationException {
+        Field field = JwtService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtService, value);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, userDetails);
+    }
+}
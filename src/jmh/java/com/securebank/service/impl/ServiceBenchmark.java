@@ -0,0 +1,114 @@
+package com.securebank.service.impl;
+
+import com.securebank.bench.BenchContext;
+import com.securebank.dto.BulkTransactionItem;
+import com.securebank.dto.BulkTransactionRequest;
+import com.securebank.dto.BulkTransactionResultDTO;
+import com.securebank.dto.DepositRequest;
+import com.securebank.dto.TransactionDTO;
+import com.securebank.dto.TransferRequest;
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int BULK_SIZE = 1000;
+
+    private BenchContext bench;
+    private TransactionServiceImpl transactionService;
+    private AccountServiceImpl accountService;
+    private Transaction transaction;
+    private DepositRequest depositRequest;
+    private TransferRequest transferRequest;
+    private BulkTransactionRequest bulkRequest;
+
+    @Setup
+    public void setUp() {
+        bench = new BenchContext();
+        transactionService = bench.bean(TransactionServiceImpl.class);
+        accountService = bench.bean(AccountServiceImpl.class);
+
+        Account account = new Account();
+        account.setId(bench.sourceAccountId());
+        transaction = new Transaction();
+        transaction.setId(1L);
+        transaction.setReferenceNumber("ABCDEF123456");
+        transaction.setType(Transaction.TransactionType.PAYMENT);
+        transaction.setAmount(Money.of(new BigDecimal("-42.50")));
+        transaction.setDescription("Groceries");
+        transaction.setCategory("Food & Dining");
+        transaction.setMerchantName("Whole Foods");
+        transaction.setTimestamp(LocalDateTime.now());
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setAccount(account);
+
+        depositRequest = new DepositRequest();
+        depositRequest.setAccountId(bench.sourceAccountId());
+        depositRequest.setAmount(Money.of(new BigDecimal("10.00")));
+        depositRequest.setDescription("Benchmark deposit");
+
+        transferRequest = new TransferRequest();
+        transferRequest.setSourceAccountId(bench.sourceAccountId());
+        transferRequest.setDestinationAccountId(bench.destinationAccountId());
+        transferRequest.setAmount(Money.of(new BigDecimal("1.00")));
+        transferRequest.setDescription("Benchmark transfer");
+
+        List<BulkTransactionItem> items = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            items.add(new BulkTransactionItem("DEPOSIT", bench.sourceAccountId(), Money.of(new BigDecimal("10.00")),
+                    "Benchmark bulk deposit", null, null, null));
+        }
+        bulkRequest = new BulkTransactionRequest(items);
+    }
+
+    @TearDown
+    public void tearDown() {
+        bench.close();
+    }
+
+    @Benchmark
+    public TransactionDTO mapToDTO() {
+        return transactionService.mapToDTO(transaction);
+    }
+
+    @Benchmark
+    public String generateReferenceNumber() {
+        return transactionService.generateReferenceNumber();
+    }
+
+    @Benchmark
+    public String generateAccountNumber() {
+        return accountService.generateAccountNumber();
+    }
+
+    @Benchmark
+    public TransactionDTO deposit() {
+        return transactionService.deposit(depositRequest);
+    }
+
+    // Reported per row, so it compares directly with deposit()
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public BulkTransactionResultDTO bulkDeposit() {
+        return transactionService.bulk(bulkRequest);
+    }
+
+    @Benchmark
+    public TransactionDTO transfer() {
+        return transactionService.transfer(transferRequest);
+    }
+}
@@ -0,0 +1,161 @@
+package com.securebank.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only, memory-mapped view of an archive written by {@link ArchiveWriter}. Layout:
+ *
+ * <pre>
+ * header         magic, version, row count, account count, account index offset, id index offset
+ * blocks         one deflated {@link BlockCodec} block per account, newest row first
+ * account index  (account id, offset, compressed length, raw length, row count), sorted by account id
+ * id index       (id &lt;&lt; 24 | block number) as longs, sorted
+ * </pre>
+ *
+ * Both indexes are binary-searched in place, so opening a file reads nothing but the header and
+ * a lookup only touches the pages it needs.
+ */
+final class ArchiveFile {
+
+    static final int MAGIC = 0x53425441; // "SBTA"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 40;
+    static final int ACCOUNT_ENTRY_SIZE = 28;
+    static final int BLOCK_BITS = 24;
+    static final long MAX_ID = (1L << (63 - BLOCK_BITS)) - 1;
+
+    private final Path path;
+    private final LocalDateTime rangeEnd;
+    private final MappedByteBuffer buffer;
+    private final long rowCount;
+    private final int accountCount;
+    private final int accountIndexOffset;
+    private final int idIndexOffset;
+
+    private ArchiveFile(Path path, LocalDateTime rangeEnd, MappedByteBuffer buffer) {
+        this.path = path;
+        this.rangeEnd = rangeEnd;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a transaction archive: " + path);
+        }
+        this.rowCount = buffer.getLong(8);
+        this.accountCount = buffer.getInt(16);
+        this.accountIndexOffset = (int) buffer.getLong(24);
+        this.idIndexOffset = (int) buffer.getLong(32);
+    }
+
+    static ArchiveFile open(Path path, LocalDateTime rangeEnd) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ArchiveFile(path, rangeEnd, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open transaction archive " + path, e);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    LocalDateTime rangeEnd() {
+        return rangeEnd;
+    }
+
+    long rowCount() {
+        return rowCount;
+    }
+
+    // Rows of the account in this file, without decoding them
+    int rowCount(long accountId) {
+        int entry = findAccount(accountId);
+        return entry < 0 ? 0 : buffer.getInt(entryPosition(entry) + 24);
+    }
+
+    // The account's rows, newest first
+    List<ArchivedTransaction> account(long accountId) {
+        int entry = findAccount(accountId);
+        return entry < 0 ? List.of() : decodeBlock(entry);
+    }
+
+    ArchivedTransaction byId(long id) {
+        if (id < 0 || id > MAX_ID) {
+            return null;
+        }
+        long low = 0;
+        long high = rowCount - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long packed = buffer.getLong(idIndexOffset + (int) (mid * Long.BYTES));
+            long midId = packed >>> BLOCK_BITS;
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                for (ArchivedTransaction row : decodeBlock((int) (packed & ((1L << BLOCK_BITS) - 1)))) {
+                    if (row.id() == id) {
+                        return row;
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private int findAccount(long accountId) {
+        int low = 0;
+        int high = accountCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = buffer.getLong(entryPosition(mid));
+            if (midId < accountId) {
+                low = mid + 1;
+            } else if (midId > accountId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private List<ArchivedTransaction> decodeBlock(int entry) {
+        int position = entryPosition(entry);
+        long accountId = buffer.getLong(position);
+        int offset = (int) buffer.getLong(position + 8);
+        int compressedLength = buffer.getInt(position + 16);
+        int rawLength = buffer.getInt(position + 20);
+
+        ByteBuffer compressed = buffer.slice(offset, compressedLength);
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                inflated += inflater.inflate(raw, inflated, rawLength - inflated);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block for account " + accountId + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return BlockCodec.decode(raw, accountId);
+    }
+
+    private int entryPosition(int entry) {
+        return accountIndexOffset + entry * ACCOUNT_ENTRY_SIZE;
+    }
+}
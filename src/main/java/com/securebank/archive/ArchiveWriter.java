@@ -0,0 +1,147 @@
+package com.securebank.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Streams rows into an {@link ArchiveFile}. Rows must arrive grouped by account, each account's
+ * rows newest first, so only one account's block is buffered at a time. The file is written under
+ * a temporary name and moved into place by {@link #finish}, so a crash never leaves a partial
+ * archive at the target path.
+ */
+final class ArchiveWriter implements Closeable {
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final List<ArchivedTransaction> block = new ArrayList<>();
+    private ByteBuffer accountIndex = ByteBuffer.allocate(ArchiveFile.ACCOUNT_ENTRY_SIZE * 1024);
+    private long[] idIndex = new long[1024];
+    private long rowCount;
+    private int accountCount;
+    private long lastAccountId = Long.MIN_VALUE;
+    private boolean finished;
+
+    ArchiveWriter(Path target) throws IOException {
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        channel.position(ArchiveFile.HEADER_SIZE);
+    }
+
+    void add(ArchivedTransaction row) throws IOException {
+        if (row.id() < 0 || row.id() > ArchiveFile.MAX_ID) {
+            throw new IllegalArgumentException("Transaction id " + row.id() + " does not fit the archive id index");
+        }
+        if (!block.isEmpty() && row.accountId() != block.get(0).accountId()) {
+            flushBlock();
+        }
+        block.add(row);
+    }
+
+    /**
+     * Writes the indexes and header, forces the file to disk and moves it to the target path.
+     * Returns the number of rows written.
+     */
+    long finish() throws IOException {
+        if (!block.isEmpty()) {
+            flushBlock();
+        }
+        long accountIndexOffset = channel.position();
+        accountIndex.flip();
+        writeFully(accountIndex);
+
+        long idIndexOffset = channel.position();
+        long[] ids = Arrays.copyOf(idIndex, (int) rowCount);
+        Arrays.sort(ids);
+        ByteBuffer idBuffer = ByteBuffer.allocate(ids.length * Long.BYTES);
+        idBuffer.asLongBuffer().put(ids);
+        writeFully(idBuffer);
+        if (channel.position() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Archive " + target + " would exceed 2 GB; archive smaller partitions");
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(ArchiveFile.HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(ArchiveFile.MAGIC).putInt(ArchiveFile.VERSION).putLong(rowCount).putInt(accountCount).putInt(0)
+                .putLong(accountIndexOffset).putLong(idIndexOffset).flip();
+        channel.position(0);
+        writeFully(header);
+        channel.force(true);
+        channel.close();
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        finished = true;
+        return rowCount;
+    }
+
+    // Discards the temporary file unless finish() succeeded
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        long accountId = block.get(0).accountId();
+        if (accountId <= lastAccountId) {
+            throw new IllegalStateException("Archive rows must be grouped by ascending account id");
+        }
+        int blockNumber = accountCount;
+        if (blockNumber >= 1 << ArchiveFile.BLOCK_BITS) {
+            throw new IllegalStateException("Too many accounts for one archive file");
+        }
+
+        byte[] raw = BlockCodec.encode(block);
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] compressed = new byte[raw.length + raw.length / 1000 + 64];
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        long offset = channel.position();
+        writeFully(ByteBuffer.wrap(compressed, 0, compressedLength));
+
+        if (accountIndex.remaining() < ArchiveFile.ACCOUNT_ENTRY_SIZE) {
+            ByteBuffer grown = ByteBuffer.allocate(accountIndex.capacity() * 2);
+            accountIndex.flip();
+            accountIndex = grown.put(accountIndex);
+        }
+        accountIndex.putLong(accountId).putLong(offset).putInt(compressedLength).putInt(raw.length).putInt(block.size());
+
+        for (ArchivedTransaction row : block) {
+            if (rowCount == idIndex.length) {
+                idIndex = Arrays.copyOf(idIndex, idIndex.length * 2);
+            }
+            idIndex[(int) rowCount++] = row.id() << ArchiveFile.BLOCK_BITS | blockNumber;
+        }
+        accountCount++;
+        lastAccountId = accountId;
+        block.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.securebank.archive;
+
+import com.securebank.dto.TransactionDTO;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One transactions row as stored in an archive file; every column is kept
+public record ArchivedTransaction(
+        long id,
+        String referenceNumber,
+        String type,
+        BigDecimal amount,
+        String description,
+        String category,
+        String merchantName,
+        LocalDateTime timestamp,
+        int status,
+        long accountId,
+        Long destinationAccountId
+) {
+
+    public TransactionDTO toDTO() {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(id);
+        dto.setReferenceNumber(referenceNumber);
+        dto.setType(type);
+        dto.setAmount(Money.of(amount));
+        dto.setDescription(description);
+        dto.setCategory(category);
+        dto.setMerchantName(merchantName);
+        dto.setTimestamp(timestamp);
+        dto.setStatus(Transaction.TransactionStatus.values()[status].name());
+        dto.setAccountId(accountId);
+        return dto;
+    }
+}
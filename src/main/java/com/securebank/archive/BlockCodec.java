@@ -0,0 +1,184 @@
+package com.securebank.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Column-wise encoding of one account's rows. Ids and timestamps are stored as zig-zag varint
+ * deltas from the previous row, which in timestamp order are small; amounts as scale plus
+ * unscaled varint; strings as length-prefixed UTF-8, one column after the other, so similar
+ * values sit together for the compressor.
+ */
+final class BlockCodec {
+
+    private BlockCodec() {
+    }
+
+    static byte[] encode(List<ArchivedTransaction> rows) {
+        Out out = new Out(rows.size() * 64);
+        out.varLong(rows.size());
+        long previous = 0;
+        for (ArchivedTransaction row : rows) {
+            out.zigZag(row.id() - previous);
+            previous = row.id();
+        }
+        previous = 0;
+        for (ArchivedTransaction row : rows) {
+            long micros = toMicros(row.timestamp());
+            out.zigZag(micros - previous);
+            previous = micros;
+        }
+        for (ArchivedTransaction row : rows) {
+            out.varLong(row.amount().scale());
+            out.zigZag(row.amount().unscaledValue().longValueExact());
+        }
+        for (ArchivedTransaction row : rows) {
+            out.varLong(row.status());
+        }
+        for (ArchivedTransaction row : rows) {
+            out.varLong(row.destinationAccountId() != null ? row.destinationAccountId() + 1 : 0);
+        }
+        for (ArchivedTransaction row : rows) {
+            out.string(row.referenceNumber());
+        }
+        for (ArchivedTransaction row : rows) {
+            out.string(row.type());
+        }
+        for (ArchivedTransaction row : rows) {
+            out.string(row.description());
+        }
+        for (ArchivedTransaction row : rows) {
+            out.string(row.category());
+        }
+        for (ArchivedTransaction row : rows) {
+            out.string(row.merchantName());
+        }
+        return out.toByteArray();
+    }
+
+    static List<ArchivedTransaction> decode(byte[] block, long accountId) {
+        In in = new In(block);
+        int count = (int) in.varLong();
+        long[] ids = new long[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += in.zigZag();
+            ids[i] = previous;
+        }
+        LocalDateTime[] timestamps = new LocalDateTime[count];
+        previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += in.zigZag();
+            timestamps[i] = fromMicros(previous);
+        }
+        BigDecimal[] amounts = new BigDecimal[count];
+        for (int i = 0; i < count; i++) {
+            int scale = (int) in.varLong();
+            amounts[i] = new BigDecimal(BigInteger.valueOf(in.zigZag()), scale);
+        }
+        int[] statuses = new int[count];
+        for (int i = 0; i < count; i++) {
+            statuses[i] = (int) in.varLong();
+        }
+        Long[] destinations = new Long[count];
+        for (int i = 0; i < count; i++) {
+            long destination = in.varLong();
+            destinations[i] = destination == 0 ? null : destination - 1;
+        }
+        String[][] strings = new String[5][count];
+        for (String[] column : strings) {
+            for (int i = 0; i < count; i++) {
+                column[i] = in.string();
+            }
+        }
+
+        List<ArchivedTransaction> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new ArchivedTransaction(ids[i], strings[0][i], strings[1][i], amounts[i], strings[2][i],
+                    strings[3][i], strings[4][i], timestamps[i], statuses[i], accountId, destinations[i]));
+        }
+        return rows;
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static final class Out extends ByteArrayOutputStream {
+
+        Out(int size) {
+            super(size);
+        }
+
+        void varLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void zigZag(long value) {
+            varLong((value << 1) ^ (value >> 63));
+        }
+
+        // Length + 1, so 0 can mean null
+        void string(String value) {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static final class In {
+
+        private final byte[] bytes;
+        private int position;
+
+        In(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long varLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long zigZag() {
+            long value = varLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String string() {
+            int length = (int) varLong();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(bytes, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.securebank.archive;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Serves reads of archived transactions from the mapped archive files listed in
+ * transaction_archives. Files are kept newest range first, which continues the live table's
+ * timestamp DESC order, so a history page that runs past the live rows picks up here.
+ *
+ * The archiver drops a partition in the same database transaction that adds its
+ * transaction_archives row, so every read first catches up with that table: a reader that no
+ * longer sees the partition's rows also opens the file holding them, on every node, without
+ * waiting for the next refresh. The archive directory has to be shared storage when more than one
+ * node runs.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class TransactionArchiveStore {
+
+    private static final Comparator<ArchiveFile> NEWEST_FIRST =
+            Comparator.comparing(ArchiveFile::rangeEnd).reversed();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock registerLock = new ReentrantLock();
+    // Highest transaction_archives id this node has read
+    private final AtomicLong seenArchiveId = new AtomicLong();
+    // Replaced as a whole, so readers iterate a stable snapshot
+    private volatile List<ArchiveFile> files = List.of();
+
+    public TransactionArchiveStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${application.archive.refresh-interval:300000}",
+            initialDelayString = "${application.archive.refresh-interval:300000}")
+    public void refresh() {
+        Set<Path> known = new HashSet<>();
+        files.forEach(file -> known.add(file.path()));
+        jdbcTemplate.query("SELECT id, file_path, range_end FROM transaction_archives", rs -> {
+            seenArchiveId.accumulateAndGet(rs.getLong("id"), Math::max);
+            Path path = Path.of(rs.getString("file_path"));
+            if (!known.contains(path)) {
+                tryRegister(path, rs.getTimestamp("range_end").toLocalDateTime());
+            }
+        });
+    }
+
+    public boolean isEmpty() {
+        catchUp();
+        return files.isEmpty();
+    }
+
+    // Called by the archiver once the archive's row is committed
+    void register(Path path, LocalDateTime rangeEnd) {
+        tryRegister(path, rangeEnd);
+    }
+
+    /**
+     * The account's archived transactions in timestamp DESC order, skipping the first
+     * {@code skip}. Whole files are skipped by their per-account row count without decoding.
+     */
+    public List<ArchivedTransaction> findByAccountId(long accountId, long skip, int limit) {
+        catchUp();
+        List<ArchivedTransaction> result = new ArrayList<>(Math.min(limit, 1024));
+        for (ArchiveFile file : files) {
+            if (result.size() >= limit) {
+                break;
+            }
+            int count = file.rowCount(accountId);
+            if (skip >= count) {
+                skip -= count;
+                continue;
+            }
+            List<ArchivedTransaction> rows = file.account(accountId);
+            int from = (int) skip;
+            int to = Math.min(rows.size(), from + limit - result.size());
+            result.addAll(rows.subList(from, to));
+            skip = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Up to {@code limit} of the account's archived transactions that come after the given
+     * position in timestamp DESC, id DESC order, or from the newest if {@code timestamp} is null.
+     */
+    public List<ArchivedTransaction> findBefore(long accountId, LocalDateTime timestamp, Long id, int limit) {
+        List<ArchivedTransaction> result = new ArrayList<>(Math.min(limit, 1024));
+        if (limit > 0) {
+            visitBefore(accountId, timestamp, id, row -> {
+                result.add(row);
+                return result.size() < limit;
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Hands the account's archived transactions that come after the given position (all of them
+     * if {@code timestamp} is null) to the consumer in timestamp DESC, id DESC order, decoding one
+     * file at a time.
+     */
+    public void forEachBefore(long accountId, LocalDateTime timestamp, Long id, Consumer<ArchivedTransaction> consumer) {
+        visitBefore(accountId, timestamp, id, row -> {
+            consumer.accept(row);
+            return true;
+        });
+    }
+
+    public ArchivedTransaction findById(long id) {
+        catchUp();
+        for (ArchiveFile file : files) {
+            ArchivedTransaction row = file.byId(id);
+            if (row != null) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    // Stops once the visitor returns false
+    private void visitBefore(long accountId, LocalDateTime timestamp, Long id, Predicate<ArchivedTransaction> visitor) {
+        catchUp();
+        for (ArchiveFile file : files) {
+            if (file.rowCount(accountId) == 0) {
+                continue;
+            }
+            // Every row of a file that ended by the position comes after it
+            boolean all = timestamp == null || !file.rangeEnd().isAfter(timestamp);
+            for (ArchivedTransaction row : file.account(accountId)) {
+                if ((all || isBefore(row, timestamp, id)) && !visitor.test(row)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean isBefore(ArchivedTransaction row, LocalDateTime timestamp, Long id) {
+        int order = row.timestamp().compareTo(timestamp);
+        return order < 0 || (order == 0 && id != null && row.id() < id);
+    }
+
+    // One probe of a table with a row per archived month; opens whatever another node archived since
+    private void catchUp() {
+        Long newest = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM transaction_archives", Long.class);
+        if (newest != null && newest > seenArchiveId.get()) {
+            refresh();
+        }
+    }
+
+    // Opening a file does I/O, so this is a ReentrantLock rather than a monitor a virtual thread would pin
+    private void tryRegister(Path path, LocalDateTime rangeEnd) {
+        registerLock.lock();
+        try {
+            if (files.stream().anyMatch(file -> file.path().equals(path))) {
+                return;
+            }
+            ArchiveFile file = ArchiveFile.open(path, rangeEnd);
+            List<ArchiveFile> sorted = new ArrayList<>(files);
+            sorted.add(file);
+            sorted.sort(NEWEST_FIRST);
+            files = List.copyOf(sorted);
+            log.info("Opened transaction archive {} ({} rows)", path, file.rowCount());
+        } catch (RuntimeException e) {
+            log.error("Could not open transaction archive {}; its rows cannot be served", path, e);
+        } finally {
+            registerLock.unlock();
+        }
+    }
+}
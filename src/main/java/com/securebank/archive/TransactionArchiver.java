@@ -0,0 +1,157 @@
+package com.securebank.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Moves one transactions partition into an archive file. Everything happens in one database
+ * transaction: the rows are streamed into the file, the file is verified, its transaction_archives
+ * and archived_account_totals rows are written, and the partition is detached and dropped. If
+ * anything fails the transaction rolls back, the partition stays, and the file is deleted; so
+ * every row is always either in the table or in a registered file, never in neither.
+ */
+@Slf4j
+@Component
+public class TransactionArchiver {
+
+    // Arbitrary, but fixed: only one node archives at a time
+    private static final long ARCHIVE_LOCK_KEY = 0x5ECB_A4C1L;
+
+    private static final int FETCH_SIZE = 5000;
+
+    // Grouped by account, newest first, which is the order the writer needs
+    private static final String SELECT_ROWS_SQL =
+            "SELECT id, reference_number, type, amount, description, category, merchant_name, timestamp, status, "
+                    + "account_id, destination_account_id FROM %s ORDER BY account_id, timestamp DESC, id DESC";
+
+    private static final String INSERT_ARCHIVE_SQL =
+            "INSERT INTO transaction_archives (partition_name, file_path, range_start, range_end, row_count, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?) RETURNING id";
+
+    private static final String INSERT_TOTALS_SQL =
+            "INSERT INTO archived_account_totals (archive_id, account_id, net_amount, tx_count) "
+                    + "SELECT ?, account_id, SUM(amount), COUNT(*) FROM %s GROUP BY account_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionArchiveStore archiveStore;
+    private final Path directory;
+
+    public TransactionArchiver(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TransactionArchiveStore archiveStore,
+            @Value("${application.archive.directory:archive}") String directory
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveStore = archiveStore;
+        this.directory = Path.of(directory).toAbsolutePath();
+    }
+
+    /**
+     * Archives and drops the partition. Returns false, doing nothing, if another node is
+     * archiving right now. {@code rangeStart} is null for a partition that starts at MINVALUE.
+     */
+    public boolean archive(String partition, LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        Path target = directory.resolve(partition + ".sbta");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create archive directory " + directory, e);
+        }
+
+        Boolean archived = transactionTemplate.execute(status -> {
+            Boolean leader = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ARCHIVE_LOCK_KEY);
+            if (!Boolean.TRUE.equals(leader)) {
+                return false;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completionStatus) {
+                    if (completionStatus == STATUS_COMMITTED) {
+                        archiveStore.register(target, rangeEnd);
+                    } else {
+                        deleteQuietly(target);
+                    }
+                }
+            });
+
+            long written = writeFile(partition, target);
+            Long counted = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition, Long.class);
+            if (counted == null || counted != written) {
+                throw new IllegalStateException("Archived " + written + " rows of " + partition + " but it has " + counted);
+            }
+            // The file must open and be complete before the rows are dropped
+            ArchiveFile check = ArchiveFile.open(target, rangeEnd);
+            if (check.rowCount() != written) {
+                throw new IllegalStateException("Archive " + target + " holds " + check.rowCount() + " rows, expected " + written);
+            }
+
+            Long archiveId = jdbcTemplate.queryForObject(INSERT_ARCHIVE_SQL, Long.class, partition, target.toString(),
+                    rangeStart != null ? Timestamp.valueOf(rangeStart) : null, Timestamp.valueOf(rangeEnd), written,
+                    Timestamp.valueOf(LocalDateTime.now()));
+            jdbcTemplate.update(String.format(INSERT_TOTALS_SQL, partition), archiveId);
+            jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Archived partition {} ({} rows) to {}", partition, written, target);
+            return true;
+        });
+        return Boolean.TRUE.equals(archived);
+    }
+
+    private long writeFile(String partition, Path target) {
+        try (ArchiveWriter writer = new ArchiveWriter(target)) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(String.format(SELECT_ROWS_SQL, partition),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, (ResultSet rs) -> {
+                ArchivedTransaction row = new ArchivedTransaction(
+                        rs.getLong("id"),
+                        rs.getString("reference_number"),
+                        rs.getString("type"),
+                        rs.getBigDecimal("amount"),
+                        rs.getString("description"),
+                        rs.getString("category"),
+                        rs.getString("merchant_name"),
+                        rs.getTimestamp("timestamp").toLocalDateTime(),
+                        rs.getInt("status"),
+                        rs.getLong("account_id"),
+                        rs.getObject("destination_account_id", Long.class));
+                try {
+                    writer.add(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive " + target, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete abandoned archive {}", path, e);
+        }
+    }
+}
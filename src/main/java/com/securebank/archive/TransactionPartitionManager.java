@@ -0,0 +1,285 @@
+package com.securebank.archive;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the transactions table range-partitioned by month on timestamp. An unpartitioned table
+ * (as Hibernate creates it) is converted once at startup: the existing table becomes the
+ * transactions_legacy partition, bounded above by the end of the current month (or of its newest
+ * row's month), so no row is copied. The checks and indexes the partition needs are built first,
+ * while the table stays writable; the attach itself then holds its exclusive lock only for
+ * catalog changes. Monthly partitions are created ahead of time, with a DEFAULT partition to catch
+ * anything outside them, and partitions that ended more than the retention period ago are handed
+ * to the {@link TransactionArchiver}.
+ *
+ * Queries that filter on timestamp only touch the partitions they need; the rest still work
+ * unchanged, at one index probe per partition.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class TransactionPartitionManager {
+
+    // Arbitrary, but fixed: one node converts or adds partitions at a time
+    private static final long PARTITION_LOCK_KEY = 0x5ECB_9A27L;
+
+    private static final String LEGACY_BOUND_CONSTRAINT = "transactions_legacy_bound";
+
+    private static final String INDEX_VALID_SQL =
+            "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+                    + "WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace";
+
+    // Only while the reference table is still empty, i.e. once, when it is introduced
+    private static final String BACKFILL_REFERENCES_SQL =
+            "INSERT INTO transaction_references (reference_number) SELECT reference_number FROM transactions "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM transaction_references) ON CONFLICT DO NOTHING";
+
+    // Transaction ids used to come from an identity column. The pooled transactions_seq that replaced
+    // it starts at 1, so it is moved past the highest id (plus one allocation of 50) before any
+    // insert. Only ever forward: other nodes may already hold ids from it.
+    private static final String SEQUENCE_FLOOR_SQL =
+            "SELECT setval('transactions_seq', GREATEST(last_value, "
+                    + "(SELECT COALESCE(MAX(id), 0) FROM transactions) + 50)) FROM transactions_seq";
+
+    private static final String PARTITIONED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('transactions'))";
+
+    private static final String PARTITIONS_SQL =
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound FROM pg_inherits i "
+                    + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'transactions'::regclass";
+
+    private static final Pattern RANGE_BOUND =
+            Pattern.compile("FOR VALUES FROM \\((MINVALUE|'([^']+)')\\) TO \\('([^']+)'\\)");
+
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[.SSSSSS]");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionArchiver archiver;
+    private final int premakeMonths;
+    private final int retentionMonths;
+
+    public TransactionPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TransactionArchiver archiver,
+            @Value("${application.partitioning.premake-months:3}") int premakeMonths,
+            @Value("${application.partitioning.retention-months:24}") int retentionMonths
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiver = archiver;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+    }
+
+    // Runs before the web server takes traffic, like the other schema work at startup, and so also
+    // moves the id sequence past existing rows before anything is inserted. The lock is
+    // held by a session of its own, as building indexes concurrently cannot run in a transaction.
+    @PostConstruct
+    void start() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement lock = connection.createStatement()) {
+                lock.execute("SELECT pg_advisory_lock(" + PARTITION_LOCK_KEY + ")");
+                try {
+                    if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(PARTITIONED_SQL, Boolean.class))) {
+                        convert();
+                    }
+                    jdbcTemplate.update(BACKFILL_REFERENCES_SQL);
+                    jdbcTemplate.queryForObject(SEQUENCE_FLOOR_SQL, Long.class);
+                    transactionTemplate.executeWithoutResult(status -> ensurePartitions());
+                } finally {
+                    lock.execute("SELECT pg_advisory_unlock(" + PARTITION_LOCK_KEY + ")");
+                }
+            }
+            return null;
+        });
+    }
+
+    @Scheduled(cron = "${application.partitioning.cron:0 15 1 * * *}")
+    public void maintain() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, PARTITION_LOCK_KEY);
+            ensurePartitions();
+        });
+
+        LocalDateTime cutoff = firstOfMonth(LocalDateTime.now()).minusMonths(retentionMonths);
+        for (RangePartition partition : rangePartitions()) {
+            if (!partition.end().isAfter(cutoff)) {
+                try {
+                    if (!archiver.archive(partition.name(), partition.start(), partition.end())) {
+                        log.info("Another node is archiving; skipping partition {}", partition.name());
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Could not archive partition {}; it stays in the table", partition.name(), e);
+                }
+            }
+        }
+    }
+
+    private void convert() {
+        // Other nodes keep posting while this runs, so the bound leaves room for the current month
+        Timestamp newest = jdbcTemplate.queryForObject("SELECT MAX(timestamp) FROM transactions", Timestamp.class);
+        LocalDateTime upper = firstOfMonth(LocalDateTime.now()).plusMonths(1);
+        if (newest != null && firstOfMonth(newest.toLocalDateTime()).plusMonths(1).isAfter(upper)) {
+            upper = firstOfMonth(newest.toLocalDateTime()).plusMonths(1);
+        }
+        Timestamp bound = Timestamp.valueOf(upper);
+
+        // A validated CHECK that implies the partition bound lets ATTACH skip its scan. Adding it
+        // NOT VALID is a catalog change; validating scans without blocking writes.
+        jdbcTemplate.execute("ALTER TABLE transactions DROP CONSTRAINT IF EXISTS " + LEGACY_BOUND_CONSTRAINT);
+        jdbcTemplate.execute("ALTER TABLE transactions ADD CONSTRAINT " + LEGACY_BOUND_CONSTRAINT
+                + " CHECK (timestamp IS NOT NULL AND timestamp < '" + bound + "') NOT VALID");
+        jdbcTemplate.execute("ALTER TABLE transactions VALIDATE CONSTRAINT " + LEGACY_BOUND_CONSTRAINT);
+        // ATTACH adopts an existing index matching each of the parent's instead of building one
+        createIndexConcurrently("transactions_id_timestamp", "UNIQUE INDEX", "(id, timestamp)");
+        createIndexConcurrently("idx_transactions_account_timestamp_id", "INDEX", "(account_id, timestamp, id)");
+        createIndexConcurrently("idx_transactions_reference_number", "INDEX", "(reference_number)");
+
+        transactionTemplate.executeWithoutResult(status -> swap(bound));
+        log.info("Converted transactions to a partitioned table; existing rows are in transactions_legacy, up to {}", upper);
+    }
+
+    // Renames the table and attaches it under a new partitioned parent; catalog changes only
+    private void swap(Timestamp bound) {
+        jdbcTemplate.execute("LOCK TABLE transactions IN ACCESS EXCLUSIVE MODE");
+
+        // Unique constraints cannot span partitions unless they include timestamp
+        List<String> constraints = jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conrelid = 'transactions'::regclass AND contype IN ('p', 'u')",
+                String.class);
+        for (String constraint : constraints) {
+            jdbcTemplate.execute("ALTER TABLE transactions DROP CONSTRAINT " + quote(constraint));
+        }
+        // ATTACH only adopts an index for the parent's key if it backs a constraint itself
+        jdbcTemplate.execute("ALTER TABLE transactions ADD CONSTRAINT transactions_id_timestamp "
+                + "PRIMARY KEY USING INDEX transactions_id_timestamp");
+        // Index names are schema-wide, so the legacy ones make way for the parent's
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema() AND tablename = 'transactions'",
+                String.class);
+        for (String index : indexes) {
+            String renamed = index.length() > 56 ? index.substring(0, 56) + "_legacy" : index + "_legacy";
+            jdbcTemplate.execute("ALTER INDEX " + quote(index) + " RENAME TO " + quote(renamed));
+        }
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint "
+                        + "WHERE conrelid = 'transactions'::regclass AND contype = 'f'");
+        jdbcTemplate.execute("ALTER TABLE transactions RENAME TO transactions_legacy");
+
+        jdbcTemplate.execute("CREATE TABLE transactions (LIKE transactions_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (timestamp)");
+        jdbcTemplate.execute("ALTER TABLE transactions ADD PRIMARY KEY (id, timestamp)");
+        jdbcTemplate.execute("CREATE INDEX idx_transactions_account_timestamp_id ON transactions (account_id, timestamp, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_transactions_reference_number ON transactions (reference_number)");
+        // Attaching reuses the legacy table's matching foreign keys instead of checking every row again
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE transactions ADD CONSTRAINT " + quote((String) foreignKey.get("conname"))
+                    + " " + foreignKey.get("definition"));
+        }
+        jdbcTemplate.execute("ALTER TABLE transactions ATTACH PARTITION transactions_legacy "
+                + "FOR VALUES FROM (MINVALUE) TO ('" + bound + "')");
+        jdbcTemplate.execute("ALTER TABLE transactions_legacy DROP CONSTRAINT " + LEGACY_BOUND_CONSTRAINT);
+    }
+
+    // A CREATE INDEX CONCURRENTLY that was interrupted leaves an invalid index, which is rebuilt
+    private void createIndexConcurrently(String name, String kind, String columns) {
+        List<Boolean> valid = jdbcTemplate.queryForList(INDEX_VALID_SQL, Boolean.class, name);
+        if (!valid.isEmpty() && valid.get(0)) {
+            return;
+        }
+        if (!valid.isEmpty()) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY " + quote(name));
+        }
+        jdbcTemplate.execute("CREATE " + kind + " CONCURRENTLY " + quote(name) + " ON transactions " + columns);
+    }
+
+    private void ensurePartitions() {
+        LocalDateTime covered = null;
+        boolean hasDefault = false;
+        for (Map<String, Object> row : jdbcTemplate.queryForList(PARTITIONS_SQL)) {
+            String bound = (String) row.get("bound");
+            if ("DEFAULT".equals(bound)) {
+                hasDefault = true;
+                continue;
+            }
+            RangePartition partition = parse((String) row.get("relname"), bound);
+            if (partition != null && (covered == null || partition.end().isAfter(covered))) {
+                covered = partition.end();
+            }
+        }
+
+        LocalDateTime month = firstOfMonth(LocalDateTime.now());
+        if (covered == null || covered.isBefore(month)) {
+            covered = month;
+        }
+        LocalDateTime until = month.plusMonths(premakeMonths + 1L);
+        while (covered.isBefore(until)) {
+            LocalDateTime next = covered.plusMonths(1);
+            String name = "transactions_p" + PARTITION_SUFFIX.format(covered);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF transactions "
+                    + "FOR VALUES FROM ('" + Timestamp.valueOf(covered) + "') TO ('" + Timestamp.valueOf(next) + "')");
+            log.info("Created partition {}", name);
+            covered = next;
+        }
+        // Catches rows outside every range (a clock jump, or months the job did not run for)
+        if (!hasDefault) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS transactions_default PARTITION OF transactions DEFAULT");
+        }
+    }
+
+    // Range partitions, oldest first
+    private List<RangePartition> rangePartitions() {
+        List<RangePartition> partitions = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(PARTITIONS_SQL)) {
+            RangePartition partition = parse((String) row.get("relname"), (String) row.get("bound"));
+            if (partition != null) {
+                partitions.add(partition);
+            }
+        }
+        partitions.sort((a, b) -> a.end().compareTo(b.end()));
+        return partitions;
+    }
+
+    private static RangePartition parse(String name, String bound) {
+        Matcher matcher = RANGE_BOUND.matcher(bound);
+        if (!matcher.matches()) {
+            return null;
+        }
+        LocalDateTime start = matcher.group(2) != null ? LocalDateTime.parse(matcher.group(2), BOUND_FORMAT) : null;
+        return new RangePartition(name, start, LocalDateTime.parse(matcher.group(3), BOUND_FORMAT));
+    }
+
+    private static LocalDateTime firstOfMonth(LocalDateTime timestamp) {
+        return LocalDate.from(timestamp).withDayOfMonth(1).atStartOfDay();
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private record RangePartition(String name, LocalDateTime start, LocalDateTime end) {
+    }
+}
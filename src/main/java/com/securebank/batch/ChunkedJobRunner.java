@@ -0,0 +1,176 @@
+package com.securebank.batch;
+
+import com.securebank.dto.BatchRunReportDTO;
+import com.securebank.dto.BatchRunStatusDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a job over the whole account book in account-id ranges ("chunks") on a fixed pool of
+ * workers. Chunks are planned once per (job, run id) in batch_chunks; each chunk runs in its own
+ * database transaction that also marks it DONE, so re-running the same run id resumes where a
+ * crashed or interrupted run stopped. The chunk row is claimed with SKIP LOCKED, so several nodes
+ * running the same run id share the work instead of repeating it.
+ */
+@Slf4j
+@Component
+public class ChunkedJobRunner {
+
+    private static final String CLAIM_CHUNK_SQL =
+            "SELECT first_account_id, last_account_id FROM batch_chunks WHERE id = ? AND status = 'PENDING' "
+                    + "FOR UPDATE SKIP LOCKED";
+
+    private static final String COMPLETE_CHUNK_SQL =
+            "UPDATE batch_chunks SET status = 'DONE', processed = ?, completed_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public ChunkedJobRunner(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.batch.chunk-size:1000}") int chunkSize,
+            @Value("${application.batch.parallelism:4}") int parallelism
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Work done for one chunk, inside the chunk's transaction. Returns the number of items
+     * (usually accounts) it processed.
+     */
+    @FunctionalInterface
+    public interface ChunkProcessor {
+        long process(long firstAccountId, long lastAccountId);
+    }
+
+    /**
+     * Runs every pending chunk of the given run and blocks until all of them have finished.
+     * Failed chunks stay PENDING and are retried by the next run with the same run id.
+     * {@code isolationLevel} is one of the {@code TransactionDefinition.ISOLATION_*} constants.
+     */
+    public BatchRunReportDTO run(String jobName, String runId, int isolationLevel, ChunkProcessor processor) {
+        long start = System.nanoTime();
+        plan(jobName, runId);
+        List<Long> pending = jdbcTemplate.queryForList(
+                "SELECT id FROM batch_chunks WHERE job_name = ? AND run_id = ? AND status = 'PENDING' ORDER BY first_account_id",
+                Long.class, jobName, runId);
+
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setIsolationLevel(isolationLevel);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, jobName + "-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long processed = 0;
+        int failed = 0;
+        try {
+            List<Future<Long>> results = new ArrayList<>(pending.size());
+            for (Long chunkId : pending) {
+                results.add(workers.submit(() -> runChunk(chunkTransaction, chunkId, processor)));
+            }
+            for (Future<Long> result : results) {
+                try {
+                    processed += result.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.warn("Chunk of {} run {} failed and stays pending", jobName, runId, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running " + jobName + " run " + runId, e);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        double perSecond = elapsedMillis > 0 ? processed * 1000.0 / elapsedMillis : processed;
+        log.info("{} run {}: {} chunks, {} failed, {} processed in {} ms ({} per second)",
+                jobName, runId, pending.size(), failed, processed, elapsedMillis, String.format("%.1f", perSecond));
+        return new BatchRunReportDTO(jobName, runId, pending.size(), failed, processed, elapsedMillis, perSecond);
+    }
+
+    public BatchRunStatusDTO status(String jobName, String runId) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS total, SUM(CASE WHEN status = 'DONE' THEN 1 ELSE 0 END) AS done, "
+                        + "COALESCE(SUM(processed), 0) AS processed FROM batch_chunks WHERE job_name = ? AND run_id = ?",
+                jobName, runId);
+        return new BatchRunStatusDTO(
+                jobName,
+                runId,
+                ((Number) row.get("total")).intValue(),
+                row.get("done") != null ? ((Number) row.get("done")).intValue() : 0,
+                ((Number) row.get("processed")).longValue());
+    }
+
+    private long runChunk(TransactionTemplate chunkTransaction, Long chunkId, ChunkProcessor processor) {
+        Long processed = chunkTransaction.execute(status -> {
+            List<long[]> claimed = jdbcTemplate.query(CLAIM_CHUNK_SQL,
+                    (rs, rowNum) -> new long[] {rs.getLong("first_account_id"), rs.getLong("last_account_id")},
+                    chunkId);
+            if (claimed.isEmpty()) {
+                // Finished, or being worked on by another node
+                return 0L;
+            }
+            long count = processor.process(claimed.get(0)[0], claimed.get(0)[1]);
+            jdbcTemplate.update(COMPLETE_CHUNK_SQL, count, Timestamp.valueOf(LocalDateTime.now()), chunkId);
+            return count;
+        });
+        return processed != null ? processed : 0L;
+    }
+
+    // Splits the current account-id space into chunks, once per run. Accounts opened after
+    // planning are left to the next run.
+    private void plan(String jobName, String runId) {
+        Integer planned = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM batch_chunks WHERE job_name = ? AND run_id = ?", Integer.class, jobName, runId);
+        if (planned != null && planned > 0) {
+            return;
+        }
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM accounts");
+        if (bounds.get("min_id") == null) {
+            return;
+        }
+        long first = ((Number) bounds.get("min_id")).longValue();
+        long last = ((Number) bounds.get("max_id")).longValue();
+
+        List<Object[]> chunks = new ArrayList<>();
+        for (long from = first; from <= last; from += chunkSize) {
+            chunks.add(new Object[] {jobName, runId, from, Math.min(from + chunkSize - 1, last)});
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO batch_chunks (job_name, run_id, first_account_id, last_account_id, status, processed) "
+                            + "VALUES (?, ?, ?, ?, 'PENDING', 0)", chunks));
+        } catch (DuplicateKeyException e) {
+            // Another node planned the same run first; its chunks are identical
+            log.debug("{} run {} was already planned", jobName, runId);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.securebank.batch;
+
+import com.securebank.dto.BatchRunReportDTO;
+import com.securebank.dto.BatchRunStatusDTO;
+import com.securebank.ledger.LedgerEngine;
+import com.securebank.ledger.LedgerEntry;
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import com.securebank.repository.AccountRepository;
+import com.securebank.repository.DailySnapshotRepository;
+import com.securebank.util.IdGenerator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Daily interest for the whole book: SAVINGS accounts earn interest on a positive end-of-day
+ * balance, CREDIT accounts are charged interest on a negative one. Accruals are computed in long minor units
+ * with annual rates in basis points on an actual/365 basis, rounded half away from zero. Each chunk writes
+ * its INTEREST transactions, balance deltas and checkpoint in one database transaction, so a
+ * run for a given date is applied exactly once however often it is restarted.
+ */
+@Slf4j
+@Component
+public class InterestAccrualJob {
+
+    public static final String JOB_NAME = "interest";
+
+    private static final long BASIS_POINTS = 10_000L;
+    private static final long DAYS_PER_YEAR = 365L;
+
+    // The balance the day ended with, not the live one: a run after midnight (or a rerun days later)
+    // must not pay or charge interest on postings made after the accrued day
+    private static final String ACCRUAL_CANDIDATES_SQL =
+            "SELECT a.id, a.account_type, " + DailySnapshotRepository.BALANCE_AT_END_OF_DAY_SQL + " AS balance "
+                    + "FROM accounts a WHERE a.id BETWEEN ? AND ? AND a.active = true "
+                    + "AND a.account_type IN ('SAVINGS', 'CREDIT')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChunkedJobRunner chunkedJobRunner;
+    private final LedgerEngine ledgerEngine;
+    private final AccountRepository accountRepository;
+    private final IdGenerator idGenerator;
+    private final long savingsRateBasisPoints;
+    private final long creditRateBasisPoints;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, JOB_NAME + "-coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InterestAccrualJob(
+            JdbcTemplate jdbcTemplate,
+            ChunkedJobRunner chunkedJobRunner,
+            LedgerEngine ledgerEngine,
+            AccountRepository accountRepository,
+            IdGenerator idGenerator,
+            @Value("${application.interest.savings-rate-bp:200}") long savingsRateBasisPoints,
+            @Value("${application.interest.credit-rate-bp:1999}") long creditRateBasisPoints
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkedJobRunner = chunkedJobRunner;
+        this.ledgerEngine = ledgerEngine;
+        this.accountRepository = accountRepository;
+        this.idGenerator = idGenerator;
+        this.savingsRateBasisPoints = savingsRateBasisPoints;
+        this.creditRateBasisPoints = creditRateBasisPoints;
+    }
+
+    // Accrues the day that just ended
+    @Scheduled(cron = "${application.interest.cron:0 30 0 * * *}")
+    public void nightly() {
+        run(LocalDate.now().minusDays(1));
+    }
+
+    public BatchRunReportDTO run(LocalDate accrualDate) {
+        return chunkedJobRunner.run(JOB_NAME, accrualDate.toString(), TransactionDefinition.ISOLATION_DEFAULT,
+                (first, last) -> accrue(accrualDate, first, last));
+    }
+
+    public void runAsync(LocalDate accrualDate) {
+        coordinator.execute(() -> {
+            try {
+                run(accrualDate);
+            } catch (RuntimeException e) {
+                log.error("Interest accrual for {} failed", accrualDate, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    public BatchRunStatusDTO status(LocalDate accrualDate) {
+        return chunkedJobRunner.status(JOB_NAME, accrualDate.toString());
+    }
+
+    private long accrue(LocalDate accrualDate, long firstAccountId, long lastAccountId) {
+        // Booked at the end of the accrued day (whole seconds, so the database cannot round it into the next day)
+        LocalDateTime postedAt = accrualDate.atTime(23, 59, 59);
+        String description = "Interest for " + accrualDate;
+        List<LedgerEntry> entries = new ArrayList<>();
+        long[] examined = new long[1];
+
+        jdbcTemplate.query(ACCRUAL_CANDIDATES_SQL, (ResultSet rs) -> {
+            examined[0]++;
+            long balanceMinor = toMinorUnits(rs.getBigDecimal("balance"));
+            boolean savings = Account.AccountType.SAVINGS.name().equals(rs.getString("account_type"));
+            long accrualMinor;
+            if (savings && balanceMinor > 0) {
+                accrualMinor = dailyAccrual(balanceMinor, savingsRateBasisPoints);
+            } else if (!savings && balanceMinor < 0) {
+                accrualMinor = dailyAccrual(balanceMinor, creditRateBasisPoints);
+            } else {
+                return;
+            }
+            if (accrualMinor == 0) {
+                return;
+            }
+
+            Transaction transaction = new Transaction();
+            transaction.setReferenceNumber(idGenerator.nextReferenceNumber());
+            transaction.setType(Transaction.TransactionType.INTEREST);
+            transaction.setAmount(Money.ofMinor(accrualMinor));
+            transaction.setDescription(description);
+            transaction.setCategory("Interest");
+            transaction.setAccount(accountRepository.getReferenceById(rs.getLong("id")));
+            transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+            transaction.setTimestamp(postedAt);
+            entries.add(LedgerEntry.credit(transaction));
+        }, Date.valueOf(accrualDate), firstAccountId, lastAccountId);
+
+        if (!entries.isEmpty()) {
+            ledgerEngine.postInTransaction(entries);
+        }
+        return examined[0];
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return Money.of(amount).minorUnits();
+    }
+
+    // balance * rate / (10,000 * 365), rounded half away from zero; keeps the sign of the balance
+    static long dailyAccrual(long balanceMinor, long rateBasisPoints) {
+        long divisor = BASIS_POINTS * DAYS_PER_YEAR;
+        long numerator;
+        try {
+            numerator = Math.multiplyExact(balanceMinor, rateBasisPoints);
+        } catch (ArithmeticException e) {
+            // Only for balances beyond ~10^14 minor units
+            BigInteger[] qr = BigInteger.valueOf(balanceMinor).multiply(BigInteger.valueOf(rateBasisPoints))
+                    .divideAndRemainder(BigInteger.valueOf(divisor));
+            long quotient = qr[0].longValueExact();
+            return Math.abs(qr[1].longValue()) * 2 >= divisor ? quotient + Long.signum(balanceMinor) : quotient;
+        }
+        long quotient = numerator / divisor;
+        long remainder = numerator % divisor;
+        return Math.abs(remainder) * 2 >= divisor ? quotient + Long.signum(numerator) : quotient;
+    }
+}
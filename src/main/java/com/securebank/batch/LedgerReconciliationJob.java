@@ -0,0 +1,156 @@
+package com.securebank.batch;
+
+import com.securebank.dto.BatchRunReportDTO;
+import com.securebank.dto.BatchRunStatusDTO;
+import com.securebank.dto.ReconciliationDiscrepancyDTO;
+import com.securebank.ledger.HotAccountManager;
+import com.securebank.money.Money;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Verifies that every account's recorded balance (accounts.balance plus hot-account slots) equals
+ * the sum of its transaction amounts, archived ones included. Each chunk runs under REPEATABLE
+ * READ: the ledger writer commits rows and balance deltas together, so a consistent snapshot
+ * never shows in-flight drift as a discrepancy. Mismatches go to reconciliation_discrepancies,
+ * keyed by run id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerReconciliationJob {
+
+    public static final String JOB_NAME = "reconciliation";
+
+    private static final int FETCH_SIZE = 5000;
+
+    private static final String RECORDED_BALANCES_SQL =
+            "SELECT a.id, a.balance + " + HotAccountManager.SLOT_SUM_SQL + " AS balance "
+                    + "FROM accounts a WHERE a.id BETWEEN ? AND ?";
+
+    private static final String TRANSACTION_AMOUNTS_SQL =
+            "SELECT account_id, amount FROM transactions WHERE account_id BETWEEN ? AND ?";
+
+    // Net amounts of rows that were moved to archive files
+    private static final String ARCHIVED_TOTALS_SQL =
+            "SELECT account_id, SUM(net_amount) AS net_amount FROM archived_account_totals "
+                    + "WHERE account_id BETWEEN ? AND ? GROUP BY account_id";
+
+    private static final String INSERT_DISCREPANCY_SQL =
+            "INSERT INTO reconciliation_discrepancies "
+                    + "(run_id, account_id, recorded_balance, ledger_balance, difference, detected_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChunkedJobRunner chunkedJobRunner;
+    // Runs requested over HTTP are queued here, one at a time
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, JOB_NAME + "-coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Nightly pass; a restart on the same day resumes the same run
+    @Scheduled(cron = "${application.reconciliation.cron:0 0 2 * * *}")
+    public void nightly() {
+        run(LocalDate.now().toString());
+    }
+
+    public BatchRunReportDTO run(String runId) {
+        BatchRunReportDTO report = chunkedJobRunner.run(JOB_NAME, runId, TransactionDefinition.ISOLATION_REPEATABLE_READ,
+                (first, last) -> reconcile(runId, first, last));
+        Integer discrepancies = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reconciliation_discrepancies WHERE run_id = ?", Integer.class, runId);
+        if (discrepancies != null && discrepancies > 0) {
+            log.error("Reconciliation run {} found {} accounts whose balance does not match their transactions",
+                    runId, discrepancies);
+        }
+        return report;
+    }
+
+    public void runAsync(String runId) {
+        coordinator.execute(() -> {
+            try {
+                run(runId);
+            } catch (RuntimeException e) {
+                log.error("Reconciliation run {} failed", runId, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    public BatchRunStatusDTO status(String runId) {
+        return chunkedJobRunner.status(JOB_NAME, runId);
+    }
+
+    public List<ReconciliationDiscrepancyDTO> discrepancies(String runId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT account_id, recorded_balance, ledger_balance, difference, detected_at "
+                        + "FROM reconciliation_discrepancies WHERE run_id = ? ORDER BY account_id FETCH FIRST " + limit + " ROWS ONLY",
+                (rs, rowNum) -> new ReconciliationDiscrepancyDTO(
+                        rs.getLong("account_id"),
+                        Money.of(rs.getBigDecimal("recorded_balance")),
+                        Money.of(rs.getBigDecimal("ledger_balance")),
+                        Money.of(rs.getBigDecimal("difference")),
+                        rs.getTimestamp("detected_at").toLocalDateTime()),
+                runId);
+    }
+
+    private long reconcile(String runId, long firstAccountId, long lastAccountId) {
+        Map<Long, BigDecimal> recorded = new HashMap<>();
+        jdbcTemplate.query(RECORDED_BALANCES_SQL, (ResultSet rs) -> {
+            recorded.put(rs.getLong("id"), rs.getBigDecimal("balance"));
+        }, firstAccountId, lastAccountId);
+
+        // Forward-only server-side cursor: only the per-account running sums are held in memory
+        Map<Long, BigDecimal> ledger = new HashMap<>(recorded.size() * 2);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(TRANSACTION_AMOUNTS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, firstAccountId);
+            ps.setLong(2, lastAccountId);
+            return ps;
+        }, (ResultSet rs) -> {
+            ledger.merge(rs.getLong("account_id"), rs.getBigDecimal("amount"), BigDecimal::add);
+        });
+        jdbcTemplate.query(ARCHIVED_TOTALS_SQL, (ResultSet rs) -> {
+            ledger.merge(rs.getLong("account_id"), rs.getBigDecimal("net_amount"), BigDecimal::add);
+        }, firstAccountId, lastAccountId);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> discrepancies = new ArrayList<>();
+        recorded.forEach((accountId, balance) -> {
+            BigDecimal expected = ledger.getOrDefault(accountId, BigDecimal.ZERO);
+            if (balance.compareTo(expected) != 0) {
+                discrepancies.add(new Object[] {runId, accountId, balance, expected, balance.subtract(expected), now});
+            }
+        });
+        if (!discrepancies.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DISCREPANCY_SQL, discrepancies);
+        }
+        return recorded.size();
+    }
+}
@@ -0,0 +1,37 @@
+package com.securebank.config;
+
+import com.securebank.security.LoginThrottle;
+import com.securebank.security.PrincipalCache;
+import com.securebank.security.ThrottledAuthenticationProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationProvider;
+
+/**
+ * Wraps every AuthenticationProvider bean in a {@link ThrottledAuthenticationProvider}, so logins
+ * are throttled whether they go through the security filter chain or an AuthenticationManager
+ * built from the global configuration.
+ */
+@Configuration
+public class LoginThrottleConfig {
+
+    @Bean
+    public static BeanPostProcessor throttledAuthenticationProviderPostProcessor(
+            ObjectProvider<LoginThrottle> loginThrottle,
+            ObjectProvider<JdbcTemplate> jdbcTemplate,
+            ObjectProvider<PrincipalCache> principalCache) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AuthenticationProvider provider && !(bean instanceof ThrottledAuthenticationProvider)) {
+                    return new ThrottledAuthenticationProvider(
+                            provider, loginThrottle.getObject(), jdbcTemplate.getObject(), principalCache.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.securebank.config;
+
+import com.securebank.metrics.ConditionalGetBytesFilter;
+import com.securebank.metrics.ConditionalGetMetrics;
+import com.securebank.metrics.StatementCountingDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final DistributionSummary statementsPerRequest;
+
+    public MetricsConfig(MeterRegistry registry) {
+        this.statementsPerRequest = DistributionSummary.builder("securebank.db.statements")
+                .description("SQL statements issued per API request on the request thread")
+                .baseUnit("statements")
+                .tag("source", "request")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // Wraps the application's DataSource (the routing proxy when replicas are enabled), so every
+    // statement is counted once whichever layer issues it
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Only the ETagged endpoints; the SSE stream and export under /api/transactions/account send no ETag
+    @Bean
+    public FilterRegistrationBean<ConditionalGetBytesFilter> conditionalGetBytesFilter(ConditionalGetMetrics metrics) {
+        FilterRegistrationBean<ConditionalGetBytesFilter> registration =
+                new FilterRegistrationBean<>(new ConditionalGetBytesFilter(metrics));
+        registration.addUrlPatterns("/api/accounts", "/api/accounts/*", "/api/transactions/account/*");
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                StatementCountingDataSource.reset();
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                statementsPerRequest.record(StatementCountingDataSource.count());
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
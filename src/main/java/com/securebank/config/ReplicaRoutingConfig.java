@@ -0,0 +1,109 @@
+package com.securebank.config;
+
+import com.securebank.datasource.ReadYourWritesTracker;
+import com.securebank.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opt-in (application.replicas.enabled): @Transactional(readOnly = true) work is served by the
+ * replicas in application.replicas.urls, everything else by spring.datasource. Replica pools
+ * copy the primary's Hikari settings and credentials. The ETagged account and transaction reads
+ * are read-only too: their ETags are built from row versions read before the body in the same
+ * transaction, so a lagging replica can only cost a refetch, never a stale 304 (see AccountVersions).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+    public ReplicaRoutingConfig(ObjectProvider<ReadYourWritesTracker> readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${application.replicas.read-your-writes-window:5000}") long windowMillis) {
+        return new ReadYourWritesTracker(windowMillis);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            ReadYourWritesTracker readYourWritesTracker,
+            @Value("${application.replicas.urls}") List<String> replicaUrls,
+            @Value("${application.replicas.max-lag:2000}") long maxLagMillis) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            replicas.put("replica-" + i, replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesTracker, maxLagMillis);
+    }
+
+    // Connections are only fetched (and routed) at the first statement, once the transaction's
+    // read-only flag is known
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            // Opened before the write and extended after it, so a read racing the response is covered too
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                recordWrite(request);
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                recordWrite(request);
+            }
+
+            private void recordWrite(HttpServletRequest request) {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication != null && !SAFE_METHODS.contains(request.getMethod())) {
+                    readYourWritesTracker.getObject().recordWrite(authentication.getName());
+                }
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
@@ -2,13 +2,23 @@ package com.securebank.controller;
 
 import com.securebank.dto.AccountDTO;
 import com.securebank.dto.CreateAccountRequest;
+import com.securebank.dto.StatementDTO;
+import com.securebank.dto.StatementTotalDTO;
+import com.securebank.metrics.ConditionalGetMetrics;
+import com.securebank.metrics.ConditionalGetMetrics.Resource;
 import com.securebank.service.AccountService;
+import com.securebank.service.StatementService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,17 +27,55 @@ import java.util.List;
 public class AccountController {
     
     private final AccountService accountService;
+    private final StatementService statementService;
+    private final ConditionalGetMetrics conditionalGetMetrics;
     
+    // The ETag and then the body, in one read-only transaction on one database; see AccountVersions
     @GetMapping
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<AccountDTO>> getCurrentUserAccounts() {
-        return ResponseEntity.ok(accountService.getCurrentUserAccounts());
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<AccountDTO>> getCurrentUserAccounts(WebRequest webRequest) {
+        String etag = accountService.getCurrentUserAccountsETag();
+        if (conditionalGetMetrics.checkNotModified(webRequest, etag, Resource.ACCOUNTS)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(accountService.getCurrentUserAccounts());
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<AccountDTO> getAccountById(@PathVariable Long id) {
-        return ResponseEntity.ok(accountService.getAccountById(id));
+    @Transactional(readOnly = true)
+    public ResponseEntity<AccountDTO> getAccountById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = accountService.getAccountETag(id);
+        if (conditionalGetMetrics.checkNotModified(webRequest, etag, Resource.ACCOUNT)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(accountService.getAccountById(id));
+    }
+    
+    @GetMapping("/{id}/statement")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StatementDTO> getStatement(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(statementService.getStatement(id, from, to));
+    }
+    
+    @GetMapping("/{id}/summary")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<StatementTotalDTO>> getSummary(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "category") String groupBy) {
+        return ResponseEntity.ok(statementService.getSummary(id, from, to, groupBy));
     }
     
     @PostMapping
@@ -47,4 +95,16 @@ public class AccountController {
     public ResponseEntity<AccountDTO> deactivateAccount(@PathVariable Long id) {
         return ResponseEntity.ok(accountService.deactivateAccount(id));
     }
+    
+    @PutMapping("/{id}/hot-mode/enable")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AccountDTO> enableHotMode(@PathVariable Long id) {
+        return ResponseEntity.ok(accountService.enableHotMode(id));
+    }
+    
+    @PutMapping("/{id}/hot-mode/disable")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AccountDTO> disableHotMode(@PathVariable Long id) {
+        return ResponseEntity.ok(accountService.disableHotMode(id));
+    }
 }
@@ -0,0 +1,86 @@
+package com.securebank.controller;
+
+import com.securebank.batch.InterestAccrualJob;
+import com.securebank.batch.LedgerReconciliationJob;
+import com.securebank.journal.JournalReplay;
+import com.securebank.dto.BatchRunStatusDTO;
+import com.securebank.dto.JournalReplayReportDTO;
+import com.securebank.dto.ReconciliationDiscrepancyDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/batch")
+@RequiredArgsConstructor
+public class BatchController {
+    
+    private static final int MAX_DISCREPANCIES = 1000;
+    
+    private final LedgerReconciliationJob reconciliationJob;
+    private final InterestAccrualJob interestAccrualJob;
+    private final JournalReplay journalReplay;
+    
+    // Starts (or resumes) a run in the background; poll its status with the returned run id
+    @PostMapping("/reconciliation")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BatchRunStatusDTO> startReconciliation(@RequestParam(required = false) String runId) {
+        String id = runId != null && !runId.isBlank() ? runId : LocalDate.now().toString();
+        reconciliationJob.runAsync(id);
+        return new ResponseEntity<>(reconciliationJob.status(id), HttpStatus.ACCEPTED);
+    }
+    
+    @GetMapping("/reconciliation/{runId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BatchRunStatusDTO> getReconciliationStatus(@PathVariable String runId) {
+        return ResponseEntity.ok(reconciliationJob.status(runId));
+    }
+    
+    @GetMapping("/reconciliation/{runId}/discrepancies")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ReconciliationDiscrepancyDTO>> getDiscrepancies(
+            @PathVariable String runId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(reconciliationJob.discrepancies(runId, Math.max(1, Math.min(limit, MAX_DISCREPANCIES))));
+    }
+    
+    // Accrues interest for one day (yesterday by default); safe to repeat, finished chunks are skipped
+    @PostMapping("/interest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BatchRunStatusDTO> startInterestAccrual(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate accrualDate = date != null ? date : LocalDate.now().minusDays(1);
+        interestAccrualJob.runAsync(accrualDate);
+        return new ResponseEntity<>(interestAccrualJob.status(accrualDate), HttpStatus.ACCEPTED);
+    }
+    
+    @GetMapping("/interest/{date}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BatchRunStatusDTO> getInterestAccrualStatus(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(interestAccrualJob.status(date));
+    }
+    
+    // Rebuilds balances from the posting journals in the background; poll the report with the returned
+    // run id, on the same node
+    @PostMapping("/journal/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<JournalReplayReportDTO> replayJournal(
+            @RequestParam(defaultValue = "false") boolean crossCheck,
+            @RequestParam(defaultValue = "100") int limit) {
+        String runId = journalReplay.runAsync(crossCheck, Math.max(1, Math.min(limit, MAX_DISCREPANCIES)));
+        return new ResponseEntity<>(journalReplay.report(runId), HttpStatus.ACCEPTED);
+    }
+    
+    @GetMapping("/journal/replay/{runId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<JournalReplayReportDTO> getJournalReplay(@PathVariable String runId) {
+        return ResponseEntity.ok(journalReplay.report(runId));
+    }
+}
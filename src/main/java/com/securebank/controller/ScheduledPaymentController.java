@@ -0,0 +1,38 @@
+package com.securebank.controller;
+
+import com.securebank.dto.ScheduledPaymentDTO;
+import com.securebank.dto.ScheduledPaymentRequest;
+import com.securebank.service.ScheduledPaymentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/scheduled-payments")
+@RequiredArgsConstructor
+public class ScheduledPaymentController {
+    
+    private final ScheduledPaymentService scheduledPaymentService;
+    
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ScheduledPaymentDTO> schedule(@RequestBody ScheduledPaymentRequest request) {
+        return new ResponseEntity<>(scheduledPaymentService.schedule(request), HttpStatus.CREATED);
+    }
+    
+    @GetMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<ScheduledPaymentDTO>> getCurrentUserSchedules() {
+        return ResponseEntity.ok(scheduledPaymentService.getCurrentUserSchedules());
+    }
+    
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ScheduledPaymentDTO> cancel(@PathVariable Long id) {
+        return ResponseEntity.ok(scheduledPaymentService.cancel(id));
+    }
+}
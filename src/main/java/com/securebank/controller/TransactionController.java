@@ -1,13 +1,33 @@
 package com.securebank.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.securebank.dto.*;
+import com.securebank.metrics.ConditionalGetMetrics;
+import com.securebank.metrics.ConditionalGetMetrics.Resource;
+import com.securebank.metrics.TransactionMetrics;
+import com.securebank.metrics.TransactionMetrics.Operation;
+import com.securebank.service.IdempotencyService;
 import com.securebank.service.TransactionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -15,38 +35,242 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TransactionController {
     
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String CSV_HEADER = "id,referenceNumber,type,amount,description,category,merchantName,timestamp,status,accountId";
+    
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final TransactionMetrics transactionMetrics;
+    private final ConditionalGetMetrics conditionalGetMetrics;
     
+    // ETag first, then the page, on one connection, so a replica cannot pair a new ETag with an old page
     @GetMapping("/account/{accountId}")
     @PreAuthorize("hasRole('USER')")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<TransactionDTO>> getTransactionsByAccountId(
             @PathVariable Long accountId,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size) {
-        return ResponseEntity.ok(transactionService.getTransactionsByAccountId(accountId, page, size));
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        long start = System.nanoTime();
+        try {
+            // Every page of an account's list changes exactly when the account's version does
+            String etag = transactionService.getTransactionsETag(accountId);
+            if (conditionalGetMetrics.checkNotModified(webRequest, etag, Resource.TRANSACTIONS)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(transactionService.getTransactionsByAccountId(accountId, page, size));
+        } catch (RuntimeException e) {
+            transactionMetrics.recordFailure(Operation.HISTORY, e);
+            throw e;
+        } finally {
+            transactionMetrics.recordLatency(Operation.HISTORY, start);
+        }
+    }
+    
+    @GetMapping("/account/{accountId}/history")
+    @PreAuthorize("hasRole('USER')")
+    @Transactional(readOnly = true)
+    public ResponseEntity<TransactionPageDTO> getTransactionHistory(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        long start = System.nanoTime();
+        try {
+            String etag = transactionService.getTransactionsETag(accountId);
+            if (conditionalGetMetrics.checkNotModified(webRequest, etag, Resource.TRANSACTIONS)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(transactionService.getTransactionHistory(accountId, cursor, size));
+        } catch (RuntimeException e) {
+            transactionMetrics.recordFailure(Operation.HISTORY, e);
+            throw e;
+        } finally {
+            transactionMetrics.recordLatency(Operation.HISTORY, start);
+        }
+    }
+    
+    // Pushes each new transaction as a "transaction" event; on "resync" the client reloads the list
+    @GetMapping(value = "/account/{accountId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public void streamTransactions(@PathVariable Long accountId, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        transactionService.streamTransactions(accountId, request, response);
+    }
+    
+    @GetMapping("/account/{accountId}/export")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable Long accountId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        
+        TransactionService.TransactionExport export = transactionService.exportTransactions(accountId);
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            export.writeTo(transaction -> {
+                try {
+                    if (csv) {
+                        writeCsvRow(writer, transaction);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(transaction));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        
+        String extension = csv ? "csv" : "ndjson";
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions-" + accountId + "." + extension + "\"")
+                .body(body);
     }
     
     @PostMapping("/deposit")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<TransactionDTO> deposit(@RequestBody DepositRequest request) {
-        return new ResponseEntity<>(transactionService.deposit(request), HttpStatus.CREATED);
+    public ResponseEntity<TransactionDTO> deposit(
+            @RequestBody DepositRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        long start = System.nanoTime();
+        try {
+            return new ResponseEntity<>(
+                    idempotencyService.execute(idempotencyKey, "deposit", request,
+                            referenceNumber -> transactionService.deposit(request, referenceNumber)),
+                    HttpStatus.CREATED);
+        } catch (RuntimeException e) {
+            transactionMetrics.recordFailure(Operation.DEPOSIT, e);
+            throw e;
+        } finally {
+            transactionMetrics.recordLatency(Operation.DEPOSIT, start);
+        }
     }
     
     @PostMapping("/withdraw")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<TransactionDTO> withdraw(@RequestBody WithdrawRequest request) {
-        return new ResponseEntity<>(transactionService.withdraw(request), HttpStatus.CREATED);
+    public ResponseEntity<TransactionDTO> withdraw(
+            @RequestBody WithdrawRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        long start = System.nanoTime();
+        try {
+            return new ResponseEntity<>(
+                    idempotencyService.execute(idempotencyKey, "withdraw", request,
+                            referenceNumber -> transactionService.withdraw(request, referenceNumber)),
+                    HttpStatus.CREATED);
+        } catch (RuntimeException e) {
+            transactionMetrics.recordFailure(Operation.WITHDRAW, e);
+            throw e;
+        } finally {
+            transactionMetrics.recordLatency(Operation.WITHDRAW, start);
+        }
     }
     
     @PostMapping("/transfer")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<TransactionDTO> transfer(@RequestBody TransferRequest request) {
-        return new ResponseEntity<>(transactionService.transfer(request), HttpStatus.CREATED);
+    public ResponseEntity<TransactionDTO> transfer(
+            @RequestBody TransferRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        long start = System.nanoTime();
+        try {
+            return new ResponseEntity<>(
+                    idempotencyService.execute(idempotencyKey, "transfer", request,
+                            referenceNumber -> transactionService.transfer(request, referenceNumber)),
+                    HttpStatus.CREATED);
+        } catch (RuntimeException e) {
+            transactionMetrics.recordFailure(Operation.TRANSFER, e);
+            throw e;
+        } finally {
+            transactionMetrics.recordLatency(Operation.TRANSFER, start);
+        }
     }
     
     @PostMapping("/payment")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<TransactionDTO> payment(@RequestBody PaymentRequest request) {
-        return new ResponseEntity<>(transactionService.payment(request), HttpStatus.CREATED);
+    public ResponseEntity<TransactionDTO> payment(
+            @RequestBody PaymentRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        long start = System.nanoTime();
+        try {
+            return new ResponseEntity<>(
+                    idempotencyService.execute(idempotencyKey, "payment", request,
+                            referenceNumber -> transactionService.payment(request, referenceNumber)),
+                    HttpStatus.CREATED);
+        } catch (RuntimeException e) {
+            transactionMetrics.recordFailure(Operation.PAYMENT, e);
+            throw e;
+        } finally {
+            transactionMetrics.recordLatency(Operation.PAYMENT, start);
+        }
+    }
+    
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BulkTransactionResultDTO> bulk(@RequestBody BulkTransactionRequest request) {
+        long start = System.nanoTime();
+        try {
+            return ResponseEntity.ok(transactionService.bulk(request));
+        } catch (RuntimeException e) {
+            transactionMetrics.recordFailure(Operation.BULK, e);
+            throw e;
+        } finally {
+            transactionMetrics.recordLatency(Operation.BULK, start);
+        }
+    }
+    
+    private void writeCsvRow(Writer writer, TransactionDTO transaction) throws IOException {
+        writer.write(String.valueOf(transaction.getId()));
+        writer.write(',');
+        writeCsvField(writer, transaction.getReferenceNumber());
+        writer.write(',');
+        writeCsvField(writer, transaction.getType());
+        writer.write(',');
+        writer.write(transaction.getAmount().toString());
+        writer.write(',');
+        writeCsvField(writer, transaction.getDescription());
+        writer.write(',');
+        writeCsvField(writer, transaction.getCategory());
+        writer.write(',');
+        writeCsvField(writer, transaction.getMerchantName());
+        writer.write(',');
+        writer.write(transaction.getTimestamp().toString());
+        writer.write(',');
+        writeCsvField(writer, transaction.getStatus());
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getAccountId()));
+        writer.write('\n');
+    }
+    
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
     }
 }
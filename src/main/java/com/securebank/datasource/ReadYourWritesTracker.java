@@ -0,0 +1,45 @@
+package com.securebank.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which principals mutated something recently. For a short window after a write their
+ * read-only work stays on the primary, so they never read a replica that has not caught up with
+ * their own change. The window is per node: a follow-up read served by another instance only
+ * gets the lag-based fallback.
+ */
+public class ReadYourWritesTracker {
+
+    private final Map<String, Long> primaryUntil = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    public ReadYourWritesTracker(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void recordWrite(String subject) {
+        primaryUntil.put(subject, System.currentTimeMillis() + windowMillis);
+    }
+
+    public boolean mustReadPrimary(String subject) {
+        Long until = primaryUntil.get(subject);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        primaryUntil.remove(subject, until);
+        return false;
+    }
+
+    // Subjects that wrote once and never read again would otherwise stay forever
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        primaryUntil.values().removeIf(until -> until <= now);
+    }
+}
@@ -0,0 +1,182 @@
+package com.securebank.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica (round robin over the healthy ones) and everything
+ * else to the primary. Must sit behind a LazyConnectionDataSourceProxy: the transaction's
+ * read-only flag is only known once the transaction has begun, after the JPA transaction manager
+ * asked for its connection.
+ *
+ * Reads still go to the primary when the principal wrote within its read-your-writes window, or
+ * when every replica lags by more than the configured maximum (or cannot be reached).
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    // WAL positions as byte offsets, so they compare as longs
+    private static final String PRIMARY_LSN_SQL = "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')";
+
+    private static final String REPLAY_LSN_SQL =
+            "SELECT pg_is_in_recovery(), pg_wal_lsn_diff(pg_last_wal_replay_lsn(), '0/0')";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    // The primary's WAL position at each probe, oldest first, as {lsn, millis}. Only the probe touches it.
+    private final Deque<long[]> primaryPositions = new ArrayDeque<>();
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources,
+                                    ReadYourWritesTracker readYourWritesTracker, long maxLagMillis) {
+        Map<Object, Object> targets = new HashMap<>(replicaDataSources);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.primary = primary;
+        replicaDataSources.forEach((name, dataSource) -> replicas.add(new Replica(name, dataSource)));
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && readYourWritesTracker.mustReadPrimary(authentication.getName())) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Measures each replica against the primary's WAL position rather than its own receive
+     * position, which a disconnected standby reports as fully replayed. A replica's lag is the age
+     * of the oldest primary position it has not replayed yet, so an idle primary never makes a
+     * caught-up replica look stale. A plain (non-standby) server counts as caught up, so a second
+     * primary-like instance works as a local stand-in. Replicas start out unhealthy and are only
+     * used once a probe has seen them within bounds.
+     */
+    @Scheduled(fixedDelayString = "${application.replicas.lag-check-interval:1000}")
+    public void checkReplicationLag() {
+        long now = System.currentTimeMillis();
+        try {
+            recordPrimaryPosition(now);
+        } catch (SQLException e) {
+            log.warn("Could not read the primary's WAL position, reads stay on the primary", e);
+            for (Replica replica : replicas) {
+                replica.healthy = false;
+            }
+            return;
+        }
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(REPLAY_LSN_SQL)) {
+                rs.next();
+                boolean standby = rs.getBoolean(1);
+                long replayed = rs.getLong(2);
+                // A standby that has not replayed anything yet reports no position
+                long lagMillis = !standby ? 0 : rs.wasNull() ? Long.MAX_VALUE : lagMillis(replayed, now);
+                boolean healthy = lagMillis <= maxLagMillis;
+                if (healthy != replica.healthy) {
+                    log.info("Replica {} is {} (lag {} ms)", replica.name, healthy ? "in use" : "bypassed", lagMillis);
+                }
+                replica.healthy = healthy;
+            } catch (SQLException e) {
+                if (replica.healthy) {
+                    log.warn("Replica {} is unreachable, reads fall back to the primary", replica.name, e);
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    private void recordPrimaryPosition(long now) throws SQLException {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PRIMARY_LSN_SQL)) {
+            rs.next();
+            long lsn = rs.getLong(1);
+            // An unchanged position keeps the time it was first seen
+            if (primaryPositions.isEmpty() || primaryPositions.peekLast()[0] < lsn) {
+                primaryPositions.addLast(new long[] {lsn, now});
+            }
+        }
+        // Only one position older than max-lag is needed to tell that a replica is beyond it
+        while (primaryPositions.size() > 1 && now - secondOldest()[1] > maxLagMillis) {
+            primaryPositions.removeFirst();
+        }
+    }
+
+    private long[] secondOldest() {
+        Iterator<long[]> positions = primaryPositions.iterator();
+        positions.next();
+        return positions.next();
+    }
+
+    private long lagMillis(long replayed, long now) {
+        for (long[] position : primaryPositions) {
+            if (position[0] > replayed) {
+                return now - position[1];
+            }
+        }
+        return 0;
+    }
+
+    // Picked up as the bean's destroy method; the replica pools are not beans of their own
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.securebank.dto;
+
+import com.securebank.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountDTO {
+    private Long id;
+    private String accountNumber;
+    private String accountType;
+    private Money balance;
+    private boolean active;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.securebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRunReportDTO {
+    private String jobName;
+    private String runId;
+    private int chunks;
+    private int failedChunks;
+    private long processed;
+    private long elapsedMillis;
+    private double itemsPerSecond;
+}
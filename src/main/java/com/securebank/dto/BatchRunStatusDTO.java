@@ -0,0 +1,16 @@
+package com.securebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRunStatusDTO {
+    private String jobName;
+    private String runId;
+    private int totalChunks;
+    private int doneChunks;
+    private long processed;
+}
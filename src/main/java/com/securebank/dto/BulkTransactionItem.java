@@ -0,0 +1,46 @@
+package com.securebank.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.securebank.money.Money;
+import com.securebank.money.MoneyJsonComponent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionItem {
+    private String type;
+    private Long accountId;
+    @JsonDeserialize(using = AmountDeserializer.class)
+    private Money amount;
+    private String description;
+    private String merchantName;
+    private String category;
+    // Why the amount could not be read, so only this item is rejected instead of the whole request
+    @JsonIgnore
+    private String amountError;
+
+    static class AmountDeserializer extends MoneyJsonComponent.Deserializer {
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (MoneyJsonComponent.Deserializer.isAmountToken(p.currentToken())
+                    && p.getParsingContext().getCurrentValue() instanceof BulkTransactionItem item) {
+                try {
+                    return MoneyJsonComponent.Deserializer.read(p);
+                } catch (IllegalArgumentException e) {
+                    item.setAmountError(e.getMessage());
+                    return null;
+                }
+            }
+            return super.deserialize(p, ctxt);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.securebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionItemResult {
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String REJECTED = "REJECTED";
+    
+    private int index;
+    private String status;
+    private Long transactionId;
+    private String referenceNumber;
+    private String error;
+    
+    public static BulkTransactionItemResult accepted(int index, Long transactionId, String referenceNumber) {
+        return new BulkTransactionItemResult(index, ACCEPTED, transactionId, referenceNumber, null);
+    }
+    
+    public static BulkTransactionItemResult rejected(int index, String error) {
+        return new BulkTransactionItemResult(index, REJECTED, null, null, error);
+    }
+}
@@ -0,0 +1,14 @@
+package com.securebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionRequest {
+    private List<BulkTransactionItem> items;
+}
@@ -0,0 +1,16 @@
+package com.securebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionResultDTO {
+    private int accepted;
+    private int rejected;
+    private List<BulkTransactionItemResult> results;
+}
@@ -0,0 +1,28 @@
+package com.securebank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalReplayReportDTO {
+    private String runId;
+    private String state;
+    private int journals;
+    private int segments;
+    private long bytes;
+    private long committedGroups;
+    private long abortedGroups;
+    private long unmarkedGroups;
+    private long postings;
+    private int accounts;
+    private long elapsedMillis;
+    private double millisPerGigabyte;
+    private boolean crossChecked;
+    private long discrepancyCount;
+    private List<ReconciliationDiscrepancyDTO> discrepancies;
+}
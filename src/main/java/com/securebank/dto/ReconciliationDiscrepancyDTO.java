@@ -0,0 +1,19 @@
+package com.securebank.dto;
+
+import com.securebank.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationDiscrepancyDTO {
+    private Long accountId;
+    private Money recordedBalance;
+    private Money ledgerBalance;
+    private Money difference;
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,22 @@
+package com.securebank.dto;
+
+import com.securebank.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledPaymentRequest {
+    private Long accountId;
+    private Money amount;
+    private String description;
+    private String category;
+    private String merchantName;
+    private String recurrence;
+    private LocalDateTime firstRunAt;
+    private LocalDateTime endAt;
+}
@@ -0,0 +1,26 @@
+package com.securebank.dto;
+
+import com.securebank.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementDTO {
+    private Long accountId;
+    private LocalDate from;
+    private LocalDate to;
+    private Money openingBalance;
+    private Money closingBalance;
+    private Money totalCredits;
+    private Money totalDebits;
+    private long transactionCount;
+    private List<StatementTotalDTO> byType;
+    private List<StatementTotalDTO> byCategory;
+    private List<StatementTotalDTO> byMerchant;
+}
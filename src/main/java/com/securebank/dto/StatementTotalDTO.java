@@ -0,0 +1,16 @@
+package com.securebank.dto;
+
+import com.securebank.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementTotalDTO {
+    private String key;
+    private Money credits;
+    private Money debits;
+    private long count;
+}
@@ -0,0 +1,24 @@
+package com.securebank.dto;
+
+import com.securebank.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionDTO {
+    private Long id;
+    private String referenceNumber;
+    private String type;
+    private Money amount;
+    private String description;
+    private String category;
+    private String merchantName;
+    private LocalDateTime timestamp;
+    private String status;
+    private Long accountId;
+}
@@ -0,0 +1,112 @@
+package com.securebank.feed;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes feed_events written by {@link FeedOutboxSink}, on whichever node relays, to this node's
+ * streams. Polls by id from where it last read, on a thread of its own, so no scheduled job can
+ * hold it up. A node that has not read for longer than the retention may have missed pruned rows,
+ * so it sends every stream a resync.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(prefix = "application.feed.cluster", name = "enabled", havingValue = "true")
+public class FeedEventTailer {
+
+    private static final String TAIL_SQL =
+            "SELECT id, account_id, transaction_id, data FROM feed_events WHERE id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionFeed transactionFeed;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long retentionMillis;
+
+    // Only the tailer thread reads these after start()
+    private long lastSeenId;
+    private long lastReadAt;
+    private volatile boolean running;
+    private Thread tailer;
+
+    public FeedEventTailer(
+            JdbcTemplate jdbcTemplate,
+            TransactionFeed transactionFeed,
+            @Value("${application.feed.cluster.batch-size:1000}") int batchSize,
+            @Value("${application.feed.cluster.poll-interval:200}") long pollIntervalMillis,
+            @Value("${application.feed.cluster.retention:60000}") long retentionMillis
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionFeed = transactionFeed;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    // Starts at the newest row: earlier events are covered by the resync every new stream gets
+    @PostConstruct
+    void start() {
+        Long newest = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM feed_events", Long.class);
+        lastSeenId = newest != null ? newest : 0;
+        lastReadAt = System.currentTimeMillis();
+        running = true;
+        tailer = new Thread(this::run, "feed-tailer");
+        tailer.setDaemon(true);
+        tailer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        tailer.interrupt();
+        tailer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // A full batch means there is more waiting, so go again right away
+                if (poll() < batchSize) {
+                    Thread.sleep(pollIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Reading feed events failed, retrying in {} ms", pollIntervalMillis, e);
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Returns the number of events read
+    private int poll() {
+        long now = System.currentTimeMillis();
+        if (now - lastReadAt > retentionMillis) {
+            log.warn("Feed events were not read for {} ms; resyncing every stream", now - lastReadAt);
+            transactionFeed.resyncAll();
+        }
+        int[] read = {0};
+        jdbcTemplate.query(TAIL_SQL, rs -> {
+            transactionFeed.publish(rs.getLong("account_id"), rs.getLong("transaction_id"), rs.getString("data"));
+            lastSeenId = rs.getLong("id");
+            read[0]++;
+        }, lastSeenId, batchSize);
+        lastReadAt = now;
+        return read[0];
+    }
+}
@@ -0,0 +1,95 @@
+package com.securebank.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securebank.dto.TransactionDTO;
+import com.securebank.outbox.OutboxMessage;
+import com.securebank.outbox.OutboxSink;
+import com.securebank.outbox.OutboxWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cluster fan-out of the transaction feed: copies relayed TRANSACTION_POSTED events into
+ * feed_events, in the relay's transaction, for every node's {@link FeedEventTailer} to push to its
+ * streams. Rows older than the retention are deleted as new ones arrive.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "application.feed.cluster", name = "enabled", havingValue = "true")
+public class FeedOutboxSink implements OutboxSink {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO feed_events (account_id, transaction_id, data, created_at) VALUES (?, ?, ?, ?)";
+
+    private static final String PRUNE_SQL = "DELETE FROM feed_events WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final long retentionMillis;
+    // Only the relay thread delivers
+    private long prunedAt;
+
+    public FeedOutboxSink(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            OutboxWriter outboxWriter,
+            @Value("${application.feed.cluster.retention:60000}") long retentionMillis
+    ) {
+        if (!outboxWriter.isEnabled()) {
+            throw new IllegalStateException("application.feed.cluster.enabled needs application.outbox.enabled");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.retentionMillis = retentionMillis;
+    }
+
+    @Override
+    public String name() {
+        return "feed";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+        // Stamped now rather than at posting, so the retention counts from when tailers can see it
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            if (!OutboxWriter.TRANSACTION_POSTED.equals(message.eventType())) {
+                continue;
+            }
+            String data = toData(message);
+            if (data != null) {
+                args.add(new Object[] {message.accountId(), message.transactionId(), data, Timestamp.valueOf(now)});
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, args);
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis - prunedAt > retentionMillis) {
+            jdbcTemplate.update(PRUNE_SQL, Timestamp.valueOf(now.minusNanos(retentionMillis * 1_000_000)));
+            prunedAt = nowMillis;
+        }
+    }
+
+    // The outbox payload read back as the DTO, so remote events look exactly like local ones
+    private String toData(OutboxMessage message) {
+        try {
+            return objectMapper.writeValueAsString(objectMapper.readValue(message.payload(), TransactionDTO.class));
+        } catch (JsonProcessingException e) {
+            // Retrying would stall the relay on this message for good; the streams just miss it
+            log.error("Could not read outbox event {} for the transaction feed", message.id(), e);
+            return null;
+        }
+    }
+}
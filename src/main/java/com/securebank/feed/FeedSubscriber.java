@@ -0,0 +1,120 @@
+package com.securebank.feed;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open stream. Publishers only touch the bounded buffer, under the subscriber's monitor; a
+ * dispatcher thread drains it into the response while the output stream is ready. The buffer is
+ * allocated on the first event, so an idle subscriber is just this object and its async request.
+ */
+final class FeedSubscriber {
+
+    final long accountId;
+    final AsyncContext asyncContext;
+    final ServletOutputStream out;
+    // True while a drain is queued or running, so at most one dispatcher writes to the stream
+    final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final int capacity;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private ArrayDeque<byte[]> buffer;
+    private boolean resync = true; // tells a new stream to load the list first
+    private boolean heartbeat;
+    // When a drain last found the stream not ready, or 0 once it caught up
+    private volatile long stalledSince;
+
+    FeedSubscriber(long accountId, AsyncContext asyncContext, ServletOutputStream out, int capacity) {
+        this.accountId = accountId;
+        this.asyncContext = asyncContext;
+        this.out = out;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Buffers the event frame. Returns false if the buffer was full: the buffered events are
+     * dropped and the next drain sends a resync instead, since the client has lost events either way.
+     */
+    synchronized boolean offer(byte[] frame) {
+        if (resync) {
+            return true;
+        }
+        if (buffer == null) {
+            buffer = new ArrayDeque<>(Math.min(capacity, 8));
+        }
+        if (buffer.size() >= capacity) {
+            buffer = null;
+            resync = true;
+            return false;
+        }
+        buffer.add(frame);
+        return true;
+    }
+
+    // Drops what is buffered; the next drain sends a resync instead
+    synchronized void resync() {
+        buffer = null;
+        resync = true;
+    }
+
+    synchronized void heartbeat() {
+        heartbeat = true;
+    }
+
+    // The next frame to write, or null if there is none; any frame stands in for a due heartbeat
+    synchronized byte[] poll() {
+        if (resync) {
+            resync = false;
+            heartbeat = false;
+            return TransactionFeed.RESYNC_FRAME;
+        }
+        if (buffer != null) {
+            byte[] frame = buffer.poll();
+            if (buffer.isEmpty()) {
+                buffer = null;
+            }
+            heartbeat = false;
+            return frame;
+        }
+        if (heartbeat) {
+            heartbeat = false;
+            return TransactionFeed.KEEP_ALIVE_FRAME;
+        }
+        return null;
+    }
+
+    synchronized boolean hasWork() {
+        return resync || heartbeat || buffer != null;
+    }
+
+    synchronized int buffered() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    void stalled(long nowMillis) {
+        if (stalledSince == 0) {
+            stalledSince = nowMillis;
+        }
+    }
+
+    void writable() {
+        stalledSince = 0;
+    }
+
+    boolean stalledLongerThan(long nowMillis, long millis) {
+        long since = stalledSince;
+        return since != 0 && nowMillis - since > millis;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    // True only for the call that closed it
+    boolean close() {
+        return closed.compareAndSet(false, true);
+    }
+}
@@ -0,0 +1,356 @@
+package com.securebank.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securebank.dto.TransactionDTO;
+import com.securebank.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed transactions out to open per-account SSE streams. Publishing never blocks: each
+ * transaction is serialized once into an SSE frame, then offered to every subscriber's bounded
+ * buffer. A small dispatcher pool drains buffers into the responses, one drain per subscriber at a
+ * time. A subscriber that falls a whole buffer behind loses the buffered events and gets a
+ * "resync" event instead, telling the client to reload the list; a new stream starts with one too.
+ *
+ * Writes use servlet non-blocking I/O, so a dispatcher never waits on a client: a drain writes
+ * only while the output stream is ready, and the container calls back to resume it once the
+ * client has read what is pending. A stream that stays not ready for write-timeout is closed.
+ *
+ * An idle stream holds no thread and no buffer, only its async request. Streams are per node. By
+ * default each node pushes only the transactions it committed itself. With
+ * application.feed.cluster.enabled, every node's streams are fed from feed_events instead (see
+ * {@link FeedEventTailer}): transactions committed on any node, in the same order everywhere, a
+ * relay and a poll interval later.
+ */
+@Component
+public class TransactionFeed {
+
+    static final byte[] RESYNC_FRAME = "event:resync\ndata:\n\n".getBytes(StandardCharsets.UTF_8);
+    static final byte[] KEEP_ALIVE_FRAME = ":keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Set<FeedSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService dispatchers;
+    private final int bufferCapacity;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long writeTimeoutMillis;
+    private final boolean clustered;
+    private final Counter delivered;
+    private final Counter overflows;
+
+    public TransactionFeed(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${application.feed.buffer-capacity:64}") int bufferCapacity,
+            @Value("${application.feed.max-subscribers:50000}") int maxSubscribers,
+            @Value("${application.feed.timeout:1800000}") long timeoutMillis,
+            @Value("${application.feed.dispatchers:4}") int dispatcherCount,
+            @Value("${application.feed.write-timeout:60000}") long writeTimeoutMillis,
+            @Value("${application.feed.cluster.enabled:false}") boolean clustered
+    ) {
+        this.objectMapper = objectMapper;
+        this.bufferCapacity = bufferCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.clustered = clustered;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatchers = Executors.newFixedThreadPool(dispatcherCount, task -> {
+            Thread thread = new Thread(task, "transaction-feed-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.delivered = Counter.builder("securebank.feed.delivered")
+                .description("Transaction events written to streams")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("securebank.feed.overflows")
+                .description("Times a slow stream's buffer overflowed and it was sent a resync instead")
+                .register(meterRegistry);
+        Gauge.builder("securebank.feed.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open transaction streams")
+                .register(meterRegistry);
+        Gauge.builder("securebank.feed.buffered", this, TransactionFeed::bufferedEvents)
+                .description("Events buffered for all streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the account on this request, which is put in async mode; the handler
+     * returns without writing anything. The caller has checked that the current user owns the
+     * account. Fails with 503 once the node holds max-subscribers streams.
+     */
+    public void subscribe(Long accountId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open transaction streams");
+        }
+        FeedSubscriber subscriber;
+        try {
+            response.setContentType("text/event-stream");
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader("Cache-Control", "no-cache");
+            AsyncContext asyncContext = request.startAsync(request, response);
+            asyncContext.setTimeout(timeoutMillis);
+            subscriber = new FeedSubscriber(accountId, asyncContext, response.getOutputStream(), bufferCapacity);
+            asyncContext.addListener(new StreamListener(subscriber));
+        } catch (IOException | RuntimeException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+        // Inside compute, so a concurrent remove cannot drop the set this is added to
+        subscribers.compute(accountId, (id, listeners) -> {
+            Set<FeedSubscriber> set = listeners != null ? listeners : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        // Switches the stream to non-blocking; the container calls onWritePossible right away,
+        // which sends the initial resync
+        subscriber.out.setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() {
+                schedule(subscriber);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                close(subscriber);
+            }
+        });
+    }
+
+    // Called once the transactions have committed; in cluster mode they arrive through feed_events
+    public void publish(List<Transaction> transactions) {
+        if (clustered || subscriberCount.get() == 0) {
+            return;
+        }
+        for (Transaction transaction : transactions) {
+            Set<FeedSubscriber> listeners = subscribers.get(transaction.getAccount().getId());
+            if (listeners == null || listeners.isEmpty()) {
+                continue;
+            }
+            offer(listeners, frame(transaction.getId(), toData(transaction)));
+        }
+    }
+
+    // An event read from feed_events; data is the transaction's JSON
+    void publish(long accountId, long transactionId, String data) {
+        Set<FeedSubscriber> listeners = subscribers.get(accountId);
+        if (listeners == null || listeners.isEmpty()) {
+            return;
+        }
+        offer(listeners, frame(transactionId, data));
+    }
+
+    // For when events may have been missed
+    void resyncAll() {
+        for (Set<FeedSubscriber> listeners : subscribers.values()) {
+            for (FeedSubscriber subscriber : listeners) {
+                subscriber.resync();
+                schedule(subscriber);
+            }
+        }
+    }
+
+    // Comment lines keep idle streams open through proxies and reveal clients that went away;
+    // streams that have not taken a write for write-timeout are closed
+    @Scheduled(fixedDelayString = "${application.feed.heartbeat:30000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Set<FeedSubscriber> listeners : subscribers.values()) {
+            for (FeedSubscriber subscriber : listeners) {
+                if (subscriber.stalledLongerThan(now, writeTimeoutMillis)) {
+                    close(subscriber);
+                    continue;
+                }
+                subscriber.heartbeat();
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatchers.shutdownNow();
+        subscribers.values().forEach(listeners -> listeners.forEach(this::close));
+    }
+
+    private void offer(Set<FeedSubscriber> listeners, byte[] frame) {
+        for (FeedSubscriber subscriber : listeners) {
+            if (!subscriber.offer(frame)) {
+                overflows.increment();
+            }
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(FeedSubscriber subscriber) {
+        if (!subscriber.isClosed() && subscriber.scheduled.compareAndSet(false, true)) {
+            dispatchers.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(FeedSubscriber subscriber) {
+        try {
+            if (write(subscriber)) {
+                subscriber.writable();
+            } else {
+                subscriber.stalled(System.currentTimeMillis());
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the request already completed
+            close(subscriber);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // Events that arrived while this drain ran. While the stream is not ready, the
+        // container's onWritePossible schedules the next drain instead
+        if (subscriber.hasWork() && isReady(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Writes and flushes frames while the stream is ready. Returns true if everything was sent,
+     * false if the stream stopped being ready first; isReady() returning false makes the container
+     * call onWritePossible once the client has read what is pending.
+     */
+    private boolean write(FeedSubscriber subscriber) throws IOException {
+        ServletOutputStream out = subscriber.out;
+        boolean flushed = false;
+        while (out.isReady()) {
+            byte[] frame = subscriber.poll();
+            if (frame != null) {
+                out.write(frame);
+                flushed = false;
+                if (frame != RESYNC_FRAME && frame != KEEP_ALIVE_FRAME) {
+                    delivered.increment();
+                }
+            } else if (!flushed) {
+                out.flush();
+                flushed = true;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isReady(FeedSubscriber subscriber) {
+        try {
+            return subscriber.out.isReady();
+        } catch (IllegalStateException e) {
+            return false; // completed meanwhile
+        }
+    }
+
+    private void close(FeedSubscriber subscriber) {
+        remove(subscriber);
+        try {
+            subscriber.asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // Already completed or timed out
+        }
+    }
+
+    private void remove(FeedSubscriber subscriber) {
+        if (!subscriber.close()) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.accountId, (id, listeners) -> {
+            listeners.remove(subscriber);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    private long bufferedEvents() {
+        long total = 0;
+        for (Set<FeedSubscriber> listeners : subscribers.values()) {
+            for (FeedSubscriber subscriber : listeners) {
+                total += subscriber.buffered();
+            }
+        }
+        return total;
+    }
+
+    // One SSE "transaction" event; the JSON has no line breaks, so it fits a single data line
+    private static byte[] frame(long transactionId, String data) {
+        return ("id:" + transactionId + "\nevent:transaction\ndata:" + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String toData(Transaction transaction) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(transaction.getId());
+        dto.setReferenceNumber(transaction.getReferenceNumber());
+        dto.setType(transaction.getType().name());
+        dto.setAmount(transaction.getAmount());
+        dto.setDescription(transaction.getDescription());
+        dto.setCategory(transaction.getCategory());
+        dto.setMerchantName(transaction.getMerchantName());
+        dto.setTimestamp(transaction.getTimestamp());
+        dto.setStatus(transaction.getStatus().name());
+        dto.setAccountId(transaction.getAccount().getId());
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize transaction " + transaction.getId(), e);
+        }
+    }
+
+    private final class StreamListener implements AsyncListener {
+
+        private final FeedSubscriber subscriber;
+
+        StreamListener(FeedSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            remove(subscriber);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close(subscriber);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close(subscriber);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.securebank.fraud;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count and amount (in minor units) over the last {@code buckets} time buckets, kept in a ring of
+ * primitive counters with running totals, so adding and reading are O(1) and allocation-free.
+ * Callers hold {@link #lock} around every access.
+ */
+final class SlidingWindow {
+
+    final ReentrantLock lock = new ReentrantLock();
+
+    private final int buckets;
+    private final long[] counts;
+    private final long[] amounts;
+    private long headEpoch = Long.MIN_VALUE;
+    private long totalCount;
+    private long totalAmount;
+    // Set once the window has been purged from its map; a caller that locked it through a stale
+    // reference must look the window up again
+    private boolean retired;
+
+    SlidingWindow(int buckets) {
+        this.buckets = buckets;
+        this.counts = new long[buckets];
+        this.amounts = new long[buckets];
+    }
+
+    // Moves the window forward to the given bucket epoch, dropping buckets that fell out of it
+    void advance(long epoch) {
+        if (headEpoch == Long.MIN_VALUE) {
+            headEpoch = epoch;
+            return;
+        }
+        if (epoch <= headEpoch) {
+            return;
+        }
+        long steps = Math.min(epoch - headEpoch, buckets);
+        for (long e = headEpoch + 1; e <= headEpoch + steps; e++) {
+            int slot = (int) Math.floorMod(e, (long) buckets);
+            totalCount -= counts[slot];
+            totalAmount -= amounts[slot];
+            counts[slot] = 0;
+            amounts[slot] = 0;
+        }
+        headEpoch = epoch;
+    }
+
+    void add(long epoch, long amount) {
+        advance(epoch);
+        if (epoch <= headEpoch - buckets) {
+            return;
+        }
+        int slot = (int) Math.floorMod(epoch, (long) buckets);
+        counts[slot]++;
+        amounts[slot] += amount;
+        totalCount++;
+        totalAmount += amount;
+    }
+
+    // Backs out an earlier add; a no-op once its bucket has expired
+    void remove(long epoch, long amount) {
+        if (headEpoch == Long.MIN_VALUE || epoch <= headEpoch - buckets || epoch > headEpoch) {
+            return;
+        }
+        int slot = (int) Math.floorMod(epoch, (long) buckets);
+        counts[slot]--;
+        amounts[slot] -= amount;
+        totalCount--;
+        totalAmount -= amount;
+    }
+
+    long count() {
+        return totalCount;
+    }
+
+    long amount() {
+        return totalAmount;
+    }
+
+    boolean isIdle(long epoch) {
+        return epoch - headEpoch >= buckets;
+    }
+
+    void retire() {
+        retired = true;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+}
@@ -0,0 +1,215 @@
+package com.securebank.fraud;
+
+import com.securebank.fraud.VelocityProperties.Rule;
+import com.securebank.fraud.VelocityProperties.Scope;
+import com.securebank.money.Money;
+import com.securebank.util.IdNodeLeases;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory velocity checks for money leaving an account (withdrawals, outgoing transfers,
+ * payments). Every configured rule keeps one {@link SlidingWindow} per account or per user.
+ * {@link #reserve} checks every rule and, if none would be exceeded, records the debit
+ * atomically, so concurrent requests cannot slip past a limit together. A debit that then fails
+ * in the ledger is handed back with {@link #release}.
+ *
+ * State is per node and rebuilt from the transactions table on startup, before the node takes
+ * traffic, so no debit is both reserved live and read back from the table.
+ *
+ * Single node only: windows are not shared, so with N nodes behind a load balancer an account or
+ * user can debit up to N times a limit before any node rejects it. Nothing here enforces limits
+ * across nodes; while more than one node holds an id lease, the engine logs an error every minute.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class VelocityEngine {
+
+    private static final String RECENT_DEBITS_SQL =
+            "SELECT a.user_id, t.account_id, t.amount, t.timestamp FROM transactions t "
+                    + "JOIN accounts a ON a.id = t.account_id "
+                    + "WHERE t.timestamp >= ? AND t.type IN ('WITHDRAWAL', 'TRANSFER_OUT', 'PAYMENT') "
+                    + "ORDER BY t.timestamp";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdNodeLeases idNodeLeases;
+    private final boolean enabled;
+    private final int buckets;
+    private final CompiledRule[] rules;
+
+    public VelocityEngine(JdbcTemplate jdbcTemplate, IdNodeLeases idNodeLeases, VelocityProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idNodeLeases = idNodeLeases;
+        this.enabled = properties.isEnabled() && !properties.getRules().isEmpty();
+        this.buckets = properties.getBuckets();
+        List<Rule> configured = properties.getRules();
+        this.rules = new CompiledRule[configured.size()];
+        for (int i = 0; i < rules.length; i++) {
+            Rule rule = configured.get(i);
+            rules[i] = new CompiledRule(
+                    rule.getName() != null ? rule.getName() : rule.getScope().name().toLowerCase() + "-" + i,
+                    rule.getScope(),
+                    Math.max(1, rule.getWindow() / buckets),
+                    rule.getMaxCount() != null ? rule.getMaxCount() : Long.MAX_VALUE,
+                    rule.getMaxAmount() != null ? toMinorUnits(rule.getMaxAmount()) : Long.MAX_VALUE,
+                    new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Records a debit against every rule, or throws {@link VelocityLimitExceededException} without
+     * recording anything if it would exceed one of them.
+     */
+    public Reservation reserve(Long userId, Long accountId, Money amount) {
+        if (!enabled) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long amountMinor = amount.abs().minorUnits();
+        SlidingWindow[] windows = new SlidingWindow[rules.length];
+        long[] epochs = new long[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            epochs[i] = now / rules[i].bucketMillis();
+        }
+
+        // Always locked in rule order, and a reservation touches one window per rule, so two
+        // reservations can never wait on each other in a cycle
+        int locked = 0;
+        try {
+            for (; locked < windows.length; locked++) {
+                windows[locked] = lockWindow(rules[locked], userId, accountId);
+            }
+            for (int i = 0; i < rules.length; i++) {
+                SlidingWindow window = windows[i];
+                window.advance(epochs[i]);
+                if (window.count() + 1 > rules[i].maxCount() || window.amount() + amountMinor > rules[i].maxAmount()) {
+                    throw new VelocityLimitExceededException(rules[i].name());
+                }
+            }
+            for (int i = 0; i < rules.length; i++) {
+                windows[i].add(epochs[i], amountMinor);
+            }
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                windows[i].lock.unlock();
+            }
+        }
+        return new Reservation(windows, epochs, amountMinor);
+    }
+
+    // Hands back a reservation whose debit was not posted
+    public void release(Reservation reservation) {
+        if (reservation == null) {
+            return;
+        }
+        for (int i = 0; i < reservation.windows().length; i++) {
+            SlidingWindow window = reservation.windows()[i];
+            window.lock.lock();
+            try {
+                window.remove(reservation.epochs()[i], reservation.amountMinor());
+            } finally {
+                window.lock.unlock();
+            }
+        }
+    }
+
+    // Runs before the web server starts, so no reservation can race the rebuild
+    @PostConstruct
+    void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long longestWindow = 0;
+        for (CompiledRule rule : rules) {
+            longestWindow = Math.max(longestWindow, rule.bucketMillis() * buckets);
+        }
+        long since = System.currentTimeMillis() - longestWindow;
+        long[] rows = new long[1];
+        jdbcTemplate.query(RECENT_DEBITS_SQL, rs -> {
+            long at = rs.getTimestamp("timestamp").getTime();
+            long amountMinor = toMinorUnits(rs.getBigDecimal("amount").abs());
+            Long userId = rs.getLong("user_id");
+            Long accountId = rs.getLong("account_id");
+            for (CompiledRule rule : rules) {
+                SlidingWindow window = lockWindow(rule, userId, accountId);
+                try {
+                    window.add(at / rule.bucketMillis(), amountMinor);
+                } finally {
+                    window.lock.unlock();
+                }
+            }
+            rows[0]++;
+        }, new Timestamp(since));
+        log.info("Velocity windows rebuilt from {} recent debits", rows[0]);
+    }
+
+    // Windows with nothing left in them are dropped so idle accounts do not pin memory
+    @Scheduled(fixedDelay = 60000)
+    public void purgeIdle() {
+        long now = System.currentTimeMillis();
+        for (CompiledRule rule : rules) {
+            long epoch = now / rule.bucketMillis();
+            rule.windows().values().removeIf(window -> {
+                if (!window.lock.tryLock()) {
+                    return false;
+                }
+                try {
+                    if (!window.isIdle(epoch)) {
+                        return false;
+                    }
+                    window.retire();
+                    return true;
+                } finally {
+                    window.lock.unlock();
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void checkSingleNode() {
+        if (!enabled) {
+            return;
+        }
+        int nodes = idNodeLeases.liveCount();
+        if (nodes > 1) {
+            log.error("Velocity limits are per node, but {} nodes are running: each account and user can "
+                    + "exceed every limit up to {} times", nodes, nodes);
+        }
+    }
+
+    // Returns the rule's window for the key, locked; retries if it was purged before the lock was taken
+    private SlidingWindow lockWindow(CompiledRule rule, Long userId, Long accountId) {
+        Long key = rule.scope() == Scope.USER ? userId : accountId;
+        while (true) {
+            SlidingWindow window = rule.windows().computeIfAbsent(key, k -> new SlidingWindow(buckets));
+            window.lock.lock();
+            if (!window.isRetired()) {
+                return window;
+            }
+            window.lock.unlock();
+        }
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return Money.of(amount).minorUnits();
+    }
+
+    public record Reservation(SlidingWindow[] windows, long[] epochs, long amountMinor) {
+    }
+
+    private record CompiledRule(String name, Scope scope, long bucketMillis, long maxCount, long maxAmount,
+                                Map<Long, SlidingWindow> windows) {
+    }
+}
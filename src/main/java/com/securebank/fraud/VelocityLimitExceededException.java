@@ -0,0 +1,11 @@
+package com.securebank.fraud;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class VelocityLimitExceededException extends ResponseStatusException {
+
+    public VelocityLimitExceededException(String ruleName) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Transaction blocked by velocity rule: " + ruleName);
+    }
+}
@@ -0,0 +1,37 @@
+package com.securebank.fraud;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "application.velocity")
+public class VelocityProperties {
+
+    private boolean enabled = true;
+
+    // Time buckets per rule window; the window slides in steps of window / buckets
+    private int buckets = 60;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private Scope scope = Scope.ACCOUNT;
+        // Milliseconds
+        private long window = 600000;
+        // Limits left unset are not checked
+        private Long maxCount;
+        private BigDecimal maxAmount;
+    }
+
+    public enum Scope {
+        ACCOUNT, USER
+    }
+}
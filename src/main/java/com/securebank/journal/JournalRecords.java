@@ -0,0 +1,82 @@
+package com.securebank.journal;
+
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Record bodies. Every body starts with a type byte and the group id:
+ *
+ * <pre>
+ * GROUP   type, group id, written at (epoch ms), entry count,
+ *         then per entry: account id, amount in minor units, amount scale,
+ *                         reference length, reference (UTF-8)
+ * COMMIT  type, group id
+ * ABORT   type, group id
+ * </pre>
+ */
+final class JournalRecords {
+
+    static final byte GROUP = 1;
+    static final byte COMMIT = 2;
+    static final byte ABORT = 3;
+
+    private static final int MARKER_SIZE = 1 + Long.BYTES;
+
+    private JournalRecords() {
+    }
+
+    record Entry(long accountId, Money amount, String referenceNumber) {
+    }
+
+    static byte[] group(long groupId, long writtenAt, List<Transaction> transactions) {
+        List<byte[]> references = new ArrayList<>(transactions.size());
+        int size = 1 + Long.BYTES + Long.BYTES + Integer.BYTES;
+        for (Transaction transaction : transactions) {
+            byte[] reference = transaction.getReferenceNumber().getBytes(StandardCharsets.UTF_8);
+            references.add(reference);
+            size += Long.BYTES + Long.BYTES + 1 + Short.BYTES + reference.length;
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(size);
+        body.put(GROUP).putLong(groupId).putLong(writtenAt).putInt(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Money amount = transactions.get(i).getAmount();
+            body.putLong(transactions.get(i).getAccount().getId());
+            body.putLong(amount.minorUnits()).put((byte) amount.scale());
+            body.putShort((short) references.get(i).length).put(references.get(i));
+        }
+        return body.array();
+    }
+
+    static byte[] marker(byte type, long groupId) {
+        return ByteBuffer.allocate(MARKER_SIZE).put(type).putLong(groupId).array();
+    }
+
+    static byte type(ByteBuffer body) {
+        return body.get(0);
+    }
+
+    static long groupId(ByteBuffer body) {
+        return body.getLong(1);
+    }
+
+    static List<Entry> entries(ByteBuffer body) {
+        ByteBuffer in = body.duplicate().position(1 + Long.BYTES + Long.BYTES);
+        int count = in.getInt();
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long accountId = in.getLong();
+            Money amount = Money.ofMinor(in.getLong(), in.get());
+            byte[] reference = new byte[in.getShort() & 0xFFFF];
+            in.get(reference);
+            entries.add(new Entry(accountId, amount,
+                    new String(reference, StandardCharsets.UTF_8)));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,256 @@
+package com.securebank.journal;
+
+import com.securebank.dto.JournalReplayReportDTO;
+import com.securebank.dto.ReconciliationDiscrepancyDTO;
+import com.securebank.exception.ResourceNotFoundException;
+import com.securebank.ledger.HotAccountManager;
+import com.securebank.money.Money;
+import com.securebank.util.IdNodeLeases;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rebuilds account balances from the posting journals: this node's, plus those of the other nodes
+ * listed in {@code application.journal.replay-directories} (e.g. a shared mount, or copies). The
+ * entries of every group with a COMMIT marker are summed per account, ABORTed groups are skipped,
+ * and groups without a marker (still in flight) are counted but not applied. Group ids are per
+ * journal, so each journal is matched up on its own. The scan's duration is reported per gigabyte
+ * read, which is the journal's recovery cost.
+ *
+ * The cross-check compares the rebuilt balances with accounts.balance plus hot-account slots,
+ * streamed in one read-only transaction. It only holds when the journals have been enabled since
+ * the ledger was empty and cover every node that ever posted; otherwise the balances before the
+ * journal, or another node's postings, show up as differences. So do postings made while it runs.
+ *
+ * Runs requested over HTTP are queued on one background thread; their reports are kept in memory
+ * on the node that ran them.
+ */
+@Slf4j
+@Component
+public class JournalReplay {
+
+    public static final String JOB_NAME = "journal-replay";
+
+    private static final int FETCH_SIZE = 5000;
+
+    // Reports of this many recent runs are kept
+    private static final int KEPT_RUNS = 16;
+
+    private static final String QUEUED = "QUEUED";
+    private static final String RUNNING = "RUNNING";
+    private static final String DONE = "DONE";
+    private static final String FAILED = "FAILED";
+
+    private static final String RECORDED_BALANCES_SQL =
+            "SELECT a.id, a.balance + " + HotAccountManager.SLOT_SUM_SQL + " AS balance FROM accounts a";
+
+    private final PostingJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final IdNodeLeases idNodeLeases;
+    private final List<Path> otherDirectories;
+    private final Map<String, JournalReplayReportDTO> runs = new LinkedHashMap<>();
+    private final ReentrantLock runsLock = new ReentrantLock();
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, JOB_NAME + "-coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public JournalReplay(
+            PostingJournal journal,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            IdNodeLeases idNodeLeases,
+            @Value("${application.journal.replay-directories:}") List<String> replayDirectories
+    ) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.idNodeLeases = idNodeLeases;
+        this.otherDirectories = replayDirectories.stream()
+                .map(directory -> Path.of(directory.trim()).toAbsolutePath())
+                .filter(directory -> !directory.equals(journal.directory()))
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Queues a replay and returns its run id; {@link #report} has its report once it is done.
+     */
+    public String runAsync(boolean crossCheck, int maxDiscrepancies) {
+        String runId = UUID.randomUUID().toString();
+        putReport(runId, pending(runId, QUEUED));
+        coordinator.execute(() -> {
+            putReport(runId, pending(runId, RUNNING));
+            try {
+                JournalReplayReportDTO report = replay(crossCheck, maxDiscrepancies);
+                report.setRunId(runId);
+                putReport(runId, report);
+            } catch (RuntimeException e) {
+                log.error("Journal replay {} failed", runId, e);
+                putReport(runId, pending(runId, FAILED));
+            }
+        });
+        return runId;
+    }
+
+    public JournalReplayReportDTO report(String runId) {
+        runsLock.lock();
+        try {
+            JournalReplayReportDTO report = runs.get(runId);
+            if (report == null) {
+                throw new ResourceNotFoundException("No journal replay " + runId + " on this node");
+            }
+            return report;
+        } finally {
+            runsLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    public JournalReplayReportDTO replay(boolean crossCheck, int maxDiscrepancies) {
+        long started = System.nanoTime();
+        Map<Long, Money> balances = new HashMap<>();
+        long[] counts = new long[4]; // committed groups, aborted groups, postings, unmarked groups
+        long bytes = 0;
+        int segments = 0;
+
+        List<Path> directories = new ArrayList<>();
+        directories.add(journal.directory());
+        directories.addAll(otherDirectories);
+        for (Path directory : directories) {
+            // Group ids are only unique within one journal
+            Map<Long, List<JournalRecords.Entry>> unmarked = new HashMap<>();
+            List<Path> paths = PostingJournal.segmentPaths(directory);
+            segments += paths.size();
+            for (Path path : paths) {
+                JournalSegment segment = JournalSegment.open(path, false);
+                bytes += segment.scan(body -> {
+                    long groupId = JournalRecords.groupId(body);
+                    switch (JournalRecords.type(body)) {
+                        case JournalRecords.GROUP -> unmarked.put(groupId, JournalRecords.entries(body));
+                        case JournalRecords.COMMIT -> {
+                            List<JournalRecords.Entry> entries = unmarked.remove(groupId);
+                            if (entries != null) {
+                                entries.forEach(entry -> balances.merge(entry.accountId(), entry.amount(), Money::plus));
+                                counts[0]++;
+                                counts[2] += entries.size();
+                            }
+                        }
+                        case JournalRecords.ABORT -> {
+                            if (unmarked.remove(groupId) != null) {
+                                counts[1]++;
+                            }
+                        }
+                        default -> throw new IllegalStateException("Unknown journal record type in " + path);
+                    }
+                });
+            }
+            counts[3] += unmarked.size();
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        double millisPerGigabyte = bytes > 0 ? elapsedMillis * (1024.0 * 1024 * 1024) / bytes : 0;
+        log.info("Replayed {} journal bytes of {} journals in {} ms ({} groups committed, {} aborted, {} unmarked)",
+                bytes, directories.size(), elapsedMillis, counts[0], counts[1], counts[3]);
+
+        List<ReconciliationDiscrepancyDTO> discrepancies = new ArrayList<>();
+        long discrepancyCount = 0;
+        if (crossCheck) {
+            int nodes = idNodeLeases.liveCount();
+            if (nodes > directories.size()) {
+                log.warn("Cross-checking {} journals while {} nodes are running; the other nodes' postings will show up "
+                        + "as differences", directories.size(), nodes);
+            }
+            // Postgres only streams by fetch size inside a transaction; otherwise the driver reads every row at once
+            Long counted = readOnlyTransactionTemplate.execute(status -> crossCheck(balances, discrepancies, maxDiscrepancies));
+            discrepancyCount = counted != null ? counted : 0;
+        }
+        return new JournalReplayReportDTO(null, DONE, directories.size(), segments, bytes,
+                counts[0], counts[1], counts[3], counts[2], balances.size(), elapsedMillis, millisPerGigabyte,
+                crossCheck, discrepancyCount, discrepancies);
+    }
+
+    private static JournalReplayReportDTO pending(String runId, String state) {
+        JournalReplayReportDTO report = new JournalReplayReportDTO();
+        report.setRunId(runId);
+        report.setState(state);
+        return report;
+    }
+
+    private void putReport(String runId, JournalReplayReportDTO report) {
+        runsLock.lock();
+        try {
+            runs.put(runId, report);
+            Iterator<String> oldest = runs.keySet().iterator();
+            while (runs.size() > KEPT_RUNS) {
+                oldest.next();
+                oldest.remove();
+            }
+        } finally {
+            runsLock.unlock();
+        }
+    }
+
+    // Returns the number of accounts that differ; the first few are added to the list
+    private long crossCheck(Map<Long, Money> balances, List<ReconciliationDiscrepancyDTO> discrepancies, int max) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Money> unmatched = new HashMap<>(balances);
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RECORDED_BALANCES_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (ResultSet rs) -> {
+            long accountId = rs.getLong("id");
+            Money recorded = Money.of(rs.getBigDecimal("balance"));
+            Money journaled = unmatched.remove(accountId);
+            Money expected = journaled != null ? journaled : Money.ZERO;
+            if (recorded.compareTo(expected) != 0) {
+                count[0]++;
+                if (discrepancies.size() < max) {
+                    discrepancies.add(new ReconciliationDiscrepancyDTO(
+                            accountId, recorded, expected, recorded.minus(expected), now));
+                }
+            }
+        });
+        // Journaled accounts that no longer exist
+        for (Map.Entry<Long, Money> entry : unmatched.entrySet()) {
+            if (entry.getValue().signum() != 0) {
+                count[0]++;
+                if (discrepancies.size() < max) {
+                    Money expected = entry.getValue();
+                    discrepancies.add(new ReconciliationDiscrepancyDTO(entry.getKey(), null, expected,
+                            expected.negate(), now));
+                }
+            }
+        }
+        return count[0];
+    }
+}
@@ -0,0 +1,157 @@
+package com.securebank.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size, memory-mapped journal file. After a 16-byte header (magic, version, segment
+ * number) come records of {@code [int length][int crc32c][length bytes]}. The file is created at
+ * full size, so unwritten space reads as zeros and a zero length marks the end; a record whose
+ * CRC does not match is a torn write and ends the segment as well.
+ */
+final class JournalSegment {
+
+    static final int MAGIC = 0x53424A4C; // "SBJL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private final long number;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private int position = HEADER_SIZE;
+
+    private JournalSegment(long number, Path path, MappedByteBuffer buffer) {
+        this.number = number;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long number, int size) {
+        Path path = directory.resolve(fileName(number));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, number);
+            buffer.force(0, HEADER_SIZE);
+            // The directory entry must be durable too, or the whole file can vanish in a crash
+            channel.force(true);
+            return new JournalSegment(number, path, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment " + path, e);
+        }
+    }
+
+    static JournalSegment open(Path path, boolean writable) {
+        try (FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(
+                    writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("Not a journal segment: " + path);
+            }
+            return new JournalSegment(buffer.getLong(8), path, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open journal segment " + path, e);
+        }
+    }
+
+    static String fileName(long number) {
+        return String.format("journal-%016d.seg", number);
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith("journal-") && name.endsWith(".seg");
+    }
+
+    long number() {
+        return number;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int position() {
+        return position;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    boolean fits(int bodyLength) {
+        return position + RECORD_HEADER_SIZE + bodyLength <= buffer.capacity();
+    }
+
+    // Not thread-safe; the journal serializes appends
+    void append(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        buffer.put(position + RECORD_HEADER_SIZE, body);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // Length last: a reader that sees it non-zero also sees a body to check
+        buffer.putInt(position, body.length);
+        position += RECORD_HEADER_SIZE + body.length;
+    }
+
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    /**
+     * Hands each valid record's body to the visitor, in order, and returns the position after the
+     * last one. Also leaves the append position there.
+     */
+    int scan(Consumer<ByteBuffer> visitor) {
+        int at = HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        while (at + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(at);
+            if (length <= 0 || at + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(at + RECORD_HEADER_SIZE, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(at + 4)) {
+                break;
+            }
+            visitor.accept(body);
+            at += RECORD_HEADER_SIZE + length;
+        }
+        position = at;
+        return at;
+    }
+
+    /**
+     * Zeroes everything after the append position, so the remains of a torn write can never be
+     * read back as records once new ones are appended in front of them.
+     */
+    void clearTail() {
+        int firstDirty = -1;
+        int lastDirty = -1;
+        for (int at = position; at < buffer.capacity(); at++) {
+            // Only touch non-zero bytes, so the untouched (sparse) rest of the file stays unwritten
+            if (buffer.get(at) != 0) {
+                buffer.put(at, (byte) 0);
+                firstDirty = firstDirty < 0 ? at : firstDirty;
+                lastDirty = at;
+            }
+        }
+        if (firstDirty >= 0) {
+            force(firstDirty, lastDirty + 1);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.securebank.journal;
+
+import com.securebank.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Local write-ahead journal of ledger postings. The ledger writer appends each group of postings
+ * before it opens the group's database transaction, so the group is on disk before the database
+ * sees it and no connection or row lock is held while the disk syncs; a COMMIT or ABORT marker
+ * follows once the transaction has finished. Markers are not forced on their own; they reach the
+ * disk with the next group's sync.
+ *
+ * Syncs are grouped as well: an appender that finds its record already covered by another
+ * thread's sync returns without forcing, so concurrent groups share one fsync.
+ *
+ * A group without a marker was in flight during a crash. At startup such groups are settled by
+ * looking up their reference numbers in the transactions table. The journal is per node, under
+ * {@code application.journal.directory}.
+ *
+ * Locks are ReentrantLocks rather than monitors: the fsync runs under the sync lock, and a virtual
+ * thread blocked in a synchronized block would pin its carrier for the whole sync.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class PostingJournal {
+
+    // Groups without a marker can only sit in the last segments; this far back is searched
+    private static final int RECOVERY_SEGMENTS = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final Timer syncTimer;
+    private final Counter appendedBytes;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // Guarded by appendLock
+    private JournalSegment segment;
+    private long nextGroupId = 1;
+    // Guarded by syncLock; positions are segment number * segment size + offset
+    private long durable;
+
+    public PostingJournal(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${application.journal.enabled:false}") boolean enabled,
+            @Value("${application.journal.directory:journal}") String directory,
+            @Value("${application.journal.segment-size:67108864}") int segmentSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.directory = Path.of(directory).toAbsolutePath();
+        this.segmentSize = segmentSize;
+        this.syncTimer = Timer.builder("securebank.journal.sync")
+                .description("Time to force journal records to disk, once per synced group of appends")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.appendedBytes = Counter.builder("securebank.journal.appended")
+                .description("Bytes appended to the posting journal")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal directory " + directory, e);
+        }
+
+        List<Path> paths = segmentPaths(directory);
+        if (paths.isEmpty()) {
+            segment = JournalSegment.create(directory, 1, segmentSize);
+        } else {
+            recover(paths);
+        }
+        syncLock.lock();
+        try {
+            durable = position(segment);
+        } finally {
+            syncLock.unlock();
+        }
+        log.info("Posting journal open at {}, segment {}, next group {}", directory, segment.number(), nextGroupId);
+    }
+
+    /**
+     * Appends the group and waits until it is on disk. Returns the group's id, to be passed to
+     * {@link #finish} once its database transaction has ended, or 0 if nothing was journaled.
+     */
+    public long append(List<Transaction> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return 0;
+        }
+        long groupId;
+        long end;
+        appendLock.lock();
+        try {
+            groupId = nextGroupId++;
+            end = write(JournalRecords.group(groupId, System.currentTimeMillis(), transactions));
+        } finally {
+            appendLock.unlock();
+        }
+        sync(end);
+        return groupId;
+    }
+
+    public void finish(long groupId, boolean committed) {
+        if (groupId != 0) {
+            mark(committed ? JournalRecords.COMMIT : JournalRecords.ABORT, groupId);
+        }
+    }
+
+    /**
+     * Appends the group for a caller that is already in the database transaction writing it, e.g.
+     * a batch job posting together with its checkpoint, and finishes it when that transaction
+     * completes. The sync then runs inside the transaction; the group commit path avoids that.
+     */
+    public void appendInTransaction(List<Transaction> transactions) {
+        long groupId = append(transactions);
+        if (groupId == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            finish(groupId, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                finish(groupId, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void mark(byte type, long groupId) {
+        appendLock.lock();
+        try {
+            write(JournalRecords.marker(type, groupId));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Caller holds appendLock; returns the position after the record
+    private long write(byte[] body) {
+        if (body.length + JournalSegment.RECORD_HEADER_SIZE > segmentSize - JournalSegment.HEADER_SIZE) {
+            throw new IllegalStateException("Journal record of " + body.length + " bytes does not fit a segment");
+        }
+        if (!segment.fits(body.length)) {
+            roll();
+        }
+        segment.append(body);
+        appendedBytes.increment(body.length + JournalSegment.RECORD_HEADER_SIZE);
+        return position(segment);
+    }
+
+    // Caller holds appendLock. The full segment is forced before the next one is used.
+    private void roll() {
+        JournalSegment full = segment;
+        full.force(JournalSegment.HEADER_SIZE, full.position());
+        segment = JournalSegment.create(directory, full.number() + 1, segmentSize);
+    }
+
+    // Lock order is syncLock, then appendLock
+    private void sync(long end) {
+        syncLock.lock();
+        try {
+            if (durable >= end) {
+                return;
+            }
+            JournalSegment current;
+            int written;
+            appendLock.lock();
+            try {
+                current = segment;
+                written = current.position();
+            } finally {
+                appendLock.unlock();
+            }
+            long start = position(current.number(), JournalSegment.HEADER_SIZE);
+            if (end <= start) {
+                // In a segment that was forced when it was rolled
+                durable = Math.max(durable, start);
+                return;
+            }
+            int from = (int) (Math.max(durable, start) - position(current.number(), 0));
+            syncTimer.record(() -> current.force(from, written));
+            durable = position(current.number(), written);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private long position(JournalSegment segment) {
+        return position(segment.number(), segment.position());
+    }
+
+    private long position(long segmentNumber, int offset) {
+        return segmentNumber * segmentSize + offset;
+    }
+
+    private void recover(List<Path> paths) {
+        Map<Long, List<String>> unmarked = new LinkedHashMap<>();
+        long lastGroupId = 0;
+        JournalSegment last = null;
+        for (int i = Math.max(0, paths.size() - RECOVERY_SEGMENTS); i < paths.size(); i++) {
+            last = JournalSegment.open(paths.get(i), i == paths.size() - 1);
+            long[] maxGroupId = {lastGroupId};
+            last.scan(body -> {
+                long groupId = JournalRecords.groupId(body);
+                maxGroupId[0] = Math.max(maxGroupId[0], groupId);
+                if (JournalRecords.type(body) == JournalRecords.GROUP) {
+                    List<String> references = new ArrayList<>();
+                    JournalRecords.entries(body).forEach(entry -> references.add(entry.referenceNumber()));
+                    unmarked.put(groupId, references);
+                } else {
+                    unmarked.remove(groupId);
+                }
+            });
+            lastGroupId = maxGroupId[0];
+        }
+        last.clearTail();
+        segment = last;
+        nextGroupId = lastGroupId + 1;
+
+        for (Map.Entry<Long, List<String>> group : unmarked.entrySet()) {
+            boolean committed = isCommitted(group.getValue());
+            appendLock.lock();
+            try {
+                write(JournalRecords.marker(committed ? JournalRecords.COMMIT : JournalRecords.ABORT, group.getKey()));
+            } finally {
+                appendLock.unlock();
+            }
+            log.warn("Journal group {} was in flight at shutdown; the database shows it {}",
+                    group.getKey(), committed ? "committed" : "rolled back");
+        }
+        segment.force(JournalSegment.HEADER_SIZE, segment.position());
+    }
+
+    // A group commits all or nothing, so finding any of its references is enough
+    private boolean isCommitted(List<String> references) {
+        List<String> found = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT reference_number FROM transactions WHERE reference_number = ANY (?)");
+            ps.setArray(1, connection.createArrayOf("varchar", references.toArray(String[]::new)));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1));
+        return !found.isEmpty();
+    }
+
+    // Segment files in order
+    static List<Path> segmentPaths(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list journal directory " + directory, e);
+        }
+    }
+}
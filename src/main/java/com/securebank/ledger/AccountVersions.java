@@ -0,0 +1,62 @@
+package com.securebank.ledger;
+
+import com.securebank.exception.ResourceNotFoundException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version per account, kept in the database: accounts.version plus the versions of the account's
+ * balance slots. Every change to an account's row, balance or transactions raises one of them in
+ * the database transaction that makes the change, and neither ever goes down, so a version is
+ * always seen together with the data it describes, on the primary and on every replica alike.
+ * Read endpoints turn versions into strong ETags.
+ *
+ * Read the ETag first and the body after it in the same read-only transaction: a replica then
+ * can only pair an older ETag with a newer body, which costs the client a refetch, never a stale
+ * 304.
+ */
+@Component
+public class AccountVersions {
+
+    // Version of account a, for use in a select list over accounts a
+    private static final String VERSION_SQL =
+            "a.version + COALESCE((SELECT SUM(s.version) FROM account_balance_slots s WHERE s.account_id = a.id), 0)";
+
+    private static final String ACCOUNT_VERSION_SQL = "SELECT " + VERSION_SQL + " FROM accounts a WHERE a.id = ?";
+
+    // Versions only grow, so the sum changes with every change to any of the accounts; the count
+    // catches a new account, which starts at version 0
+    private static final String USER_VERSION_SQL =
+            "SELECT COUNT(*), COALESCE(SUM(" + VERSION_SQL + "), 0) FROM accounts a WHERE a.user_id = ?";
+
+    private static final String BUMP_SQL = "UPDATE accounts SET version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountVersions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String accountETag(Long accountId) {
+        try {
+            Long version = jdbcTemplate.queryForObject(ACCOUNT_VERSION_SQL, Long.class, accountId);
+            return "\"a" + accountId + "-" + Long.toHexString(version) + "\"";
+        } catch (EmptyResultDataAccessException e) {
+            throw new ResourceNotFoundException("Account not found with id: " + accountId);
+        }
+    }
+
+    public String userETag(Long userId) {
+        return jdbcTemplate.queryForObject(USER_VERSION_SQL, (rs, row) ->
+                "\"u" + userId + "-" + rs.getLong(1) + "-" + Long.toHexString(rs.getLong(2)) + "\"", userId);
+    }
+
+    /**
+     * Raises the account's version in the current transaction, for changes the ledger does not
+     * version itself, e.g. account state saved through JPA.
+     */
+    public void changed(Long accountId) {
+        jdbcTemplate.update(BUMP_SQL, accountId);
+    }
+}
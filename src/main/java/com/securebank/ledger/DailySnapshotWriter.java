@@ -0,0 +1,166 @@
+package com.securebank.ledger;
+
+import com.securebank.model.AccountDailyTotal.Dimension;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains account_daily_totals incrementally. The ledger writer hands every committed group to
+ * {@link #apply} inside its own database transaction, so the daily totals never disagree with the
+ * transactions table, and statements can be answered from a handful of rows per day.
+ *
+ * Every posting to an account adds to the same rows of the day, so a hot account's postings
+ * would all queue on them, whatever its balance slots spread. Its rows are therefore split the
+ * same way: each group writes one random slot's rows of the account, and readers sum the slots.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class DailySnapshotWriter {
+
+    // The first posting of the day for a key inserts its row; a concurrent first insert on
+    // another node waits on the unique key and then adds to the row instead of failing
+    private static final String UPSERT_TOTALS_SQL =
+            "INSERT INTO account_daily_totals (credits, debits, tx_count, account_id, snapshot_date, dimension, dim_key, slot) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (account_id, snapshot_date, dimension, dim_key, slot) DO UPDATE SET "
+                    + "credits = account_daily_totals.credits + EXCLUDED.credits, "
+                    + "debits = account_daily_totals.debits + EXCLUDED.debits, "
+                    + "tx_count = account_daily_totals.tx_count + EXCLUDED.tx_count";
+
+    // Arbitrary, but fixed: one node rekeys the table at a time
+    private static final long REKEY_LOCK_KEY = 0x5ECB_D417L;
+
+    // Tables created before slots keep their old primary key, which Hibernate does not change
+    private static final String KEY_HAS_SLOT_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_index i JOIN pg_attribute a ON a.attrelid = i.indrelid "
+                    + "AND a.attnum = ANY (i.indkey) WHERE i.indrelid = 'account_daily_totals'::regclass "
+                    + "AND i.indisprimary AND a.attname = 'slot')";
+
+    private static final String REKEY_SQL =
+            "ALTER TABLE account_daily_totals DROP CONSTRAINT account_daily_totals_pkey, "
+                    + "ADD PRIMARY KEY (account_id, snapshot_date, dimension, dim_key, slot)";
+
+    // Rebuilds one dimension from raw rows: dimension name, key expression, extra grouping
+    private static final String BACKFILL_SQL =
+            "INSERT INTO account_daily_totals (account_id, snapshot_date, dimension, dim_key, credits, debits, tx_count) "
+                    + "SELECT account_id, CAST(timestamp AS DATE), '%s', %s, "
+                    + "SUM(CASE WHEN amount > 0 THEN amount ELSE 0 END), SUM(CASE WHEN amount < 0 THEN amount ELSE 0 END), COUNT(*) "
+                    + "FROM transactions GROUP BY account_id, CAST(timestamp AS DATE)%s";
+
+    // Totals rows are updated in key order, so concurrent writers on other nodes lock them in the same order
+    private static final Comparator<TotalKey> KEY_ORDER = Comparator.comparing(TotalKey::accountId)
+            .thenComparing(TotalKey::date)
+            .thenComparing(TotalKey::dimension)
+            .thenComparing(TotalKey::key)
+            .thenComparing(TotalKey::slot);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HotAccountManager hotAccountManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public DailySnapshotWriter(
+            JdbcTemplate jdbcTemplate,
+            HotAccountManager hotAccountManager,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hotAccountManager = hotAccountManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Runs before the web server takes traffic, so no posting can race the rekey or the backfill
+    @PostConstruct
+    void migrate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, REKEY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(KEY_HAS_SLOT_SQL, Boolean.class))) {
+                jdbcTemplate.execute(REKEY_SQL);
+                log.info("Added slot to the primary key of account_daily_totals");
+            }
+            Boolean populated = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM account_daily_totals)", Boolean.class);
+            if (Boolean.TRUE.equals(populated)) {
+                return;
+            }
+            int rows = backfill(Dimension.ALL, "''")
+                    + backfill(Dimension.TYPE, "type")
+                    + backfill(Dimension.CATEGORY, "COALESCE(category, '')")
+                    + backfill(Dimension.MERCHANT, "COALESCE(merchant_name, '')");
+            if (rows > 0) {
+                log.info("Backfilled {} daily snapshot rows from the transactions table", rows);
+            }
+        });
+    }
+
+    /**
+     * Folds committed transactions into their daily totals. Must run inside the transaction
+     * that inserts them.
+     */
+    void apply(List<Transaction> transactions) {
+        Map<TotalKey, Totals> totals = new TreeMap<>(KEY_ORDER);
+        Map<Long, Integer> slots = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            Long accountId = transaction.getAccount().getId();
+            int slot = slots.computeIfAbsent(accountId, id -> hotAccountManager.isHot(id) ? hotAccountManager.randomSlot() : 0);
+            LocalDate date = transaction.getTimestamp().toLocalDate();
+            Money amount = transaction.getAmount();
+            add(totals, new TotalKey(accountId, date, Dimension.ALL, "", slot), amount);
+            add(totals, new TotalKey(accountId, date, Dimension.TYPE, transaction.getType().name(), slot), amount);
+            add(totals, new TotalKey(accountId, date, Dimension.CATEGORY, nullToEmpty(transaction.getCategory()), slot), amount);
+            add(totals, new TotalKey(accountId, date, Dimension.MERCHANT, nullToEmpty(transaction.getMerchantName()), slot), amount);
+        }
+
+        List<Object[]> args = new ArrayList<>(totals.size());
+        totals.forEach((key, value) -> args.add(new Object[] {
+                value.credits.toBigDecimal(), value.debits.toBigDecimal(), value.count,
+                key.accountId(), Date.valueOf(key.date()), key.dimension().name(), key.key(), key.slot()
+        }));
+
+        jdbcTemplate.batchUpdate(UPSERT_TOTALS_SQL, args);
+    }
+
+    private int backfill(Dimension dimension, String keyExpression) {
+        String grouping = dimension == Dimension.ALL ? "" : ", " + keyExpression;
+        return jdbcTemplate.update(String.format(BACKFILL_SQL, dimension.name(), keyExpression, grouping));
+    }
+
+    private static void add(Map<TotalKey, Totals> totals, TotalKey key, Money amount) {
+        Totals value = totals.computeIfAbsent(key, k -> new Totals());
+        if (amount.isNegative()) {
+            value.debits = value.debits.plus(amount);
+        } else {
+            value.credits = value.credits.plus(amount);
+        }
+        value.count++;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private record TotalKey(Long accountId, LocalDate date, Dimension dimension, String key, int slot) {
+    }
+
+    private static final class Totals {
+        private Money credits = Money.ZERO;
+        private Money debits = Money.ZERO;
+        private long count;
+    }
+}
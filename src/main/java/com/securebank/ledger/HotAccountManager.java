@@ -0,0 +1,160 @@
+package com.securebank.ledger;
+
+import com.securebank.exception.ResourceNotFoundException;
+import com.securebank.money.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opt-in hot-account mode. Credits to a hot account land on one of N rows in
+ * account_balance_slots instead of the single accounts row, so writers on different nodes do
+ * not queue on one row lock. The true balance is accounts.balance plus the sum of the slots;
+ * a scheduled job periodically folds the slots back into accounts.balance.
+ *
+ * The in-memory funds check only sees this node's postings, so funds-checked debits are checked
+ * again here against the database: they lock every slot of the account, then apply to
+ * accounts.balance only if base plus slots covers them. Debits therefore serialize with each
+ * other and briefly hold up credits, which suits accounts that mostly receive.
+ */
+@Slf4j
+@Component
+public class HotAccountManager {
+
+    public static final String SLOT_SUM_SQL =
+            "COALESCE((SELECT SUM(s.balance) FROM account_balance_slots s WHERE s.account_id = a.id), 0)";
+
+    // Slots are always locked in slot order, by debits and by consolidation alike
+    private static final String LOCK_SLOTS_SQL =
+            "SELECT balance FROM account_balance_slots WHERE account_id = ? ORDER BY slot FOR UPDATE";
+
+    private static final String APPLY_COVERED_DEBIT_SQL =
+            "UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE id = ? AND balance + ? + ? >= 0";
+
+    private static final String FOLD_SLOT_VERSIONS_SQL =
+            "UPDATE accounts a SET version = a.version + COALESCE((SELECT SUM(s.version) FROM account_balance_slots s "
+                    + "WHERE s.account_id = a.id), 0) WHERE a.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int slotCount;
+    private final Set<Long> hotAccountIds = ConcurrentHashMap.newKeySet();
+
+    public HotAccountManager(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.ledger.hot-accounts.slots:16}") int slotCount
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.slotCount = slotCount;
+    }
+
+    // Runs once the schema is in place, then again before every consolidation pass
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM accounts WHERE hot = true", Long.class);
+        hotAccountIds.retainAll(ids);
+        hotAccountIds.addAll(ids);
+    }
+
+    public boolean isHot(Long accountId) {
+        return hotAccountIds.contains(accountId);
+    }
+
+    public int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(slotCount);
+    }
+
+    // Exact balance of a hot account: the consolidated base plus every slot
+    public Money balanceOf(Long accountId) {
+        BigDecimal balance = jdbcTemplate.queryForObject(
+                "SELECT a.balance + " + SLOT_SUM_SQL + " FROM accounts a WHERE a.id = ?", BigDecimal.class, accountId);
+        if (balance == null) {
+            throw new ResourceNotFoundException("Account not found with id: " + accountId);
+        }
+        return Money.of(balance);
+    }
+
+    /**
+     * Applies a net debit to a hot account if its database balance covers it, and returns whether
+     * it did. Must run inside the transaction that posts the debit, so the slots stay locked until
+     * it commits.
+     */
+    public boolean debit(Long accountId, Money delta) {
+        List<BigDecimal> slots = jdbcTemplate.queryForList(LOCK_SLOTS_SQL, BigDecimal.class, accountId);
+        BigDecimal slotSum = slots.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal amount = delta.toBigDecimal();
+        return jdbcTemplate.update(APPLY_COVERED_DEBIT_SQL, amount, accountId, slotSum, amount) == 1;
+    }
+
+    public void enable(Long accountId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> slots = new ArrayList<>(slotCount);
+            for (int slot = 0; slot < slotCount; slot++) {
+                slots.add(new Object[] {accountId, slot});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO account_balance_slots (account_id, slot, balance) VALUES (?, ?, 0) "
+                    + "ON CONFLICT (account_id, slot) DO NOTHING", slots);
+            jdbcTemplate.update("UPDATE accounts SET hot = true, version = version + 1 WHERE id = ?", accountId);
+        });
+        hotAccountIds.add(accountId);
+    }
+
+    public void disable(Long accountId) {
+        hotAccountIds.remove(accountId);
+        jdbcTemplate.update("UPDATE accounts SET hot = false, version = version + 1 WHERE id = ?", accountId);
+        // Writers that already picked a slot may still land on it; deltas that find no slot row
+        // fall back to accounts.balance, so the rows can go once they are folded in
+        transactionTemplate.executeWithoutResult(status -> {
+            consolidate(accountId);
+            // The slots' versions are part of the account's; moved over so it cannot go back
+            jdbcTemplate.update(FOLD_SLOT_VERSIONS_SQL, accountId);
+            jdbcTemplate.update("DELETE FROM account_balance_slots WHERE account_id = ?", accountId);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.ledger.hot-accounts.consolidate-interval:60000}")
+    public void consolidateAll() {
+        // Also picks up accounts switched to hot mode by other nodes
+        refresh();
+        for (Long accountId : hotAccountIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> consolidate(accountId));
+            } catch (RuntimeException e) {
+                log.warn("Could not consolidate balance slots of account {}", accountId, e);
+            }
+        }
+    }
+
+    // Must run inside a transaction: the slot rows stay locked until the sum has been moved
+    private void consolidate(Long accountId) {
+        Map<Integer, BigDecimal> slots = new HashMap<>();
+        jdbcTemplate.query("SELECT slot, balance FROM account_balance_slots WHERE account_id = ? ORDER BY slot FOR UPDATE",
+                rs -> {
+                    slots.put(rs.getInt("slot"), rs.getBigDecimal("balance"));
+                },
+                accountId);
+        if (slots.values().stream().allMatch(balance -> balance.signum() == 0)) {
+            return;
+        }
+        BigDecimal total = slots.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + ? WHERE id = ?", total, accountId);
+        jdbcTemplate.update("UPDATE account_balance_slots SET balance = 0 WHERE account_id = ?", accountId);
+    }
+}
@@ -0,0 +1,463 @@
+package com.securebank.ledger;
+
+import com.securebank.exception.InsufficientFundsException;
+import com.securebank.exception.ResourceNotFoundException;
+import com.securebank.feed.TransactionFeed;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sequences balance mutations per account. Every account hashes to a lock stripe; a posting
+ * takes the stripes of all accounts it touches in ascending stripe order, so two-account
+ * transfers can never deadlock. The {@link LedgerWriter} persists postings in groups as
+ * relative deltas, so concurrent writers never lose an update.
+ *
+ * Funds checks run against a cached committed balance minus the debits still waiting for their
+ * group commit. Credits only count once they have committed, so a posting that fails can never
+ * have funded another one. Cached balances are reloaded after balance-ttl and evicted once idle
+ * for that long; changes made elsewhere (other nodes) are caught by the writer's guarded
+ * update, which fails a debit the database balance cannot cover.
+ */
+@Component
+public class LedgerEngine {
+
+    // Entries validated per stripe acquisition in postEach, so a large bulk never holds most stripes at once
+    private static final int POST_EACH_CHUNK = 256;
+
+    private static final String BALANCES_SQL =
+            "SELECT a.id, a.balance + " + HotAccountManager.SLOT_SUM_SQL + " AS balance FROM accounts a "
+                    + "WHERE a.id = ANY (?)";
+
+    private final LedgerWriter ledgerWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionFeed transactionFeed;
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+    private final long balanceTtlMillis;
+    private final Map<Long, CachedBalance> balances = new ConcurrentHashMap<>();
+    // Bumped under a stripe's lock whenever a posting on it finishes; see preload
+    private final AtomicLongArray stripeEpochs;
+
+    public LedgerEngine(
+            LedgerWriter ledgerWriter,
+            JdbcTemplate jdbcTemplate,
+            TransactionFeed transactionFeed,
+            @Value("${application.ledger.stripes:256}") int stripeCount,
+            @Value("${application.ledger.balance-ttl:5000}") long balanceTtlMillis
+    ) {
+        this.ledgerWriter = ledgerWriter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionFeed = transactionFeed;
+        int size = Integer.highestOneBit(Math.max(2, stripeCount) - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = size - 1;
+        this.stripeEpochs = new AtomicLongArray(size);
+        this.balanceTtlMillis = balanceTtlMillis;
+    }
+
+    /**
+     * Applies all entries atomically and blocks until their group has been committed.
+     * Returns the persisted transactions in the order they were given.
+     */
+    public List<Transaction> post(LedgerEntry... entries) {
+        List<LedgerEntry> all = List.of(entries);
+        int[] order = lockOrder(entries);
+        CompletableFuture<Void> committed;
+        long[] loads;
+        lock(order);
+        try {
+            // Validate every leg before touching shared state, so a rejected posting leaves nothing behind
+            Map<Long, Money> debits = new HashMap<>();
+            for (LedgerEntry entry : entries) {
+                // Also rejects an unknown account before anything is queued
+                Money available = available(entry.accountId());
+                if (!entry.delta().isNegative()) {
+                    continue;
+                }
+                Money debit = debits.getOrDefault(entry.accountId(), Money.ZERO).plus(entry.delta());
+                if (entry.checkFunds() && available.plus(debit).isNegative()) {
+                    throw new InsufficientFundsException(entry.insufficientFundsMessage());
+                }
+                debits.put(entry.accountId(), debit);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            for (LedgerEntry entry : entries) {
+                entry.transaction().setTimestamp(now);
+            }
+            loads = begin(all);
+            try {
+                committed = ledgerWriter.submit(all);
+            } catch (RuntimeException e) {
+                finish(all, loads, false);
+                throw e;
+            }
+        } finally {
+            unlock(order);
+        }
+
+        awaitCommit(committed, order, all, loads);
+
+        List<Transaction> transactions = new ArrayList<>(entries.length);
+        for (LedgerEntry entry : entries) {
+            transactions.add(entry.transaction());
+        }
+        transactionFeed.publish(transactions);
+        return transactions;
+    }
+
+    /**
+     * Applies every entry as an independent posting: entries that would overdraw their account
+     * are skipped without affecting the others. All accepted entries are committed as one group.
+     * Returns which entries were accepted.
+     *
+     * Balances are read in one query before any lock is taken, and entries are validated in
+     * chunks, each holding only its own accounts' stripes, so a large bulk never stalls the
+     * other postings for long.
+     */
+    public boolean[] postEach(List<LedgerEntry> entries) {
+        boolean[] accepted = new boolean[entries.size()];
+        List<LedgerEntry> acceptedEntries = new ArrayList<>(entries.size());
+        Preloaded preloaded = preload(entries);
+        LocalDateTime now = LocalDateTime.now();
+        List<long[]> chunkLoads = new ArrayList<>();
+        List<List<LedgerEntry>> chunks = new ArrayList<>();
+        try {
+            for (int from = 0; from < entries.size(); from += POST_EACH_CHUNK) {
+                List<LedgerEntry> chunk = entries.subList(from, Math.min(entries.size(), from + POST_EACH_CHUNK));
+                List<LedgerEntry> acceptedInChunk = new ArrayList<>(chunk.size());
+                // Earlier chunks' debits are reserved already; this holds the current chunk's
+                Map<Long, Money> debits = new HashMap<>();
+                int[] order = lockOrder(chunk.toArray(LedgerEntry[]::new));
+                lock(order);
+                try {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        LedgerEntry entry = chunk.get(i);
+                        install(entry.accountId(), preloaded);
+                        Money available = available(entry.accountId());
+                        if (entry.delta().isNegative()) {
+                            Money debit = debits.getOrDefault(entry.accountId(), Money.ZERO).plus(entry.delta());
+                            if (entry.checkFunds() && available.plus(debit).isNegative()) {
+                                continue;
+                            }
+                            debits.put(entry.accountId(), debit);
+                        }
+                        entry.transaction().setTimestamp(now);
+                        accepted[from + i] = true;
+                        acceptedInChunk.add(entry);
+                    }
+                    if (!acceptedInChunk.isEmpty()) {
+                        // Reserved right away, so later chunks and other postings see these debits
+                        chunkLoads.add(begin(acceptedInChunk));
+                        chunks.add(acceptedInChunk);
+                        acceptedEntries.addAll(acceptedInChunk);
+                    }
+                } finally {
+                    unlock(order);
+                }
+            }
+        } catch (RuntimeException e) {
+            finishInChunks(chunks, chunkLoads, false);
+            throw e;
+        }
+        if (acceptedEntries.isEmpty()) {
+            return accepted;
+        }
+
+        CompletableFuture<Void> committed;
+        try {
+            committed = ledgerWriter.submit(acceptedEntries);
+        } catch (RuntimeException e) {
+            finishInChunks(chunks, chunkLoads, false);
+            throw e;
+        }
+        boolean succeeded = false;
+        try {
+            committed.join();
+            succeeded = true;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            finishInChunks(chunks, chunkLoads, succeeded);
+        }
+
+        List<Transaction> transactions = new ArrayList<>(acceptedEntries.size());
+        for (LedgerEntry entry : acceptedEntries) {
+            transactions.add(entry.transaction());
+        }
+        transactionFeed.publish(transactions);
+        return accepted;
+    }
+
+    /**
+     * Writes entries synchronously in the caller's database transaction, bypassing the group
+     * commit queue and the funds check. Meant for batch jobs (e.g. interest accrual) that must
+     * commit ledger rows atomically with their own checkpoint. Once that transaction commits,
+     * the affected cached balances are dropped and read again on next use.
+     */
+    public void postInTransaction(List<LedgerEntry> entries) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("postInTransaction requires an active transaction");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (LedgerEntry entry : entries) {
+            if (entry.transaction().getTimestamp() == null) {
+                entry.transaction().setTimestamp(now);
+            }
+        }
+        ledgerWriter.write(entries);
+
+        LedgerEntry[] all = entries.toArray(LedgerEntry[]::new);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                int[] order = lockOrder(all);
+                lock(order);
+                try {
+                    // A balance loaded while the transaction was open may or may not include these
+                    // deltas, so adding them could count them twice; drop it instead, and bump the
+                    // epoch so a preload that straddled the commit is not installed either
+                    for (LedgerEntry entry : all) {
+                        stripeEpochs.incrementAndGet(stripeOf(entry.accountId()));
+                        CachedBalance state = balances.get(entry.accountId());
+                        if (state != null) {
+                            state.committed = null;
+                        }
+                    }
+                } finally {
+                    unlock(order);
+                }
+                List<Transaction> transactions = new ArrayList<>(all.length);
+                for (LedgerEntry entry : all) {
+                    transactions.add(entry.transaction());
+                }
+                transactionFeed.publish(transactions);
+            }
+        });
+    }
+
+    // Drops cached balances that have been idle for balance-ttl, which keeps the map bounded
+    @Scheduled(fixedDelayString = "${application.ledger.balance-ttl:5000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - balanceTtlMillis;
+        for (Long accountId : balances.keySet()) {
+            ReentrantLock stripe = stripes[stripeOf(accountId)];
+            stripe.lock();
+            try {
+                CachedBalance state = balances.get(accountId);
+                if (state != null && state.inFlight == 0 && (state.committed == null || state.loadedAt < cutoff)) {
+                    balances.remove(accountId);
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    private void awaitCommit(CompletableFuture<Void> committed, int[] order, List<LedgerEntry> entries, long[] loads) {
+        boolean succeeded = false;
+        try {
+            committed.join();
+            succeeded = true;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            lock(order);
+            try {
+                finish(entries, loads, succeeded);
+            } finally {
+                unlock(order);
+            }
+        }
+    }
+
+    /**
+     * Reads the balances of all accounts in the entries with one query, outside any lock. Each
+     * stripe's epoch is noted first; see {@link #install}.
+     */
+    private Preloaded preload(List<LedgerEntry> entries) {
+        Map<Long, Long> epochs = new HashMap<>();
+        for (LedgerEntry entry : entries) {
+            epochs.computeIfAbsent(entry.accountId(), id -> stripeEpochs.get(stripeOf(id)));
+        }
+        Map<Long, Money> loaded = new HashMap<>(epochs.size() * 2);
+        long loadedAt = System.currentTimeMillis();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(BALANCES_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", epochs.keySet().toArray()));
+            return ps;
+        }, (ResultSet rs) -> {
+            loaded.put(rs.getLong("id"), Money.of(rs.getBigDecimal("balance")));
+        });
+        return new Preloaded(loaded, epochs, loadedAt);
+    }
+
+    /**
+     * Caches a preloaded balance unless a fresh one is cached already. If a posting on the
+     * stripe finished since the read, the read may or may not include it, so the balance is
+     * skipped and read again on use. Postings still in flight see the load and drop the balance
+     * when they finish, as for any reload.
+     */
+    private void install(Long accountId, Preloaded preloaded) {
+        Money loaded = preloaded.balances().remove(accountId);
+        if (loaded == null || stripeEpochs.get(stripeOf(accountId)) != preloaded.epochs().get(accountId)) {
+            return;
+        }
+        CachedBalance state = balances.get(accountId);
+        if (state != null && state.committed != null && preloaded.loadedAt() - state.loadedAt < balanceTtlMillis) {
+            return;
+        }
+        if (state == null) {
+            state = new CachedBalance();
+            balances.put(accountId, state);
+        }
+        state.committed = loaded;
+        state.loadedAt = preloaded.loadedAt();
+        state.loads++;
+    }
+
+    private void finishInChunks(List<List<LedgerEntry>> chunks, List<long[]> chunkLoads, boolean committed) {
+        for (int i = 0; i < chunks.size(); i++) {
+            List<LedgerEntry> chunk = chunks.get(i);
+            int[] order = lockOrder(chunk.toArray(LedgerEntry[]::new));
+            lock(order);
+            try {
+                finish(chunk, chunkLoads.get(i), committed);
+            } finally {
+                unlock(order);
+            }
+        }
+    }
+
+    // Committed balance minus the debits still in flight; loads or reloads the balance as needed
+    private Money available(Long accountId) {
+        CachedBalance state = balances.get(accountId);
+        long now = System.currentTimeMillis();
+        if (state == null || state.committed == null || now - state.loadedAt >= balanceTtlMillis) {
+            Money committed = Money.of(loadBalance(accountId));
+            if (state == null) {
+                state = new CachedBalance();
+                balances.put(accountId, state);
+            }
+            state.committed = committed;
+            state.loadedAt = now;
+            state.loads++;
+        }
+        return state.committed.plus(state.reserved);
+    }
+
+    /**
+     * Marks the entries as in flight and reserves their debits. Returns, per entry, how often
+     * its account's balance had been loaded, so {@link #finish} can tell whether a reload
+     * happened while the entry was in flight.
+     */
+    private long[] begin(List<LedgerEntry> entries) {
+        long[] loads = new long[entries.size()];
+        for (int i = 0; i < loads.length; i++) {
+            LedgerEntry entry = entries.get(i);
+            CachedBalance state = balances.computeIfAbsent(entry.accountId(), id -> new CachedBalance());
+            state.inFlight++;
+            if (entry.delta().isNegative()) {
+                state.reserved = state.reserved.plus(entry.delta());
+            }
+            loads[i] = state.loads;
+        }
+        return loads;
+    }
+
+    /**
+     * Releases the entries' reservations. On commit their deltas join the committed balance,
+     * unless it was reloaded while they were in flight: the database may or may not have
+     * included them then, so the balance is dropped and read again on next use.
+     */
+    private void finish(List<LedgerEntry> entries, long[] loads, boolean committed) {
+        for (int i = 0; i < loads.length; i++) {
+            LedgerEntry entry = entries.get(i);
+            CachedBalance state = balances.get(entry.accountId());
+            stripeEpochs.incrementAndGet(stripeOf(entry.accountId()));
+            state.inFlight--;
+            if (entry.delta().isNegative()) {
+                state.reserved = state.reserved.minus(entry.delta());
+            }
+            if (committed && state.committed != null) {
+                if (state.loads == loads[i]) {
+                    state.committed = state.committed.plus(entry.delta());
+                } else {
+                    state.committed = null;
+                }
+            }
+        }
+    }
+
+    private BigDecimal loadBalance(Long accountId) {
+        try {
+            return jdbcTemplate.queryForObject(
+                    "SELECT a.balance + " + HotAccountManager.SLOT_SUM_SQL + " FROM accounts a WHERE a.id = ?",
+                    BigDecimal.class, accountId);
+        } catch (EmptyResultDataAccessException e) {
+            throw new ResourceNotFoundException("Account not found with id: " + accountId);
+        }
+    }
+
+    private int[] lockOrder(LedgerEntry[] entries) {
+        int[] order = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            order[i] = stripeOf(entries[i].accountId());
+        }
+        return Arrays.stream(order).sorted().distinct().toArray();
+    }
+
+    private int stripeOf(long accountId) {
+        int h = Long.hashCode(accountId);
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+
+    private void lock(int[] order) {
+        for (int stripe : order) {
+            stripes[stripe].lock();
+        }
+    }
+
+    private void unlock(int[] order) {
+        for (int i = order.length - 1; i >= 0; i--) {
+            stripes[order[i]].unlock();
+        }
+    }
+
+    private record Preloaded(Map<Long, Money> balances, Map<Long, Long> epochs, long loadedAt) {
+    }
+
+    // Guarded by the account's stripe lock
+    private static final class CachedBalance {
+        private Money committed; // null until loaded, or after a reload raced an in-flight posting
+        private Money reserved = Money.ZERO; // debits submitted but not yet committed (negative)
+        private int inFlight;
+        private long loads;
+        private long loadedAt;
+    }
+}
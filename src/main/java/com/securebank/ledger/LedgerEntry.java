@@ -0,0 +1,26 @@
+package com.securebank.ledger;
+
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+
+/**
+ * One leg of a posting. The balance delta is the (already signed) transaction amount.
+ */
+public record LedgerEntry(Transaction transaction, boolean checkFunds, String insufficientFundsMessage) {
+
+    public static LedgerEntry credit(Transaction transaction) {
+        return new LedgerEntry(transaction, false, null);
+    }
+
+    public static LedgerEntry debit(Transaction transaction, String insufficientFundsMessage) {
+        return new LedgerEntry(transaction, true, insufficientFundsMessage);
+    }
+
+    public Long accountId() {
+        return transaction.getAccount().getId();
+    }
+
+    public Money delta() {
+        return transaction.getAmount();
+    }
+}
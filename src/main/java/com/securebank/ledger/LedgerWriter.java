@@ -0,0 +1,317 @@
+package com.securebank.ledger;
+
+import com.securebank.exception.InsufficientFundsException;
+import com.securebank.journal.PostingJournal;
+import com.securebank.metrics.StatementCountingDataSource;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import com.securebank.outbox.OutboxWriter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single writer that persists ledger postings in groups: every posting drained from the queue
+ * in one pass is written in a single database transaction (group commit).
+ */
+@Slf4j
+@Component
+public class LedgerWriter {
+
+    // Every balance update also raises the version of the row it changes, which the account's
+    // ETags are built from (see AccountVersions), at no extra statement or lock
+    private static final String APPLY_BALANCE_DELTA_SQL =
+            "UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE id = ?";
+
+    // Debits that were funds-checked must also be covered by the database balance, which catches
+    // a stale in-memory balance, e.g. after another node moved money. The third parameter is true
+    // for deltas that need no check, so every account row is updated by one batch in id order.
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE accounts a SET balance = balance + ?, version = version + 1 WHERE a.id = ? AND (? OR a.balance + "
+                    + HotAccountManager.SLOT_SUM_SQL + " + ? >= 0)";
+
+    // Enforces unique references, which the partitioned transactions table cannot
+    private static final String INSERT_REFERENCE_SQL =
+            "INSERT INTO transaction_references (reference_number) VALUES (?)";
+
+    private static final String APPLY_SLOT_DELTA_SQL =
+            "UPDATE account_balance_slots SET balance = balance + ?, version = version + 1 WHERE account_id = ? AND slot = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HotAccountManager hotAccountManager;
+    private final DailySnapshotWriter dailySnapshotWriter;
+    private final OutboxWriter outboxWriter;
+    private final PostingJournal postingJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingPosting> queue;
+    private final int maxBatchSize;
+    private final DistributionSummary statementsPerGroup;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public LedgerWriter(
+            JdbcTemplate jdbcTemplate,
+            HotAccountManager hotAccountManager,
+            DailySnapshotWriter dailySnapshotWriter,
+            OutboxWriter outboxWriter,
+            PostingJournal postingJournal,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${application.ledger.queue-capacity:10000}") int queueCapacity,
+            @Value("${application.ledger.max-batch-size:500}") int maxBatchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hotAccountManager = hotAccountManager;
+        this.dailySnapshotWriter = dailySnapshotWriter;
+        this.outboxWriter = outboxWriter;
+        this.postingJournal = postingJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        // Work done here on behalf of requests is not seen by their per-request counts
+        this.statementsPerGroup = DistributionSummary.builder("securebank.db.statements")
+                .description("SQL statements issued per ledger group commit on the writer thread")
+                .baseUnit("statements")
+                .tag("source", "ledger-writer")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        flusher = new Thread(this::run, "ledger-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues a posting for the next group commit. Blocks while the queue is full, which is
+     * what pushes back on callers when the database falls behind.
+     */
+    CompletableFuture<Void> submit(List<LedgerEntry> entries) {
+        PendingPosting posting = new PendingPosting(entries, new CompletableFuture<>());
+        try {
+            queue.put(posting);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing ledger posting", e);
+        }
+        return posting.committed();
+    }
+
+    private void run() {
+        List<PendingPosting> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPosting first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                StatementCountingDataSource.reset();
+                flush(batch);
+                statementsPerGroup.record(StatementCountingDataSource.count());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingPosting> batch) {
+        try {
+            persist(batch);
+            batch.forEach(posting -> posting.committed().complete(null));
+        } catch (RuntimeException groupFailure) {
+            if (batch.size() == 1) {
+                batch.get(0).committed().completeExceptionally(groupFailure);
+                return;
+            }
+            // One bad posting must not fail the whole group, so retry them one by one
+            log.warn("Ledger group commit of {} postings failed, retrying individually", batch.size(), groupFailure);
+            for (PendingPosting posting : batch) {
+                try {
+                    persist(List.of(posting));
+                    posting.committed().complete(null);
+                } catch (RuntimeException e) {
+                    posting.committed().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void persist(List<PendingPosting> batch) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (PendingPosting posting : batch) {
+            entries.addAll(posting.entries());
+        }
+        // Journaled (and synced) before the transaction opens, so no connection waits on the disk
+        long groupId = postingJournal.append(transactions(entries));
+        boolean committed = false;
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(entries));
+            committed = true;
+        } finally {
+            postingJournal.finish(groupId, committed);
+        }
+    }
+
+    /**
+     * Inserts the entries' transactions and applies their balance deltas, daily totals and
+     * outbox events in the caller's database transaction. Used, bypassing the queue, by batch
+     * jobs that must commit ledger rows together with their own checkpoint. With the posting
+     * journal enabled, the group is journaled (and synced) first, inside that transaction.
+     */
+    void write(List<LedgerEntry> entries) {
+        postingJournal.appendInTransaction(transactions(entries));
+        apply(entries);
+    }
+
+    private static List<Transaction> transactions(List<LedgerEntry> entries) {
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            transactions.add(entry.transaction());
+        }
+        return transactions;
+    }
+
+    private void apply(List<LedgerEntry> entries) {
+        List<Transaction> transactions = transactions(entries);
+        // Sorted, so account rows are locked in id order, as any other group or node locks them
+        Map<Long, Money> deltas = new TreeMap<>();
+        Map<Long, String> checked = new HashMap<>();
+        for (LedgerEntry entry : entries) {
+            deltas.merge(entry.accountId(), entry.delta(), Money::plus);
+            if (entry.checkFunds()) {
+                checked.putIfAbsent(entry.accountId(), entry.insufficientFundsMessage());
+            }
+        }
+
+        insertTransactions(transactions);
+        applyBalanceDeltas(deltas, checked);
+        dailySnapshotWriter.apply(transactions);
+        outboxWriter.append(transactions);
+    }
+
+    private void insertTransactions(List<Transaction> transactions) {
+        List<Object[]> references = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            references.add(new Object[] {transaction.getReferenceNumber()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_REFERENCE_SQL, references);
+
+        // Ids come from the pooled transactions_seq, so Hibernate batches these inserts.
+        // A group that was rolled back may already have handed out ids, which are void now.
+        for (Transaction transaction : transactions) {
+            transaction.setId(null);
+            entityManager.persist(transaction);
+        }
+        entityManager.flush();
+        // Only this writer's rows: write() shares the caller's persistence context
+        for (Transaction transaction : transactions) {
+            entityManager.detach(transaction);
+        }
+    }
+
+    /**
+     * Applies the net delta per account. A net debit on a funds-checked account only applies if
+     * the database balance covers it; otherwise the group fails with that account's message, and
+     * the one-by-one retry pins it on the posting that overdraws. Other deltas of hot accounts
+     * spread over slots without locking the account row.
+     *
+     * Rows are locked in one order by every group: plain accounts by id, then hot accounts by id.
+     * A group that locked them in posting order could deadlock with another group holding the
+     * same accounts, on another node or in a batch job's write().
+     */
+    private void applyBalanceDeltas(Map<Long, Money> deltas, Map<Long, String> checked) {
+        List<Object[]> accountArgs = new ArrayList<>(deltas.size());
+        List<Map.Entry<Long, Money>> hotDeltas = new ArrayList<>();
+        for (Map.Entry<Long, Money> delta : deltas.entrySet()) {
+            Long accountId = delta.getKey();
+            if (hotAccountManager.isHot(accountId)) {
+                hotDeltas.add(delta);
+                continue;
+            }
+            BigDecimal amount = delta.getValue().toBigDecimal();
+            boolean unchecked = !(delta.getValue().isNegative() && checked.containsKey(accountId));
+            accountArgs.add(new Object[] {amount, accountId, unchecked, amount});
+        }
+
+        if (!accountArgs.isEmpty()) {
+            int[] updated = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, accountArgs);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    throw new InsufficientFundsException(checked.get((Long) accountArgs.get(i)[1]));
+                }
+            }
+        }
+
+        // A covered debit locks every slot of its account, so slot credits are sent in between,
+        // each batch holding only accounts below the next debit's
+        List<Object[]> slotArgs = new ArrayList<>();
+        for (Map.Entry<Long, Money> delta : hotDeltas) {
+            Long accountId = delta.getKey();
+            if (delta.getValue().isNegative() && checked.containsKey(accountId)) {
+                applySlotDeltas(slotArgs);
+                if (!hotAccountManager.debit(accountId, delta.getValue())) {
+                    throw new InsufficientFundsException(checked.get(accountId));
+                }
+            } else {
+                slotArgs.add(new Object[] {delta.getValue().toBigDecimal(), accountId, hotAccountManager.randomSlot()});
+            }
+        }
+        applySlotDeltas(slotArgs);
+    }
+
+    private void applySlotDeltas(List<Object[]> slotArgs) {
+        if (slotArgs.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(APPLY_SLOT_DELTA_SQL, slotArgs);
+        for (int i = 0; i < updated.length; i++) {
+            // Slot rows are gone once hot mode was switched off; fall back to the account row
+            if (updated[i] == 0) {
+                Object[] args = slotArgs.get(i);
+                jdbcTemplate.update(APPLY_BALANCE_DELTA_SQL, args[0], args[1]);
+            }
+        }
+        slotArgs.clear();
+    }
+
+    private record PendingPosting(List<LedgerEntry> entries, CompletableFuture<Void> committed) {
+    }
+}
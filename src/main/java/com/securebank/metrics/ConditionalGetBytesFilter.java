@@ -0,0 +1,101 @@
+package com.securebank.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts the body bytes written for ETagged responses, so the egress saved by 304s can be read
+ * off securebank.conditional.get.body: the served mean times the not_modified count. Bytes are
+ * counted as they pass through to the container's stream; nothing is buffered. Responses
+ * without an ETag (streams, exports, errors) are not recorded.
+ */
+public class ConditionalGetBytesFilter extends OncePerRequestFilter {
+
+    private final ConditionalGetMetrics metrics;
+
+    public ConditionalGetBytesFilter(ConditionalGetMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CountingResponse counting = new CountingResponse(response);
+        chain.doFilter(request, counting);
+        if (response.getHeader(HttpHeaders.ETAG) != null) {
+            metrics.recordBody(response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED, counting.bytes());
+        }
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private CountingStream stream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                stream = new CountingStream(super.getOutputStream());
+            }
+            return stream;
+        }
+
+        long bytes() {
+            return stream == null ? 0 : stream.bytes;
+        }
+    }
+
+    private static final class CountingStream extends ServletOutputStream {
+
+        private final ServletOutputStream target;
+        private long bytes;
+
+        CountingStream(ServletOutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            bytes += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.securebank.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+
+/**
+ * Conditional GET handling for ETagged reads. Counts how many were answered with 304 (no query,
+ * no body) and how many had to be served in full, per resource, and the body bytes each outcome
+ * wrote (see {@link ConditionalGetBytesFilter}).
+ */
+@Component
+public class ConditionalGetMetrics {
+
+    public enum Resource {
+        ACCOUNTS, ACCOUNT, TRANSACTIONS
+    }
+
+    private final Counter[] notModified;
+    private final Counter[] served;
+    private final DistributionSummary notModifiedBody;
+    private final DistributionSummary servedBody;
+
+    public ConditionalGetMetrics(MeterRegistry registry) {
+        Resource[] resources = Resource.values();
+        notModified = new Counter[resources.length];
+        served = new Counter[resources.length];
+        for (Resource resource : resources) {
+            String tag = resource.name().toLowerCase(Locale.ROOT);
+            notModified[resource.ordinal()] = Counter.builder("securebank.conditional.get")
+                    .description("ETagged reads by outcome")
+                    .tag("resource", tag)
+                    .tag("outcome", "not_modified")
+                    .register(registry);
+            served[resource.ordinal()] = Counter.builder("securebank.conditional.get")
+                    .description("ETagged reads by outcome")
+                    .tag("resource", tag)
+                    .tag("outcome", "served")
+                    .register(registry);
+        }
+        notModifiedBody = bodySummary(registry, "not_modified");
+        servedBody = bodySummary(registry, "served");
+    }
+
+    private static DistributionSummary bodySummary(MeterRegistry registry, String outcome) {
+        return DistributionSummary.builder("securebank.conditional.get.body")
+                .description("Body bytes written per ETagged read")
+                .baseUnit("bytes")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // True when the request's If-None-Match matches; the caller then returns null and Spring sends 304
+    public boolean checkNotModified(WebRequest request, String etag, Resource resource) {
+        if (request.checkNotModified(etag)) {
+            notModified[resource.ordinal()].increment();
+            return true;
+        }
+        served[resource.ordinal()].increment();
+        return false;
+    }
+
+    public void recordBody(boolean notModified, long bytes) {
+        (notModified ? notModifiedBody : servedBody).record(bytes);
+    }
+}
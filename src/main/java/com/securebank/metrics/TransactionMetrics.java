@@ -0,0 +1,70 @@
+package com.securebank.metrics;
+
+import com.securebank.exception.InsufficientFundsException;
+import com.securebank.fraud.VelocityLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the transaction endpoints. Every meter is registered up front and looked up by
+ * ordinal, so recording on the request path does not allocate.
+ */
+@Component
+public class TransactionMetrics {
+
+    public enum Operation {
+        DEPOSIT, WITHDRAW, TRANSFER, PAYMENT, BULK, HISTORY
+    }
+
+    private final Timer[] latency;
+    private final Counter[] insufficientFunds;
+    private final Counter[] permissionDenied;
+    private final Counter[] velocityLimit;
+
+    public TransactionMetrics(MeterRegistry registry) {
+        Operation[] operations = Operation.values();
+        latency = new Timer[operations.length];
+        insufficientFunds = new Counter[operations.length];
+        permissionDenied = new Counter[operations.length];
+        velocityLimit = new Counter[operations.length];
+        for (Operation operation : operations) {
+            String tag = operation.name().toLowerCase(Locale.ROOT);
+            latency[operation.ordinal()] = Timer.builder("securebank.transaction.latency")
+                    .description("Transaction endpoint latency")
+                    .tag("operation", tag)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            insufficientFunds[operation.ordinal()] = Counter.builder("securebank.transaction.rejected")
+                    .tag("operation", tag)
+                    .tag("reason", "insufficient_funds")
+                    .register(registry);
+            permissionDenied[operation.ordinal()] = Counter.builder("securebank.transaction.rejected")
+                    .tag("operation", tag)
+                    .tag("reason", "permission_denied")
+                    .register(registry);
+            velocityLimit[operation.ordinal()] = Counter.builder("securebank.transaction.rejected")
+                    .tag("operation", tag)
+                    .tag("reason", "velocity_limit")
+                    .register(registry);
+        }
+    }
+
+    public void recordLatency(Operation operation, long startNanos) {
+        latency[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFailure(Operation operation, RuntimeException failure) {
+        if (failure instanceof InsufficientFundsException) {
+            insufficientFunds[operation.ordinal()].increment();
+        } else if (failure instanceof SecurityException) {
+            permissionDenied[operation.ordinal()].increment();
+        } else if (failure instanceof VelocityLimitExceededException) {
+            velocityLimit[operation.ordinal()].increment();
+        }
+    }
+}
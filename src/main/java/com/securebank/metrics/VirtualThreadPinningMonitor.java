@@ -0,0 +1,67 @@
+package com.securebank.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Listens for JFR jdk.VirtualThreadPinned events (a virtual thread blocking while it holds a
+ * monitor, e.g. I/O inside a synchronized block) and reports them as a counter and a log line
+ * with the top of the offending stack.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final Duration THRESHOLD = Duration.ofMillis(20);
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Counter pinnedCounter;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry) {
+        this.pinnedCounter = Counter.builder("securebank.virtual_threads.pinned")
+                .description("Virtual threads pinned to their carrier for longer than " + THRESHOLD.toMillis() + "ms")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(THRESHOLD).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        if (event.getStackTrace() == null) {
+            log.warn("Virtual thread pinned for {} ms", event.getDuration().toMillis());
+            return;
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        StringBuilder trace = new StringBuilder();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            trace.append("\n\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), trace);
+    }
+}
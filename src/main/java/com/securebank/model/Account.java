@@ -1,11 +1,14 @@
 package com.securebank.model;
 
+import com.securebank.money.Money;
+import com.securebank.money.MoneyConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -28,12 +31,22 @@ public class Account {
     @Column(nullable = false)
     private AccountType accountType;
     
-    @Column(nullable = false)
-    private BigDecimal balance = BigDecimal.ZERO;
+    // Only the ledger moves balances (as relative deltas), so entity saves must never write it back
+    @Column(nullable = false, updatable = false)
+    @Convert(converter = MoneyConverter.class)
+    private Money balance = Money.ZERO;
     
     @Column(nullable = false)
     private boolean active = true;
     
+    // Hot accounts spread balance updates across account_balance_slots
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean hot = false;
+    
+    // The ETag version: raised by the ledger and AccountVersions, never written by entity saves
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long version;
+    
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
@@ -41,6 +54,9 @@ public class Account {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
+    // Never touched by equals/hashCode/toString, which would otherwise load the whole history
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL)
     private Set<Transaction> transactions = new HashSet<>();
     
@@ -0,0 +1,44 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * One sub-balance of a hot account. Slot balances are deltas accumulated since the last
+ * consolidation into {@code accounts.balance}; only their sum is meaningful.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "account_balance_slots")
+@IdClass(AccountBalanceSlot.SlotId.class)
+public class AccountBalanceSlot {
+    
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+    
+    @Id
+    private int slot;
+    
+    @Column(nullable = false)
+    private BigDecimal balance = BigDecimal.ZERO;
+    
+    // Raised with every delta applied to the slot; part of the account's version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SlotId implements Serializable {
+        private Long accountId;
+        private int slot;
+    }
+}
@@ -0,0 +1,72 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Per-account, per-day aggregate of committed transactions, maintained by the ledger writer in
+ * the same database transaction as the rows it summarizes. Each day has one {@code ALL} row plus
+ * one row per transaction type, category and merchant seen that day. Debits are stored negative.
+ * A hot account spreads each of these over its balance slots, so readers always sum over slot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "account_daily_totals")
+@IdClass(AccountDailyTotal.TotalId.class)
+public class AccountDailyTotal {
+    
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+    
+    @Id
+    @Column(name = "snapshot_date")
+    private LocalDate snapshotDate;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Dimension dimension;
+    
+    // Empty for the ALL row and for transactions without a category or merchant
+    @Id
+    @Column(name = "dim_key")
+    private String key;
+    
+    // Always 0 unless the account was hot when the row was written
+    @Id
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int slot;
+    
+    @Column(nullable = false)
+    private BigDecimal credits = BigDecimal.ZERO;
+    
+    @Column(nullable = false)
+    private BigDecimal debits = BigDecimal.ZERO;
+    
+    @Column(name = "tx_count", nullable = false)
+    private long count;
+    
+    public enum Dimension {
+        ALL, TYPE, CATEGORY, MERCHANT
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TotalId implements Serializable {
+        private Long accountId;
+        private LocalDate snapshotDate;
+        private Dimension dimension;
+        private String key;
+        private int slot;
+    }
+}
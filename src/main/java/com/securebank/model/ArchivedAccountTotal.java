@@ -0,0 +1,36 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Net amount per account of an archived partition, so the ledger can still be reconciled in full
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "archived_account_totals",
+    indexes = @Index(name = "idx_archived_account_totals_account", columnList = "account_id")
+)
+public class ArchivedAccountTotal {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "archive_id", nullable = false)
+    private Long archiveId;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(nullable = false)
+    private BigDecimal netAmount;
+    
+    @Column(nullable = false)
+    private long txCount;
+}
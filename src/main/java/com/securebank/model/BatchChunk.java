@@ -0,0 +1,54 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of one account-id range of a batch run. A chunk is marked DONE in the same database
+ * transaction as its work, so a run that is restarted with the same run id picks up exactly the
+ * chunks that never committed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "batch_chunks",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"job_name", "run_id", "first_account_id"})
+)
+public class BatchChunk {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "job_name", nullable = false, length = 64)
+    private String jobName;
+    
+    @Column(name = "run_id", nullable = false, length = 64)
+    private String runId;
+    
+    @Column(name = "first_account_id", nullable = false)
+    private Long firstAccountId;
+    
+    @Column(nullable = false)
+    private Long lastAccountId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+    
+    @Column(nullable = false)
+    private long processed;
+    
+    @Column
+    private LocalDateTime completedAt;
+    
+    public enum Status {
+        PENDING, DONE
+    }
+}
@@ -0,0 +1,38 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed transaction on its way to the open transaction streams of every node. Written by
+ * the outbox relay, which runs on one node at a time, so ids grow in relay order; every node
+ * tails the table by id. Rows are only kept for application.feed.cluster.retention.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "feed_events", indexes = @Index(name = "idx_feed_events_created_at", columnList = "created_at"))
+public class FeedEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private Long transactionId;
+
+    // The event's SSE data line: the transaction as the stream sends it
+    @Column(nullable = false, columnDefinition = "text")
+    private String data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,34 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease on one id-generator node id. Only the instance holding an unexpired lease may issue ids
+ * for the node, and only below {@code highWater} (milliseconds since the generator epoch), so a
+ * restarted or replacement instance resumes above every id already handed out.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "id_node_leases")
+public class IdNodeLease {
+    
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+    
+    @Column(nullable = false, length = 64)
+    private String instanceId;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(nullable = false)
+    private long highWater;
+}
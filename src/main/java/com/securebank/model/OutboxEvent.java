@@ -0,0 +1,44 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactional outbox row. Written by the ledger writer in the same database transaction as the
+ * transaction it describes, and deleted by the relay once every sink has accepted it. The relay
+ * hands rows out in {@code position} order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_position", columnList = "position"))
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long accountId;
+    
+    @Column(nullable = false)
+    private Long transactionId;
+    
+    @Column(nullable = false, length = 32)
+    private String eventType;
+    
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Commit order across nodes; see OutboxPosition. Null only for rows written before it existed.
+    @Column
+    private Long position;
+}
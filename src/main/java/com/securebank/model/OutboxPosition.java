@@ -0,0 +1,25 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single counter that hands out outbox positions. Writers take positions by updating this row
+ * as the last step of their transaction and hold its lock until they commit, so positions follow
+ * commit order across all nodes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_positions")
+public class OutboxPosition {
+    
+    @Id
+    private Integer id;
+    
+    @Column(nullable = false)
+    private long nextPosition;
+}
@@ -0,0 +1,44 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "reconciliation_discrepancies",
+    indexes = @Index(name = "idx_reconciliation_discrepancies_run", columnList = "run_id, account_id")
+)
+public class ReconciliationDiscrepancy {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "run_id", nullable = false, length = 64)
+    private String runId;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    // accounts.balance plus any hot-account slots
+    @Column(nullable = false)
+    private BigDecimal recordedBalance;
+    
+    // Sum of the account's transaction amounts
+    @Column(nullable = false)
+    private BigDecimal ledgerBalance;
+    
+    @Column(nullable = false)
+    private BigDecimal difference;
+    
+    @Column(nullable = false)
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,99 @@
+package com.securebank.model;
+
+import com.securebank.money.Money;
+import com.securebank.money.MoneyConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "scheduled_payments",
+    indexes = {
+        @Index(name = "idx_scheduled_payments_status_next_run", columnList = "status, next_run_at"),
+        @Index(name = "idx_scheduled_payments_user", columnList = "user_id")
+    }
+)
+public class ScheduledPayment {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(nullable = false)
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
+    
+    @Column
+    private String description;
+    
+    @Column
+    private String category;
+    
+    @Column
+    private String merchantName;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Recurrence recurrence = Recurrence.ONCE;
+    
+    // Occurrences are computed from here (first + runs * period), so monthly dates do not drift
+    @Column(name = "first_run_at", nullable = false)
+    private LocalDateTime firstRunAt;
+    
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+    
+    // No occurrence is fired after this, if set
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+    
+    // Occurrences handled so far, paid or failed; also numbers the payment references
+    @Column(nullable = false)
+    private int runs = 0;
+    
+    @Column(nullable = false)
+    private int failures = 0;
+    
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+    
+    @Column(name = "last_error")
+    private String lastError;
+    
+    // Set while a node is paying the current occurrence; another node may claim it once this passes
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.ACTIVE;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    public enum Recurrence {
+        ONCE, DAILY, WEEKLY, MONTHLY
+    }
+    
+    public enum Status {
+        ACTIVE, COMPLETED, CANCELLED
+    }
+}
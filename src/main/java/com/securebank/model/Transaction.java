@@ -1,25 +1,35 @@
 package com.securebank.model;
 
+import com.securebank.money.Money;
+import com.securebank.money.MoneyConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transactions")
+@Table(
+    name = "transactions",
+    indexes = {
+        @Index(name = "idx_transactions_account_timestamp_id", columnList = "account_id, timestamp, id"),
+        @Index(name = "idx_transactions_reference_number", columnList = "reference_number")
+    }
+)
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
-    @Column(nullable = false, unique = true)
+    // Not a unique constraint: the table is range-partitioned on timestamp, and Postgres only
+    // enforces uniqueness that includes the partition key. TransactionReference enforces it instead.
+    @Column(name = "reference_number", nullable = false)
     private String referenceNumber;
     
     @Enumerated(EnumType.STRING)
@@ -27,7 +37,8 @@ public class Transaction {
     private TransactionType type;
     
     @Column(nullable = false)
-    private BigDecimal amount;
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
     
     @Column
     private String description;
@@ -54,11 +65,13 @@ public class Transaction {
     
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
     
     public enum TransactionType {
-        DEPOSIT, WITHDRAWAL, TRANSFER, PAYMENT
+        DEPOSIT, WITHDRAWAL, TRANSFER, TRANSFER_IN, TRANSFER_OUT, PAYMENT, INTEREST
     }
     
     public enum TransactionStatus {
@@ -0,0 +1,48 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transactions partition that was moved to an archive file. The file is the only copy of its
+ * rows from then on; see {@code TransactionArchiveStore}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "transaction_archives")
+public class TransactionArchive {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true, length = 63)
+    private String partitionName;
+    
+    @Column(nullable = false)
+    private String filePath;
+    
+    // Null for a partition that started at MINVALUE
+    @Column
+    private LocalDateTime rangeStart;
+    
+    @Column(nullable = false)
+    private LocalDateTime rangeEnd;
+    
+    @Column(nullable = false)
+    private long rowCount;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,23 @@
+package com.securebank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Every reference number ever posted, in an unpartitioned table. The partitioned transactions
+ * table cannot enforce a unique reference, so the ledger writer inserts here in the same
+ * transaction and a duplicate fails its posting. Rows outlive archived partitions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "transaction_references")
+public class TransactionReference {
+    
+    @Id
+    @Column(name = "reference_number")
+    private String referenceNumber;
+}
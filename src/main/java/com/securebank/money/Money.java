@@ -0,0 +1,202 @@
+package com.securebank.money;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable amount of money as a long count of minor units (cents at the default scale of 2).
+ * Arithmetic is exact and allocation-light: it never rounds, and overflow throws
+ * {@link ArithmeticException} instead of wrapping. Amounts of different scales do not mix; every
+ * amount in this application has the default scale, which matches the numeric(38, 2) columns.
+ *
+ * DTOs carry Money as well, through {@link MoneyJsonComponent}. {@link BigDecimal} only appears
+ * at the JDBC edge and in archive files; see {@link #of} and {@link #toBigDecimal}.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    public static final Money ZERO = new Money(0, DEFAULT_SCALE);
+
+    // Longest text form at any supported scale: sign, 19 digits and the point, or "0." before the fraction
+    static final int MAX_CHARS = 22;
+
+    private static final int MAX_SCALE = 18;
+
+    private final long minorUnits;
+    private final int scale;
+
+    private Money(long minorUnits, int scale) {
+        this.minorUnits = minorUnits;
+        this.scale = scale;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits, DEFAULT_SCALE);
+    }
+
+    public static Money ofMinor(long minorUnits, int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Unsupported currency scale: " + scale);
+        }
+        return scale == DEFAULT_SCALE ? ofMinor(minorUnits) : new Money(minorUnits, scale);
+    }
+
+    /**
+     * Converts at the default scale. Rejects amounts with more decimal places than the scale, or
+     * too large for a long, with {@link IllegalArgumentException}.
+     */
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.setScale(DEFAULT_SCALE).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most " + DEFAULT_SCALE
+                    + " decimal places and fit in a long of minor units: " + amount.toPlainString());
+        }
+    }
+
+    /**
+     * Parses a plain decimal (optional minus sign, digits, optional fraction of at most the
+     * default scale's digits, plus any trailing zeros) straight from characters, as Jackson hands
+     * them over.
+     */
+    public static Money parse(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int at = offset;
+        boolean negative = at < end && chars[at] == '-';
+        if (negative || (at < end && chars[at] == '+')) {
+            at++;
+        }
+        // Accumulate negatively, so Long.MIN_VALUE minor units parse as well
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        try {
+            for (; at < end; at++) {
+                char c = chars[at];
+                if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                    continue;
+                }
+                // Zeros past the scale change nothing, as in of(BigDecimal)
+                if (c == '0' && fractionDigits == DEFAULT_SCALE) {
+                    continue;
+                }
+                if (c < '0' || c > '9' || fractionDigits == DEFAULT_SCALE) {
+                    throw new IllegalArgumentException("Not an amount with at most " + DEFAULT_SCALE
+                            + " decimal places: " + new String(chars, offset, length));
+                }
+                value = Math.subtractExact(Math.multiplyExact(value, 10), c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            }
+            if (digits == 0) {
+                throw new IllegalArgumentException("Not an amount: " + new String(chars, offset, length));
+            }
+            for (int i = Math.max(fractionDigits, 0); i < DEFAULT_SCALE; i++) {
+                value = Math.multiplyExact(value, 10);
+            }
+            return ofMinor(negative ? value : Math.negateExact(value));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount does not fit in a long of minor units: "
+                    + new String(chars, offset, length));
+        }
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public Money plus(Money other) {
+        checkScale(other);
+        return other.minorUnits == 0 ? this : ofMinor(Math.addExact(minorUnits, other.minorUnits), scale);
+    }
+
+    public Money minus(Money other) {
+        checkScale(other);
+        return other.minorUnits == 0 ? this : ofMinor(Math.subtractExact(minorUnits, other.minorUnits), scale);
+    }
+
+    public Money negate() {
+        return minorUnits == 0 ? this : ofMinor(Math.negateExact(minorUnits), scale);
+    }
+
+    public Money abs() {
+        return minorUnits < 0 ? negate() : this;
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkScale(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    /**
+     * Writes the plain decimal form into the end of {@code buffer} (at least {@link #MAX_CHARS}
+     * long) and returns the index it starts at.
+     */
+    int writeTo(char[] buffer) {
+        int at = buffer.length;
+        // Work on the negative value, which also covers Long.MIN_VALUE
+        long value = minorUnits < 0 ? minorUnits : -minorUnits;
+        for (int i = 0; i < scale; i++) {
+            buffer[--at] = (char) ('0' - value % 10);
+            value /= 10;
+        }
+        if (scale > 0) {
+            buffer[--at] = '.';
+        }
+        do {
+            buffer[--at] = (char) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (minorUnits < 0) {
+            buffer[--at] = '-';
+        }
+        return at;
+    }
+
+    private void checkScale(Money other) {
+        if (other.scale != scale) {
+            throw new IllegalArgumentException("Cannot combine amounts of scale " + scale + " and " + other.scale);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.minorUnits == minorUnits && other.scale == scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + scale;
+    }
+
+    @Override
+    public String toString() {
+        char[] buffer = new char[MAX_CHARS];
+        int start = writeTo(buffer);
+        return new String(buffer, start, buffer.length - start);
+    }
+}
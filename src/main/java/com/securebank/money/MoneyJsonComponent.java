@@ -0,0 +1,73 @@
+package com.securebank.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link Money} as a plain JSON number, the same text a BigDecimal amount produced, and
+ * reads numbers or numeric strings. Both directions work on character buffers: no String or
+ * BigDecimal is created per value, except for exponent notation, which goes through BigDecimal.
+ */
+@JsonComponent
+public class MoneyJsonComponent {
+
+    public static class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            char[] buffer = new char[Money.MAX_CHARS];
+            int start = value.writeTo(buffer);
+            gen.writeNumber(buffer, start, buffer.length - start);
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!isAmountToken(p.currentToken())) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            try {
+                return read(p);
+            } catch (IllegalArgumentException e) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, p.getText(), e.getMessage());
+            }
+        }
+
+        public static boolean isAmountToken(JsonToken token) {
+            return token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                    || token == JsonToken.VALUE_STRING;
+        }
+
+        /**
+         * Reads the parser's current number or string token, throwing {@link IllegalArgumentException}
+         * when it is not a valid amount.
+         */
+        public static Money read(JsonParser p) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_NUMBER_FLOAT && hasExponent(p)) {
+                return Money.of(p.getDecimalValue());
+            }
+            return Money.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        }
+
+        private static boolean hasExponent(JsonParser p) throws IOException {
+            char[] chars = p.getTextCharacters();
+            int end = p.getTextOffset() + p.getTextLength();
+            for (int i = p.getTextOffset(); i < end; i++) {
+                if (chars[i] == 'e' || chars[i] == 'E') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
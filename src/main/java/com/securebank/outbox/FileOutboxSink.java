@@ -0,0 +1,93 @@
+package com.securebank.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends every event as one NDJSON line to a local file. Each batch is flushed and forced to disk
+ * before the relay deletes it from the outbox. The write lock is a ReentrantLock, so a virtual
+ * thread waiting on the force does not pin its carrier.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.outbox.sinks.file", name = "enabled", havingValue = "true")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+    private final Writer writer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FileOutboxSink(
+            ObjectMapper objectMapper,
+            @Value("${application.outbox.sinks.file.path:outbox/events.ndjson}") String path
+    ) throws IOException {
+        this.objectMapper = objectMapper;
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+        lock.lock();
+        try {
+            for (OutboxMessage message : batch) {
+                writer.write(toLine(message));
+                writer.write('\n');
+            }
+            writer.flush();
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append outbox events", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String toLine(OutboxMessage message) throws JsonProcessingException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("eventId", message.id());
+        line.put("eventType", message.eventType());
+        line.put("accountId", message.accountId());
+        line.put("createdAt", message.createdAt());
+        line.put("transaction", objectMapper.readTree(message.payload()));
+        return objectMapper.writeValueAsString(line);
+    }
+}
@@ -0,0 +1,10 @@
+package com.securebank.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event as handed to sinks. {@code payload} is the JSON form of the posted transaction.
+ */
+public record OutboxMessage(long id, Long accountId, Long transactionId, String eventType, String payload,
+                            LocalDateTime createdAt) {
+}
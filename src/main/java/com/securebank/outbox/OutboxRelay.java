@@ -0,0 +1,163 @@
+package com.securebank.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains outbox_events in position order, which is commit order (see {@link OutboxWriter#append}),
+ * and hands each batch to every {@link OutboxSink}. A batch is
+ * deleted in the same transaction that read it, and only once all sinks accepted it; a sink that
+ * is full or failing rolls the batch back and makes the relay back off, which is the pipeline's
+ * backpressure. One node relays at a time (transaction-scoped advisory lock), which keeps the
+ * per-account order across a cluster.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    // Arbitrary, but fixed: every node must contend for the same advisory lock
+    private static final long RELAY_LOCK_KEY = 0x5ECB_0B0L;
+
+    private static final String SELECT_BATCH_SQL =
+            "SELECT id, account_id, transaction_id, event_type, payload, created_at FROM outbox_events "
+                    + "ORDER BY position NULLS FIRST, id FETCH FIRST ? ROWS ONLY";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final Timer deliveryLatency;
+    private final AtomicLong lastBatchSize = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread relay;
+
+    public OutboxRelay(
+            JdbcTemplate jdbcTemplate,
+            OutboxWriter outboxWriter,
+            PlatformTransactionManager transactionManager,
+            List<OutboxSink> sinks,
+            MeterRegistry meterRegistry,
+            @Value("${application.outbox.batch-size:500}") int batchSize,
+            @Value("${application.outbox.poll-interval:100}") long pollIntervalMillis
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sinks = sinks;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.deliveryLatency = Timer.builder("securebank.outbox.delivery.latency")
+                .description("Time from outbox write to acceptance by every sink")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("securebank.outbox.batch.size", lastBatchSize, AtomicLong::get)
+                .description("Events in the most recently relayed batch")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!outboxWriter.isEnabled()) {
+            return;
+        }
+        if (sinks.isEmpty()) {
+            log.info("No outbox sinks configured, outbox events are kept until one is enabled");
+            return;
+        }
+        running = true;
+        relay = new Thread(this::run, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (relay != null) {
+            relay.interrupt();
+            relay.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void run() {
+        long backoffMillis = pollIntervalMillis;
+        while (running) {
+            try {
+                int relayed = relayBatch();
+                backoffMillis = pollIntervalMillis;
+                // A full batch means there is more waiting, so go again right away
+                if (relayed < batchSize) {
+                    Thread.sleep(pollIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay failed, retrying in {} ms", backoffMillis, e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, TimeUnit.SECONDS.toMillis(30));
+            }
+        }
+    }
+
+    private int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            Boolean leader = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(leader)) {
+                return 0;
+            }
+            List<OutboxMessage> batch = jdbcTemplate.query(SELECT_BATCH_SQL, (rs, rowNum) -> new OutboxMessage(
+                    rs.getLong("id"),
+                    rs.getLong("account_id"),
+                    rs.getLong("transaction_id"),
+                    rs.getString("event_type"),
+                    rs.getString("payload"),
+                    rs.getTimestamp("created_at").toLocalDateTime()), batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            for (OutboxSink sink : sinks) {
+                sink.deliver(batch);
+            }
+
+            List<Object[]> ids = new ArrayList<>(batch.size());
+            for (OutboxMessage message : batch) {
+                ids.add(new Object[] {message.id()});
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM outbox_events WHERE id = ?", ids);
+
+            LocalDateTime now = LocalDateTime.now();
+            for (OutboxMessage message : batch) {
+                deliveryLatency.record(Duration.between(message.createdAt(), now));
+            }
+            lastBatchSize.set(batch.size());
+            return batch.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.securebank.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events. Batches arrive in outbox order, which is commit order for
+ * any one account. Delivery is at-least-once: if a sink throws, the whole batch stays in the
+ * outbox and is offered again (to every sink), so sinks must tolerate duplicates by message id.
+ */
+public interface OutboxSink {
+    String name();
+    void deliver(List<OutboxMessage> batch);
+}
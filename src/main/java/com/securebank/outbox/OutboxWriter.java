@@ -0,0 +1,111 @@
+package com.securebank.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securebank.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@DependsOn("entityManagerFactory")
+public class OutboxWriter {
+
+    public static final String TRANSACTION_POSTED = "TRANSACTION_POSTED";
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO outbox_events (account_id, transaction_id, event_type, payload, created_at, position) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final int POSITION_COUNTER_ID = 1;
+
+    // Locks the counter row until the caller's transaction ends; returns the last position taken
+    private static final String TAKE_POSITIONS_SQL =
+            "UPDATE outbox_positions SET next_position = next_position + ? WHERE id = ? RETURNING next_position";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public OutboxWriter(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${application.outbox.enabled:false}") boolean enabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void createCounter() {
+        if (enabled) {
+            jdbcTemplate.update("INSERT INTO outbox_positions (id, next_position) VALUES (?, 0) ON CONFLICT (id) DO NOTHING",
+                    POSITION_COUNTER_ID);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues one TRANSACTION_POSTED event per transaction. Must run inside the transaction that
+     * inserts them, after their ids have been assigned, and as its last write: the position
+     * counter stays locked until that transaction ends, so a transaction that commits later
+     * always gets later positions. Group commits from all nodes queue on that row only for the
+     * time it takes them to commit.
+     */
+    public void append(List<Transaction> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return;
+        }
+        List<String> payloads = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            payloads.add(toPayload(transaction));
+        }
+
+        Long last = jdbcTemplate.queryForObject(TAKE_POSITIONS_SQL, Long.class, transactions.size(), POSITION_COUNTER_ID);
+        long position = last - transactions.size();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            args.add(new Object[] {
+                    transaction.getAccount().getId(), transaction.getId(), TRANSACTION_POSTED, payloads.get(i), now, ++position
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, args);
+    }
+
+    private String toPayload(Transaction transaction) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", transaction.getId());
+        payload.put("referenceNumber", transaction.getReferenceNumber());
+        payload.put("type", transaction.getType().name());
+        payload.put("amount", transaction.getAmount());
+        payload.put("description", transaction.getDescription());
+        payload.put("category", transaction.getCategory());
+        payload.put("merchantName", transaction.getMerchantName());
+        payload.put("timestamp", transaction.getTimestamp());
+        payload.put("status", transaction.getStatus().name());
+        payload.put("accountId", transaction.getAccount().getId());
+        if (transaction.getDestinationAccount() != null) {
+            payload.put("destinationAccountId", transaction.getDestinationAccount().getId());
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox event for transaction " + transaction.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.securebank.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process sink: a bounded queue that consumers in this JVM (notifications, fraud, analytics)
+ * take events from. When consumers fall behind and the queue fills up, delivery fails after the
+ * offer timeout and the relay backs off until there is room again. Opt-in, as nothing in this
+ * application consumes the queue yet; enabled without a consumer, it fills up and stalls the relay.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.outbox.sinks.queue", name = "enabled", havingValue = "true")
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxMessage> queue;
+    private final long offerTimeoutMillis;
+
+    public QueueOutboxSink(
+            @Value("${application.outbox.sinks.queue.capacity:10000}") int capacity,
+            @Value("${application.outbox.sinks.queue.offer-timeout:1000}") long offerTimeoutMillis
+    ) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    @Override
+    public String name() {
+        return "queue";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+        try {
+            for (OutboxMessage message : batch) {
+                if (!queue.offer(message, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Outbox queue is full");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while delivering outbox events", e);
+        }
+    }
+
+    // Blocks up to the timeout; returns null if nothing arrived
+    public OutboxMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public int drainTo(List<OutboxMessage> target, int maxEvents) {
+        return queue.drainTo(target, maxEvents);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,404 @@
+package com.securebank.payment;
+
+import com.securebank.dto.PaymentRequest;
+import com.securebank.model.ScheduledPayment.Recurrence;
+import com.securebank.money.Money;
+import com.securebank.service.TransactionService;
+import com.securebank.service.TransactionService.ScheduledPaymentOrder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires scheduled payments. Schedules due within the horizon sit in a {@link TimingWheel}; a
+ * loader moves later ones in from the (status, next_run_at) index as the wheel turns, so no
+ * query ever scans the table. Every tick, the ids that came due are split into batches for a
+ * bounded worker pool.
+ *
+ * A batch claims its rows by stamping a lease (claimed_until) on them in one statement, so nodes
+ * never fire the same occurrence together, pays them all with one
+ * {@link TransactionService#scheduledPayments} call and then advances the rows. No transaction or
+ * connection is held while the payments wait for the ledger's group commit, so busy workers can
+ * never starve the ledger writer of connections. Each occurrence has a fixed reference
+ * (SP{id}-{run}); one that was paid but not advanced (a crash, a failed update) is found by that
+ * reference on the next attempt and only advanced. A payment is therefore made at most once, as
+ * long as a batch finishes within the lease.
+ *
+ * Insufficient funds and velocity limits are the occurrence's outcome: it is recorded as failed
+ * and the schedule moves on. Any other failure puts the batch back in the wheel to be retried.
+ */
+@Slf4j
+@Component
+public class ScheduledPaymentEngine {
+
+    private static final String LOAD_SQL =
+            "SELECT id, next_run_at FROM scheduled_payments "
+                    + "WHERE status = 'ACTIVE' AND next_run_at >= ? AND next_run_at < ?";
+
+    private static final String CLAIM_SQL =
+            "UPDATE scheduled_payments SET claimed_until = ? WHERE id IN (SELECT id FROM scheduled_payments "
+                    + "WHERE id = ANY (?) AND status = 'ACTIVE' AND next_run_at <= ? "
+                    + "AND (claimed_until IS NULL OR claimed_until < ?) FOR UPDATE SKIP LOCKED) "
+                    + "RETURNING id, user_id, account_id, amount, description, category, merchant_name, recurrence, "
+                    + "first_run_at, next_run_at, end_at, runs, failures";
+
+    // Only while the lease is still ours; a schedule cancelled meanwhile stays cancelled
+    private static final String ADVANCE_SQL =
+            "UPDATE scheduled_payments SET next_run_at = ?, runs = ?, failures = ?, "
+                    + "status = CASE status WHEN 'ACTIVE' THEN ? ELSE status END, "
+                    + "last_run_at = ?, last_error = ?, claimed_until = NULL WHERE id = ? AND claimed_until = ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE scheduled_payments SET claimed_until = NULL WHERE id = ANY (?) AND claimed_until = ?";
+
+    private static final int LOAD_FETCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long tickMillis;
+    private final long horizonMillis;
+    private final int batchSize;
+    private final long claimLeaseMillis;
+    private final TimingWheel wheel;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService ticker;
+    private final Timer fireLag;
+
+    // Everything due before this is in the wheel (or has been fired)
+    private volatile long loadedUntilMillis;
+
+    public ScheduledPaymentEngine(
+            JdbcTemplate jdbcTemplate,
+            TransactionService transactionService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${application.scheduled-payments.enabled:true}") boolean enabled,
+            @Value("${application.scheduled-payments.tick:1000}") long tickMillis,
+            @Value("${application.scheduled-payments.horizon:3600000}") long horizonMillis,
+            @Value("${application.scheduled-payments.batch-size:200}") int batchSize,
+            @Value("${application.scheduled-payments.claim-lease:300000}") long claimLeaseMillis,
+            @Value("${application.scheduled-payments.workers:8}") int workerCount,
+            @Value("${application.scheduled-payments.queue-capacity:64}") int queueCapacity
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionService = transactionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.tickMillis = tickMillis;
+        this.horizonMillis = horizonMillis;
+        this.batchSize = batchSize;
+        this.claimLeaseMillis = claimLeaseMillis;
+        // Twice the horizon, so the loader can always fill a full horizon ahead of the current tick
+        this.wheel = new TimingWheel(tickMillis, (int) (2 * horizonMillis / tickMillis), System.currentTimeMillis());
+        AtomicInteger threads = new AtomicInteger();
+        // A full queue makes the ticker run the batch itself, which slows the wheel down instead
+        // of piling up batches
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "scheduled-payments-" + threads.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-payments-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.fireLag = Timer.builder("securebank.scheduled.payments.fire.lag")
+                .description("Time from an occurrence's due time to its payment")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("securebank.scheduled.payments.pending", wheel, TimingWheel::size)
+                .description("Schedules waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        ticker.scheduleWithFixedDelay(this::tick, 0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        ticker.shutdownNow();
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Puts a new or rescheduled occurrence in the wheel once the current transaction commits, if
+     * it is due before the loaded range ends; later ones are picked up by the loader.
+     */
+    public void scheduled(Long id, LocalDateTime nextRunAt) {
+        if (!enabled) {
+            return;
+        }
+        long due = toMillis(nextRunAt);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addIfLoaded(id, due);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addIfLoaded(id, due);
+            }
+        });
+    }
+
+    public long pending() {
+        return wheel.size();
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            load(now);
+            long[] due = wheel.advance(now);
+            for (int from = 0; from < due.length; from += batchSize) {
+                long[] batch = Arrays.copyOfRange(due, from, Math.min(from + batchSize, due.length));
+                workers.execute(() -> fire(batch));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Scheduled payment tick failed", e);
+        }
+    }
+
+    // Moves schedules that are now within the horizon from the index into the wheel
+    private void load(long now) {
+        long from = loadedUntilMillis;
+        long until = Math.min(now + horizonMillis, wheel.horizonEndMillis());
+        if (until - from < horizonMillis / 4) {
+            return;
+        }
+        // Published before the query: a schedule committed while it runs either shows up in it or
+        // sees the new mark and adds itself (both is harmless, the claim skips the second)
+        loadedUntilMillis = until;
+        long[] loaded = new long[1];
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOAD_SQL);
+            ps.setFetchSize(LOAD_FETCH_SIZE);
+            ps.setTimestamp(1, new Timestamp(from));
+            ps.setTimestamp(2, new Timestamp(until));
+            return ps;
+        }, rs -> {
+            wheel.add(rs.getLong("id"), rs.getTimestamp("next_run_at").getTime());
+            loaded[0]++;
+        }));
+        if (loaded[0] > 0) {
+            log.debug("Loaded {} scheduled payments due before {}", loaded[0], Instant.ofEpochMilli(until));
+        }
+    }
+
+    private void addIfLoaded(long id, long due) {
+        if (due < loadedUntilMillis) {
+            wheel.add(id, due);
+        }
+    }
+
+    private void fire(long[] ids) {
+        LocalDateTime now = LocalDateTime.now();
+        // Millisecond precision, so the lease compares equal after a round trip through the database
+        LocalDateTime claimedUntil = now.plus(Duration.ofMillis(claimLeaseMillis)).truncatedTo(ChronoUnit.MILLIS);
+        List<Claimed> claimed;
+        try {
+            claimed = claim(ids, now, claimedUntil);
+        } catch (RuntimeException e) {
+            log.warn("Claiming a scheduled payment batch of {} failed, retrying", ids.length, e);
+            retry(ids, System.currentTimeMillis() + tickMillis);
+            return;
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        List<Occurrence> next;
+        try {
+            next = fireClaimed(claimed, now, claimedUntil);
+        } catch (RuntimeException e) {
+            // Whatever was paid is found by its reference on the retry and only advanced
+            log.warn("Scheduled payment batch of {} failed, retrying", claimed.size(), e);
+            long[] claimedIds = claimed.stream().mapToLong(Claimed::id).toArray();
+            retry(claimedIds, release(claimedIds, claimedUntil)
+                    ? System.currentTimeMillis() + tickMillis
+                    : toMillis(claimedUntil) + tickMillis);
+            return;
+        }
+        for (Occurrence occurrence : next) {
+            addIfLoaded(occurrence.id(), toMillis(occurrence.nextRunAt()));
+        }
+    }
+
+    private void retry(long[] ids, long retryAt) {
+        for (long id : ids) {
+            wheel.add(id, retryAt);
+        }
+    }
+
+    // False if the lease could not be dropped; the rows can then only be claimed once it expires
+    private boolean release(long[] ids, LocalDateTime claimedUntil) {
+        try {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(RELEASE_SQL);
+                ps.setArray(1, connection.createArrayOf("bigint", Arrays.stream(ids).boxed().toArray()));
+                ps.setTimestamp(2, Timestamp.valueOf(claimedUntil));
+                return ps;
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not release {} scheduled payment claims", ids.length, e);
+            return false;
+        }
+    }
+
+    // One auto-committed statement: the lease, not a row lock, keeps other nodes off the rows
+    private List<Claimed> claim(long[] ids, LocalDateTime now, LocalDateTime claimedUntil) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(CLAIM_SQL);
+            ps.setTimestamp(1, Timestamp.valueOf(claimedUntil));
+            ps.setArray(2, connection.createArrayOf("bigint", Arrays.stream(ids).boxed().toArray()));
+            ps.setTimestamp(3, Timestamp.valueOf(now));
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            return ps;
+        }, (rs, rowNum) -> new Claimed(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getLong("account_id"),
+                Money.of(rs.getBigDecimal("amount")),
+                rs.getString("description"),
+                rs.getString("category"),
+                rs.getString("merchant_name"),
+                Recurrence.valueOf(rs.getString("recurrence")),
+                rs.getTimestamp("first_run_at").toLocalDateTime(),
+                rs.getTimestamp("next_run_at").toLocalDateTime(),
+                rs.getTimestamp("end_at") != null ? rs.getTimestamp("end_at").toLocalDateTime() : null,
+                rs.getInt("runs"),
+                rs.getInt("failures")));
+    }
+
+    private List<Occurrence> fireClaimed(List<Claimed> claimed, LocalDateTime now, LocalDateTime claimedUntil) {
+        Set<String> alreadyPaid = alreadyPaid(claimed);
+        List<ScheduledPaymentOrder> orders = new ArrayList<>(claimed.size());
+        for (Claimed row : claimed) {
+            if (!alreadyPaid.contains(row.reference())) {
+                orders.add(new ScheduledPaymentOrder(row.userId(), row.reference(), row.toPaymentRequest()));
+            }
+        }
+        // Throws for anything but insufficient funds or a velocity limit, leaving the rows unadvanced
+        String[] rejections = orders.isEmpty() ? new String[0] : transactionService.scheduledPayments(orders);
+        LocalDateTime paidAt = LocalDateTime.now();
+
+        List<Object[]> updates = new ArrayList<>(claimed.size());
+        List<Occurrence> next = new ArrayList<>(claimed.size());
+        int order = 0;
+        for (Claimed row : claimed) {
+            String error = null;
+            if (!alreadyPaid.contains(row.reference())) {
+                error = rejections[order++];
+                fireLag.record(Duration.between(row.nextRunAt(), paidAt));
+            }
+
+            int runs = row.runs() + 1;
+            LocalDateTime nextRunAt = row.occurrence(runs);
+            boolean completed = nextRunAt == null || (row.endAt() != null && nextRunAt.isAfter(row.endAt()));
+            updates.add(new Object[] {
+                    Timestamp.valueOf(completed ? row.nextRunAt() : nextRunAt),
+                    runs,
+                    row.failures() + (error != null ? 1 : 0),
+                    completed ? "COMPLETED" : "ACTIVE",
+                    Timestamp.valueOf(now),
+                    error,
+                    row.id(),
+                    Timestamp.valueOf(claimedUntil)
+            });
+            if (!completed) {
+                next.add(new Occurrence(row.id(), nextRunAt));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(ADVANCE_SQL, updates));
+        return next;
+    }
+
+    private Set<String> alreadyPaid(List<Claimed> claimed) {
+        String[] references = claimed.stream().map(Claimed::reference).toArray(String[]::new);
+        List<String> found = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT reference_number FROM transactions WHERE reference_number = ANY (?)");
+            ps.setArray(1, connection.createArrayOf("varchar", references));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1));
+        return found.isEmpty() ? Set.of() : new HashSet<>(found);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Occurrence number n (0-based) of a schedule, or null if it has only one
+    static LocalDateTime occurrence(Recurrence recurrence, LocalDateTime firstRunAt, int n) {
+        return switch (recurrence) {
+            case ONCE -> n == 0 ? firstRunAt : null;
+            case DAILY -> firstRunAt.plusDays(n);
+            case WEEKLY -> firstRunAt.plusWeeks(n);
+            case MONTHLY -> firstRunAt.plusMonths(n);
+        };
+    }
+
+    private record Occurrence(long id, LocalDateTime nextRunAt) {
+    }
+
+    private record Claimed(long id, long userId, long accountId, Money amount, String description,
+                           String category, String merchantName, Recurrence recurrence, LocalDateTime firstRunAt,
+                           LocalDateTime nextRunAt, LocalDateTime endAt, int runs, int failures) {
+
+        String reference() {
+            return "SP" + id + "-" + runs;
+        }
+
+        LocalDateTime occurrence(int n) {
+            return ScheduledPaymentEngine.occurrence(recurrence, firstRunAt, n);
+        }
+
+        PaymentRequest toPaymentRequest() {
+            PaymentRequest request = new PaymentRequest();
+            request.setAccountId(accountId);
+            request.setAmount(amount);
+            request.setDescription(description);
+            request.setCategory(category);
+            request.setMerchantName(merchantName);
+            return request;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.securebank.payment;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-level timing wheel of schedule ids. Each slot covers one tick and holds the ids due in
+ * that tick as a primitive long array, so a pending schedule costs about 8 bytes. Only ticks up
+ * to {@link #horizonEndMillis()} fit; anything later stays in the database until the wheel has
+ * turned far enough, which makes the table's (status, next_run_at) index the wheel's outer level.
+ *
+ * All methods take one ReentrantLock, not the monitor, so a virtual thread waiting for the wheel
+ * does not pin its carrier; every operation is O(1) apart from copying out a due slot.
+ */
+final class TimingWheel {
+
+    private static final int INITIAL_SLOT_CAPACITY = 4;
+
+    private final long tickMillis;
+    private final long[][] slots;
+    private final int[] sizes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private long size;
+
+    TimingWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new long[slotCount][];
+        this.sizes = new int[slotCount];
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Adds an id at its due time; overdue ids go into the current tick. Returns false, without
+     * adding it, if the due time is past the horizon.
+     */
+    boolean add(long id, long dueMillis) {
+        lock.lock();
+        try {
+            long tick = Math.max(dueMillis / tickMillis, currentTick);
+            if (tick >= currentTick + slots.length) {
+                return false;
+            }
+            int slot = (int) (tick % slots.length);
+            long[] ids = slots[slot];
+            if (ids == null) {
+                ids = slots[slot] = new long[INITIAL_SLOT_CAPACITY];
+            } else if (sizes[slot] == ids.length) {
+                ids = slots[slot] = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+            ids[sizes[slot]++] = id;
+            size++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Turns the wheel past every tick that has fully elapsed by {@code nowMillis} and returns the
+     * ids those slots held, or an empty array if there were none. An id therefore fires at most
+     * one tick after it is due, never before.
+     */
+    long[] advance(long nowMillis) {
+        lock.lock();
+        try {
+            long nowTick = nowMillis / tickMillis;
+            long[] due = new long[0];
+            int dueSize = 0;
+            for (; currentTick < nowTick; currentTick++) {
+                int slot = (int) (currentTick % slots.length);
+                int count = sizes[slot];
+                if (count == 0) {
+                    continue;
+                }
+                if (dueSize + count > due.length) {
+                    due = Arrays.copyOf(due, Math.max(dueSize + count, due.length * 2));
+                }
+                System.arraycopy(slots[slot], 0, due, dueSize, count);
+                dueSize += count;
+                // Let a slot that filled up for a burst shrink back
+                slots[slot] = null;
+                sizes[slot] = 0;
+                size -= count;
+            }
+            return dueSize == due.length ? due : Arrays.copyOf(due, dueSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // End (exclusive) of the time range the wheel can hold right now
+    long horizonEndMillis() {
+        lock.lock();
+        try {
+            return (currentTick + slots.length) * tickMillis;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
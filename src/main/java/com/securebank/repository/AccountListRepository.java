@@ -0,0 +1,30 @@
+package com.securebank.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Account lists as constructor projections: only the columns AccountDTO needs are selected and
+ * nothing is attached to the persistence context, so the owning user (and its roles) and the
+ * transaction set are never loaded. Queried through the EntityManager for the reason given on
+ * {@link TransactionListRepository}.
+ */
+@Repository
+public class AccountListRepository {
+
+    private static final String ROWS_BY_USER_JPQL = "SELECT new com.securebank.repository.AccountRow("
+            + "a.id, a.accountNumber, a.accountType, a.balance, a.active, a.hot, a.createdAt) "
+            + "FROM Account a WHERE a.user.id = :userId ORDER BY a.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<AccountRow> findRowsByUserId(Long userId) {
+        return entityManager.createQuery(ROWS_BY_USER_JPQL, AccountRow.class)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+}
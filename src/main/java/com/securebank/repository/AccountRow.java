@@ -0,0 +1,21 @@
+package com.securebank.repository;
+
+import com.securebank.model.Account;
+import com.securebank.money.Money;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of an account list; see {@link AccountListRepository}.
+ */
+@Value
+public class AccountRow {
+    Long id;
+    String accountNumber;
+    Account.AccountType accountType;
+    Money balance;
+    boolean active;
+    boolean hot;
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,72 @@
+package com.securebank.repository;
+
+import com.securebank.dto.StatementTotalDTO;
+import com.securebank.exception.ResourceNotFoundException;
+import com.securebank.ledger.HotAccountManager;
+import com.securebank.model.AccountDailyTotal.Dimension;
+import com.securebank.money.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads account_daily_totals. Balances at a day boundary are derived from the live balance minus
+ * the net movement of every later day, which stays exact through hot-account slots and their
+ * consolidation without the writer ever having to know an absolute balance.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DailySnapshotRepository {
+
+    /**
+     * Balance of account {@code a} at the end of the day given as parameter, for use in a select
+     * list over accounts a.
+     */
+    public static final String BALANCE_AT_END_OF_DAY_SQL =
+            "a.balance + " + HotAccountManager.SLOT_SUM_SQL
+                    + " - COALESCE((SELECT SUM(t.credits + t.debits) FROM account_daily_totals t "
+                    + "WHERE t.account_id = a.id AND t.dimension = 'ALL' AND t.snapshot_date > ?), 0)";
+
+    private static final String BALANCE_AT_END_OF_SQL =
+            "SELECT " + BALANCE_AT_END_OF_DAY_SQL + " FROM accounts a WHERE a.id = ?";
+
+    private static final String TOTALS_SQL =
+            "SELECT dimension, dim_key, SUM(credits) AS credits, SUM(debits) AS debits, SUM(tx_count) AS tx_count "
+                    + "FROM account_daily_totals WHERE account_id = ? AND snapshot_date BETWEEN ? AND ? "
+                    + "GROUP BY dimension, dim_key ORDER BY dimension, SUM(credits) + SUM(debits)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Money balanceAtEndOf(Long accountId, LocalDate date) {
+        try {
+            return Money.of(jdbcTemplate.queryForObject(BALANCE_AT_END_OF_SQL, BigDecimal.class, Date.valueOf(date), accountId));
+        } catch (EmptyResultDataAccessException e) {
+            throw new ResourceNotFoundException("Account not found with id: " + accountId);
+        }
+    }
+
+    // Totals over [from, to] for every dimension, debit-heaviest first within each dimension
+    public Map<Dimension, List<StatementTotalDTO>> totals(Long accountId, LocalDate from, LocalDate to) {
+        Map<Dimension, List<StatementTotalDTO>> totals = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : Dimension.values()) {
+            totals.put(dimension, new ArrayList<>());
+        }
+        jdbcTemplate.query(TOTALS_SQL, rs -> {
+            totals.get(Dimension.valueOf(rs.getString("dimension"))).add(new StatementTotalDTO(
+                    rs.getString("dim_key"),
+                    Money.of(rs.getBigDecimal("credits")),
+                    Money.of(rs.getBigDecimal("debits")),
+                    rs.getLong("tx_count")));
+        }, accountId, Date.valueOf(from), Date.valueOf(to));
+        return totals;
+    }
+}
@@ -0,0 +1,31 @@
+package com.securebank.repository;
+
+import com.securebank.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Restarts a record's clock if it is still in the given state and nobody else has restarted it
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now "
+            + "WHERE r.id = :id AND r.status = :status AND r.createdAt = :createdAt")
+    int reclaim(@Param("id") Long id, @Param("status") IdempotencyRecord.Status status,
+                @Param("createdAt") LocalDateTime createdAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
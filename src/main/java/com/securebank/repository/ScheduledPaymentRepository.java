@@ -0,0 +1,23 @@
+package com.securebank.repository;
+
+import com.securebank.model.ScheduledPayment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledPaymentRepository extends JpaRepository<ScheduledPayment, Long> {
+
+    List<ScheduledPayment> findByUserIdOrderByNextRunAt(Long userId);
+
+    // Waits for an occurrence that is being fired, so changes are made on top of its progress
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ScheduledPayment p WHERE p.id = :id")
+    Optional<ScheduledPayment> findByIdForUpdate(@Param("id") Long id);
+}
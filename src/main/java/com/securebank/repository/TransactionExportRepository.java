@@ -0,0 +1,53 @@
+package com.securebank.repository;
+
+import com.securebank.dto.TransactionDTO;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only export of an account's history. Rows are read through a server-side cursor
+ * (fetch size, inside its own read-only transaction) and handed to the consumer one by one, so memory stays
+ * constant however long the history is.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionExportRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_BY_ACCOUNT_SQL =
+            "SELECT id, reference_number, type, amount, description, category, merchant_name, timestamp, status, account_id "
+                    + "FROM transactions WHERE account_id = ? ORDER BY timestamp DESC, id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public void streamByAccountId(Long accountId, Consumer<TransactionDTO> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_BY_ACCOUNT_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, accountId);
+            return ps;
+        }, rs -> {
+            TransactionDTO dto = new TransactionDTO();
+            dto.setId(rs.getLong("id"));
+            dto.setReferenceNumber(rs.getString("reference_number"));
+            dto.setType(rs.getString("type"));
+            dto.setAmount(Money.of(rs.getBigDecimal("amount")));
+            dto.setDescription(rs.getString("description"));
+            dto.setCategory(rs.getString("category"));
+            dto.setMerchantName(rs.getString("merchant_name"));
+            dto.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+            dto.setStatus(Transaction.TransactionStatus.values()[rs.getInt("status")].name());
+            dto.setAccountId(rs.getLong("account_id"));
+            consumer.accept(dto);
+        });
+    }
+}
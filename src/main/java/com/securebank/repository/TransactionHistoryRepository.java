@@ -0,0 +1,25 @@
+package com.securebank.repository;
+
+import com.securebank.model.Transaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Keyset queries, served by the (account_id, timestamp, id) index on transactions
+public interface TransactionHistoryRepository extends Repository<Transaction, Long> {
+
+    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.timestamp DESC, t.id DESC")
+    List<Transaction> findLatest(@Param("accountId") Long accountId, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId "
+            + "AND (t.timestamp, t.id) < (:timestamp, :id) ORDER BY t.timestamp DESC, t.id DESC")
+    List<Transaction> findBefore(
+            @Param("accountId") Long accountId,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id,
+            Pageable pageable);
+}
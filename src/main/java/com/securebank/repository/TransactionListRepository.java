@@ -0,0 +1,58 @@
+package com.securebank.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Paged transaction lists as constructor projections. The account id is read from the foreign key
+ * column, so neither account association is joined or loaded, and no entity is managed. Rows are
+ * plain value objects: interface projections would put a proxy and a backing map behind every row.
+ *
+ * Queries go to the EntityManager directly, whose query plan cache parses each one once. Spring
+ * Data re-parses an {@code @Query} method's JPQL on every call, which allocated more per page
+ * than loading the entities did.
+ */
+@Repository
+public class TransactionListRepository {
+
+    private static final String SELECT_ROW = "SELECT new com.securebank.repository.TransactionRow("
+            + "t.id, t.referenceNumber, t.type, t.amount, t.description, t.category, t.merchantName, "
+            + "t.timestamp, t.status, t.account.id) ";
+
+    private static final String ROWS_BY_ACCOUNT_JPQL =
+            SELECT_ROW + "FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.timestamp DESC, t.id DESC";
+
+    private static final String ROW_BY_REFERENCE_JPQL =
+            SELECT_ROW + "FROM Transaction t WHERE t.referenceNumber = :referenceNumber";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Newest first; the pageable's sort is ignored
+    public List<TransactionRow> findRowsByAccountId(Long accountId, Pageable pageable) {
+        return entityManager.createQuery(ROWS_BY_ACCOUNT_JPQL, TransactionRow.class)
+                .setParameter("accountId", accountId)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    public Optional<TransactionRow> findRowByReferenceNumber(String referenceNumber) {
+        return entityManager.createQuery(ROW_BY_REFERENCE_JPQL, TransactionRow.class)
+                .setParameter("referenceNumber", referenceNumber)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst();
+    }
+
+    public long countByAccountId(Long accountId) {
+        return entityManager.createQuery("SELECT COUNT(t) FROM Transaction t WHERE t.account.id = :accountId", Long.class)
+                .setParameter("accountId", accountId)
+                .getSingleResult();
+    }
+}
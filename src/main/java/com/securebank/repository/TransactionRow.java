@@ -0,0 +1,24 @@
+package com.securebank.repository;
+
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a transaction list; see {@link TransactionListRepository}.
+ */
+@Value
+public class TransactionRow {
+    Long id;
+    String referenceNumber;
+    Transaction.TransactionType type;
+    Money amount;
+    String description;
+    String category;
+    String merchantName;
+    LocalDateTime timestamp;
+    Transaction.TransactionStatus status;
+    Long accountId;
+}
@@ -0,0 +1,97 @@
+package com.securebank.security;
+
+import com.securebank.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * accountId -> ownerId lookup used for permission checks, so a request can be accepted or
+ * rejected without hydrating the {@code Account} and {@code User} entity graphs. Account
+ * ownership never changes once created, so entries do not need invalidation.
+ */
+@Component
+public class AccountOwnershipIndex {
+
+    private static final String OWNERS_SQL = "SELECT id, user_id FROM accounts WHERE id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public AccountOwnershipIndex(
+            JdbcTemplate jdbcTemplate,
+            @Value("${application.security.ownership-index.max-size:1000000}") int maxSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxSize = maxSize;
+    }
+
+    // Returns null when the account does not exist
+    public Long ownerOf(Long accountId) {
+        Long ownerId = owners.get(accountId);
+        if (ownerId != null) {
+            return ownerId;
+        }
+        try {
+            ownerId = jdbcTemplate.queryForObject("SELECT user_id FROM accounts WHERE id = ?", Long.class, accountId);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+        register(accountId, ownerId);
+        return ownerId;
+    }
+
+    // Resolves many accounts with at most one query; accounts that do not exist are absent from the result
+    public Map<Long, Long> ownersOf(Collection<Long> accountIds) {
+        Map<Long, Long> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long accountId : accountIds) {
+            Long ownerId = owners.get(accountId);
+            if (ownerId != null) {
+                result.put(accountId, ownerId);
+            } else {
+                missing.add(accountId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(OWNERS_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", missing.toArray()));
+            return ps;
+        }, rs -> {
+            long accountId = rs.getLong(1);
+            long ownerId = rs.getLong(2);
+            result.put(accountId, ownerId);
+            register(accountId, ownerId);
+        });
+        return result;
+    }
+
+    public void register(Long accountId, Long ownerId) {
+        if (owners.size() < maxSize) {
+            owners.put(accountId, ownerId);
+        }
+    }
+
+    public void checkOwner(Long accountId, Long userId, String deniedMessage) {
+        Long ownerId = ownerOf(accountId);
+        if (ownerId == null) {
+            throw new ResourceNotFoundException("Account not found with id: " + accountId);
+        }
+        if (!ownerId.equals(userId)) {
+            throw new SecurityException(deniedMessage);
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.securebank.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -13,6 +19,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
@@ -26,6 +33,46 @@ public class JwtService {
     
     @Value("${application.security.jwt.refresh-token.expiration}")
     private long refreshExpiration;
+    
+    @Value("${application.security.jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+    
+    @Value("${application.security.jwt.cache.ttl:300000}")
+    private long cacheTtl;
+    
+    private final MeterRegistry meterRegistry;
+    
+    private Key signInKey;
+    private JwtParser jwtParser;
+    private VerifiedClaimsCache claimsCache;
+    private Timer validationTimer;
+
+    public JwtService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        signInKey = getSignInKey();
+        jwtParser = Jwts
+                .parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        claimsCache = new VerifiedClaimsCache(cacheMaxSize, cacheTtl);
+        
+        validationTimer = Timer.builder("securebank.jwt.validation")
+                .description("JWT validation latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        FunctionCounter.builder("securebank.jwt.cache.requests", claimsCache, VerifiedClaimsCache::hits)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("securebank.jwt.cache.requests", claimsCache, VerifiedClaimsCache::misses)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("securebank.jwt.cache.size", claimsCache, VerifiedClaimsCache::size)
+                .register(meterRegistry);
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -62,30 +109,46 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final long start = System.nanoTime();
+        try {
+            final Claims claims = extractAllClaims(token);
+            return (claims.getSubject().equals(userDetails.getUsername())) && !isTokenExpired(claims);
+        } finally {
+            validationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    
+    public long getClaimsCacheHits() {
+        return claimsCache.hits();
+    }
+    
+    public long getClaimsCacheMisses() {
+        return claimsCache.misses();
+    }
+    
+    public int getClaimsCacheSize() {
+        return claimsCache.size();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        // Signature verification is the expensive part, so reuse claims already verified for this token
+        final long now = System.currentTimeMillis();
+        final String cacheKey = claimsCache.keyOf(token);
+        Claims claims = claimsCache.get(cacheKey, now);
+        if (claims == null) {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            claimsCache.put(cacheKey, claims, now);
+        }
+        return claims;
     }
 
     private Key getSignInKey() {
@@ -0,0 +1,274 @@
+package com.securebank.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory failed-login counters per email and per source IP, checked before any password is
+ * hashed or any row is read. Each counter leaks one failure per decay interval, and every update
+ * is a CAS on a single packed long, so a credential-stuffing burst never takes a lock. Counters
+ * live in striped maps with a per-stripe bound: idle counters go first, then unlocked ones, and
+ * both kinds of eviction are counted. A full stripe is evicted down to a low-water mark in one go,
+ * so the scans are paid once per batch of new keys rather than for every new key.
+ *
+ * Only a change of lock state is reported back (see {@link #recordFailure}), which is the only
+ * time the users row has to be written.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int STRIPES = 16;
+    private static final int COUNT_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    // How long a stripe whose counters are all locked is left alone before it is scanned again
+    private static final long FULL_RESCAN_MILLIS = 1000;
+
+    private final Stripes emails;
+    private final Stripes ips;
+    private final int maxEmailFailures;
+    private final long emailDecayMillis;
+    private final long lockDurationMillis;
+    private final int maxIpFailures;
+    private final long ipDecayMillis;
+    private final LongAdder blocked = new LongAdder();
+
+    public LoginThrottle(
+            MeterRegistry registry,
+            @Value("${application.security.login-throttle.max-entries:100000}") int maxEntries,
+            @Value("${application.security.login-throttle.email.max-failures:5}") int maxEmailFailures,
+            @Value("${application.security.login-throttle.email.decay:300000}") long emailDecayMillis,
+            @Value("${application.security.login-throttle.email.lock-duration:900000}") long lockDurationMillis,
+            @Value("${application.security.login-throttle.ip.max-failures:100}") int maxIpFailures,
+            @Value("${application.security.login-throttle.ip.decay:6000}") long ipDecayMillis
+    ) {
+        this.emails = new Stripes(Math.max(1, maxEntries / STRIPES));
+        this.ips = new Stripes(Math.max(1, maxEntries / STRIPES));
+        this.maxEmailFailures = maxEmailFailures;
+        this.emailDecayMillis = emailDecayMillis;
+        this.lockDurationMillis = lockDurationMillis;
+        this.maxIpFailures = maxIpFailures;
+        this.ipDecayMillis = ipDecayMillis;
+
+        FunctionCounter.builder("securebank.login.blocked", blocked, LongAdder::sum)
+                .description("Login attempts rejected by the throttle before authentication")
+                .register(registry);
+        for (Map.Entry<String, Stripes> tracked : Map.of("email", emails, "ip", ips).entrySet()) {
+            Stripes stripes = tracked.getValue();
+            Gauge.builder("securebank.login.throttle.entries", stripes, Stripes::size)
+                    .tag("key", tracked.getKey())
+                    .register(registry);
+            FunctionCounter.builder("securebank.login.throttle.evictions", stripes.idleEvictions, LongAdder::sum)
+                    .tag("key", tracked.getKey())
+                    .tag("cause", "idle")
+                    .register(registry);
+            FunctionCounter.builder("securebank.login.throttle.evictions", stripes.forcedEvictions, LongAdder::sum)
+                    .tag("key", tracked.getKey())
+                    .tag("cause", "capacity")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Whether an attempt must be rejected without authenticating: the email is locked, or the
+     * source IP has failed too often lately. A lock that has run out is cleared here, and
+     * {@link Decision#UNLOCKED} tells the caller to clear it on the users row as well.
+     */
+    public Decision check(String email, String ip, long nowMillis) {
+        Counter emailCounter = emails.get(normalize(email));
+        if (emailCounter != null) {
+            long lockedUntil = emailCounter.lockedUntil.get();
+            if (lockedUntil > nowMillis) {
+                blocked.increment();
+                return Decision.BLOCKED;
+            }
+            if (lockedUntil != 0 && emailCounter.lockedUntil.compareAndSet(lockedUntil, 0)) {
+                emailCounter.state.set(0);
+                return Decision.UNLOCKED;
+            }
+        }
+        Counter ipCounter = ip != null ? ips.get(ip) : null;
+        if (ipCounter != null && ipCounter.current(nowMillis, ipDecayMillis) >= maxIpFailures) {
+            blocked.increment();
+            return Decision.BLOCKED;
+        }
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * Counts a failed attempt. Returns the failure count if this attempt locked the email (exactly
+     * one caller sees that for each lock), or 0 otherwise.
+     */
+    public int recordFailure(String email, String ip, long nowMillis) {
+        if (ip != null) {
+            ips.getOrCreate(ip, nowMillis, ipDecayMillis, maxIpFailures).increment(nowMillis, ipDecayMillis);
+        }
+        Counter counter = emails.getOrCreate(normalize(email), nowMillis, emailDecayMillis, maxEmailFailures);
+        int failures = counter.increment(nowMillis, emailDecayMillis);
+        if (failures >= maxEmailFailures && counter.lockedUntil.compareAndSet(0, nowMillis + lockDurationMillis)) {
+            return failures;
+        }
+        return 0;
+    }
+
+    public void recordSuccess(String email) {
+        emails.remove(normalize(email));
+    }
+
+    public long lockDurationMillis() {
+        return lockDurationMillis;
+    }
+
+    public Stats stats() {
+        return new Stats(emails.size(), ips.size(),
+                emails.idleEvictions.sum() + ips.idleEvictions.sum(),
+                emails.forcedEvictions.sum() + ips.forcedEvictions.sum(),
+                blocked.sum());
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public enum Decision {
+        ALLOWED, BLOCKED, UNLOCKED
+    }
+
+    public record Stats(int emails, int ips, long idleEvictions, long capacityEvictions, long blocked) {
+    }
+
+    // Failures since the last leak in the low bits, time of that leak in the high bits
+    private static final class Counter {
+
+        final AtomicLong state = new AtomicLong();
+        final AtomicLong lockedUntil = new AtomicLong();
+
+        int increment(long nowMillis, long decayMillis) {
+            while (true) {
+                long current = state.get();
+                long next = leak(current, nowMillis, decayMillis);
+                long count = Math.min((next & COUNT_MASK) + 1, COUNT_MASK);
+                next = (next & ~COUNT_MASK) | count;
+                if (state.compareAndSet(current, next)) {
+                    return (int) count;
+                }
+            }
+        }
+
+        int current(long nowMillis, long decayMillis) {
+            return (int) (leak(state.get(), nowMillis, decayMillis) & COUNT_MASK);
+        }
+
+        boolean isIdle(long nowMillis, long decayMillis) {
+            return lockedUntil.get() <= nowMillis && current(nowMillis, decayMillis) == 0;
+        }
+
+        private static long leak(long state, long nowMillis, long decayMillis) {
+            long count = state & COUNT_MASK;
+            long since = state >>> COUNT_BITS;
+            if (count == 0) {
+                return nowMillis << COUNT_BITS;
+            }
+            long leaked = (nowMillis - since) / decayMillis;
+            if (leaked <= 0) {
+                return state;
+            }
+            if (leaked >= count) {
+                return nowMillis << COUNT_BITS;
+            }
+            // Keep the part of the interval that has not leaked a whole failure yet
+            return ((since + leaked * decayMillis) << COUNT_BITS) | (count - leaked);
+        }
+    }
+
+    private static final class Stripes {
+
+        @SuppressWarnings("unchecked")
+        private final Map<String, Counter>[] stripes = new Map[STRIPES];
+        // Until when each stripe is known to hold nothing but locked counters
+        private final AtomicLongArray fullUntil = new AtomicLongArray(STRIPES);
+        private final int maxPerStripe;
+        private final int lowWater;
+        final LongAdder idleEvictions = new LongAdder();
+        final LongAdder forcedEvictions = new LongAdder();
+
+        Stripes(int maxPerStripe) {
+            this.maxPerStripe = maxPerStripe;
+            this.lowWater = maxPerStripe - Math.max(1, maxPerStripe / 8);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new ConcurrentHashMap<>();
+            }
+        }
+
+        Counter get(String key) {
+            return stripes[stripeIndex(key)].get(key);
+        }
+
+        Counter getOrCreate(String key, long nowMillis, long decayMillis, int threshold) {
+            int index = stripeIndex(key);
+            Map<String, Counter> stripe = stripes[index];
+            Counter counter = stripe.get(key);
+            if (counter != null) {
+                return counter;
+            }
+            if (stripe.size() >= maxPerStripe) {
+                if (nowMillis < fullUntil.get(index) || !evict(stripe, nowMillis, decayMillis, threshold)) {
+                    fullUntil.set(index, Math.max(fullUntil.get(index), nowMillis + FULL_RESCAN_MILLIS));
+                    // Every slot holds a lock: count this attempt without keeping it
+                    return new Counter();
+                }
+            }
+            return stripe.computeIfAbsent(key, k -> new Counter());
+        }
+
+        void remove(String key) {
+            stripes[stripeIndex(key)].remove(key);
+        }
+
+        int size() {
+            int size = 0;
+            for (Map<String, Counter> stripe : stripes) {
+                size += stripe.size();
+            }
+            return size;
+        }
+
+        // Drops idle counters first. If the stripe is still above its low-water mark, drops unlocked
+        // counters, those far from the threshold before those close to it, so a flood of new keys
+        // pushes out the counters that are about to lock last. Locked counters are never evicted.
+        // Returns whether there is room for a new counter.
+        private boolean evict(Map<String, Counter> stripe, long nowMillis, long decayMillis, int threshold) {
+            for (Iterator<Counter> it = stripe.values().iterator(); it.hasNext(); ) {
+                if (it.next().isIdle(nowMillis, decayMillis)) {
+                    it.remove();
+                    idleEvictions.increment();
+                }
+            }
+            for (int below : new int[] {threshold - 1, Integer.MAX_VALUE}) {
+                for (Iterator<Counter> it = stripe.values().iterator(); it.hasNext() && stripe.size() > lowWater; ) {
+                    Counter counter = it.next();
+                    if (counter.lockedUntil.get() <= nowMillis && counter.current(nowMillis, decayMillis) < below) {
+                        it.remove();
+                        forcedEvictions.increment();
+                    }
+                }
+            }
+            return stripe.size() < maxPerStripe;
+        }
+
+        private static int stripeIndex(String key) {
+            int h = key.hashCode();
+            return (h ^ (h >>> 16)) & (STRIPES - 1);
+        }
+    }
+}
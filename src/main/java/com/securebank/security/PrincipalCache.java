@@ -0,0 +1,76 @@
+package com.securebank.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the authenticated subject to a user id without loading the {@code User} entity
+ * (and its eagerly fetched roles). Entries expire after a short TTL, and are evicted as soon as
+ * a user is locked or unlocked, or their row or roles change ({@link UserChangeListener}).
+ */
+@Component
+public class PrincipalCache {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+
+    public PrincipalCache(
+            JdbcTemplate jdbcTemplate,
+            @Value("${application.security.principal-cache.max-size:10000}") int maxSize,
+            @Value("${application.security.principal-cache.ttl:60000}") long ttlMillis
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new SecurityException("No authenticated user");
+        }
+        return userIdOf(authentication.getName());
+    }
+
+    public Long userIdOf(String subject) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(subject);
+        if (entry != null && entry.expiresAtMillis() > now) {
+            return entry.userId();
+        }
+
+        Long userId;
+        try {
+            userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, subject);
+        } catch (EmptyResultDataAccessException e) {
+            throw new SecurityException("No user found for the authenticated subject");
+        }
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(stale -> stale.expiresAtMillis() <= now);
+        }
+        if (entries.size() < maxSize) {
+            entries.put(subject, new Entry(userId, now + ttlMillis));
+        }
+        return userId;
+    }
+
+    public void evict(String subject) {
+        entries.remove(subject);
+    }
+
+    public void evictAll() {
+        entries.clear();
+    }
+
+    private record Entry(Long userId, long expiresAtMillis) {
+    }
+}
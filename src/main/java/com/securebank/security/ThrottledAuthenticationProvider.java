@@ -0,0 +1,126 @@
+package com.securebank.security;
+
+import com.securebank.security.LoginThrottle.Decision;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+
+/**
+ * Puts {@link LoginThrottle} in front of another provider. Blocked attempts are rejected before
+ * the delegate loads the user or hashes the password, and the users row is written only when an
+ * email becomes locked or its lock has run out.
+ */
+@Slf4j
+public class ThrottledAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String LOCK_SQL =
+            "UPDATE users SET account_non_locked = false, failed_attempt = ?, lock_time = ? "
+                    + "WHERE email = ? AND account_non_locked = true";
+
+    // Only locks this provider took expire; one without a lock time was set by hand and stays
+    private static final String UNLOCK_SQL =
+            "UPDATE users SET account_non_locked = true, failed_attempt = 0, lock_time = NULL "
+                    + "WHERE email = ? AND account_non_locked = false AND lock_time <= ?";
+
+    private final AuthenticationProvider delegate;
+    private final LoginThrottle throttle;
+    private final JdbcTemplate jdbcTemplate;
+    private final PrincipalCache principalCache;
+
+    public ThrottledAuthenticationProvider(
+            AuthenticationProvider delegate,
+            LoginThrottle throttle,
+            JdbcTemplate jdbcTemplate,
+            PrincipalCache principalCache
+    ) {
+        this.delegate = delegate;
+        this.throttle = throttle;
+        this.jdbcTemplate = jdbcTemplate;
+        this.principalCache = principalCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String email = authentication.getName();
+        String ip = clientIp(authentication);
+        long now = System.currentTimeMillis();
+
+        Decision decision = throttle.check(email, ip, now);
+        if (decision == Decision.BLOCKED) {
+            throw new LockedException("Too many failed login attempts, try again later");
+        }
+        if (decision == Decision.UNLOCKED) {
+            unlockIfExpired(email, now);
+        }
+
+        try {
+            return authenticateAndRecord(authentication, email, ip, now);
+        } catch (LockedException e) {
+            // Locked on the row but not here, e.g. a lock taken before a restart: clear it if it
+            // has run out and try once more
+            if (unlockIfExpired(email, now)) {
+                return authenticateAndRecord(authentication, email, ip, now);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    private Authentication authenticateAndRecord(Authentication authentication, String email, String ip, long now) {
+        Authentication result;
+        try {
+            result = delegate.authenticate(authentication);
+        } catch (BadCredentialsException e) {
+            int failures = throttle.recordFailure(email, ip, now);
+            if (failures > 0) {
+                lock(email, failures, now);
+            }
+            throw e;
+        }
+        if (result != null) {
+            throttle.recordSuccess(email);
+        }
+        return result;
+    }
+
+    private void lock(String email, int failures, long now) {
+        jdbcTemplate.update(LOCK_SQL, failures, new Timestamp(now), email);
+        principalCache.evict(email);
+        log.info("Locked {} after {} failed login attempts", email, failures);
+    }
+
+    private boolean unlockIfExpired(String email, long now) {
+        if (jdbcTemplate.update(UNLOCK_SQL, email, new Timestamp(now - throttle.lockDurationMillis())) == 0) {
+            return false;
+        }
+        principalCache.evict(email);
+        return true;
+    }
+
+    private static String clientIp(Authentication authentication) {
+        if (authentication.getDetails() instanceof WebAuthenticationDetails details) {
+            return details.getRemoteAddress();
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            return request.getRemoteAddr();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,108 @@
+package com.securebank.security;
+
+import com.securebank.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+
+/**
+ * Evicts a user's {@link PrincipalCache} entry whenever the users row or its roles change through
+ * JPA, e.g. a role grant, disabling or unlocking the user, or a new email. Eviction waits for the
+ * commit, so a request in between cannot cache the old state again. Changes made with plain SQL
+ * (the login throttle's lock) evict for themselves.
+ */
+@Component
+public class UserChangeListener implements PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionUpdateEventListener, PostCollectionRecreateEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final PrincipalCache principalCache;
+
+    public UserChangeListener(EntityManagerFactory entityManagerFactory, PrincipalCache principalCache) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.principalCache = principalCache;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            // The old email too, in case this changed it
+            evictAfterCommit(oldEmail(event.getPersister(), event.getOldState()));
+            evictAfterCommit(user.getEmail());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof User user) {
+            evictAfterCommit(user.getEmail());
+        }
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof User user) {
+            evictAfterCommit(user.getEmail());
+        }
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof User user) {
+            evictAfterCommit(user.getEmail());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void evictAfterCommit(String email) {
+        if (email == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            principalCache.evict(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                principalCache.evict(email);
+            }
+        });
+    }
+
+    private static String oldEmail(EntityPersister persister, Object[] oldState) {
+        int index = Arrays.asList(persister.getPropertyNames()).indexOf("email");
+        return oldState != null && index >= 0 ? (String) oldState[index] : null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.securebank.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of claims whose signature has already been verified, keyed by the SHA-256
+ * digest of the token so raw credentials are never held in memory. An entry never outlives
+ * the token's own expiration.
+ *
+ * Once full, a new entry replaces one picked by a clock hand: entries read since the hand last
+ * passed get a second chance, expired or unread ones are replaced. Each put moves the hand a few
+ * slots on average, so a burst of distinct tokens costs no more than a steady stream.
+ */
+public class VerifiedClaimsCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Clock ring of cached keys; slots, used and hand are guarded by this
+    private final String[] slots;
+    private int used;
+    private int hand;
+    private final long maxTtlMillis;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedClaimsCache(int maxSize, long maxTtlMillis) {
+        this.maxTtlMillis = maxTtlMillis;
+        this.slots = new String[Math.max(0, maxSize)];
+    }
+
+    public String keyOf(String token) {
+        MessageDigest digest = SHA_256.get();
+        return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public Claims get(String key, long nowMillis) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAtMillis() <= nowMillis) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        entry.referenced = true;
+        hits.increment();
+        return entry.claims();
+    }
+
+    public void put(String key, Claims claims, long nowMillis) {
+        long expiresAt = nowMillis + maxTtlMillis;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+        if (expiresAt <= nowMillis || slots.length == 0) {
+            return;
+        }
+        synchronized (this) {
+            Entry existing = entries.get(key);
+            int slot = existing != null ? existing.slot : freeSlot(nowMillis);
+            slots[slot] = key;
+            entries.put(key, new Entry(claims, expiresAt, slot));
+        }
+    }
+
+    // Advances the hand to a slot that can be reused. Every referenced entry it passes loses its
+    // mark, so the hand stops within two turns.
+    private int freeSlot(long nowMillis) {
+        if (used < slots.length) {
+            return used++;
+        }
+        while (true) {
+            int slot = hand;
+            hand = (hand + 1) % slots.length;
+            Entry entry = entries.get(slots[slot]);
+            if (entry == null || entry.slot != slot) {
+                // Removed on read after it expired, or re-cached into another slot
+                return slot;
+            }
+            if (entry.referenced && entry.expiresAtMillis() > nowMillis) {
+                entry.referenced = false;
+                continue;
+            }
+            entries.remove(slots[slot], entry);
+            return slot;
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final Claims claims;
+        private final long expiresAtMillis;
+        private final int slot;
+        private volatile boolean referenced;
+
+        private Entry(Claims claims, long expiresAtMillis, int slot) {
+            this.claims = claims;
+            this.expiresAtMillis = expiresAtMillis;
+            this.slot = slot;
+        }
+
+        private Claims claims() {
+            return claims;
+        }
+
+        private long expiresAtMillis() {
+            return expiresAtMillis;
+        }
+    }
+}
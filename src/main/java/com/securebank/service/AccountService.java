@@ -1,4 +1,4 @@
-package banking.system.src.main.java.com.securebank.service;
+package com.securebank.service;
 
 import com.securebank.dto.AccountDTO;
 import com.securebank.dto.CreateAccountRequest;
@@ -7,7 +7,11 @@ import java.util.List;
 public interface AccountService {
     List<AccountDTO> getCurrentUserAccounts();
     AccountDTO getAccountById(Long id);
+    String getCurrentUserAccountsETag();
+    String getAccountETag(Long id);
     AccountDTO createAccount(CreateAccountRequest request);
     AccountDTO activateAccount(Long id);
     AccountDTO deactivateAccount(Long id);
+    AccountDTO enableHotMode(Long id);
+    AccountDTO disableHotMode(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.securebank.service;
+
+import com.securebank.dto.TransactionDTO;
+
+import java.util.function.Function;
+
+public interface IdempotencyService {
+    // The action must post under the reference number it is given, so an execution interrupted
+    // before its outcome was recorded can be found again
+    TransactionDTO execute(String idempotencyKey, String operation, Object request, Function<String, TransactionDTO> action);
+}
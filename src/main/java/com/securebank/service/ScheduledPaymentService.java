@@ -0,0 +1,11 @@
+package com.securebank.service;
+
+import com.securebank.dto.ScheduledPaymentDTO;
+import com.securebank.dto.ScheduledPaymentRequest;
+import java.util.List;
+
+public interface ScheduledPaymentService {
+    ScheduledPaymentDTO schedule(ScheduledPaymentRequest request);
+    List<ScheduledPaymentDTO> getCurrentUserSchedules();
+    ScheduledPaymentDTO cancel(Long id);
+}
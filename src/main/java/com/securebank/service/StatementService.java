@@ -0,0 +1,11 @@
+package com.securebank.service;
+
+import com.securebank.dto.StatementDTO;
+import com.securebank.dto.StatementTotalDTO;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface StatementService {
+    StatementDTO getStatement(Long accountId, LocalDate from, LocalDate to);
+    List<StatementTotalDTO> getSummary(Long accountId, LocalDate from, LocalDate to, String groupBy);
+}
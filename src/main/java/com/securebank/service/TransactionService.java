@@ -1,13 +1,46 @@
 package com.securebank.service;
 
 import com.securebank.dto.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TransactionService {
     List<TransactionDTO> getTransactionsByAccountId(Long accountId, Integer page, Integer size);
+    TransactionPageDTO getTransactionHistory(Long accountId, String cursor, Integer size);
+    String getTransactionsETag(Long accountId);
+    // Checks access when called, so a refused export fails before the response starts
+    TransactionExport exportTransactions(Long accountId);
+    // Checks access, then turns the request into an open stream; the caller writes nothing more
+    void streamTransactions(Long accountId, HttpServletRequest request, HttpServletResponse response) throws IOException;
     TransactionDTO deposit(DepositRequest request);
     TransactionDTO withdraw(WithdrawRequest request);
     TransactionDTO transfer(TransferRequest request);
     TransactionDTO payment(PaymentRequest request);
+    // Post under a reference allocated by the caller, e.g. one an idempotency record already holds;
+    // for a transfer it is the reference of the returned (outgoing) leg
+    TransactionDTO deposit(DepositRequest request, String referenceNumber);
+    TransactionDTO withdraw(WithdrawRequest request, String referenceNumber);
+    TransactionDTO transfer(TransferRequest request, String referenceNumber);
+    TransactionDTO payment(PaymentRequest request, String referenceNumber);
+    // Empty if nothing has been posted under the reference
+    Optional<TransactionDTO> findByReferenceNumber(String referenceNumber);
+    // Payments made on users' behalf, e.g. by the scheduler, each posted independently under its
+    // own unique reference. Returns, per payment, null if it was made or why it was refused (funds,
+    // velocity, access); any other failure throws
+    String[] scheduledPayments(List<ScheduledPaymentOrder> payments);
+    BulkTransactionResultDTO bulk(BulkTransactionRequest request);
     TransactionDTO getTransactionById(Long transactionId);
+
+    @FunctionalInterface
+    interface TransactionExport {
+        void writeTo(Consumer<TransactionDTO> consumer);
+    }
+
+    record ScheduledPaymentOrder(Long userId, String referenceNumber, PaymentRequest request) {
+    }
 }
\ No newline at end of file
@@ -3,19 +3,24 @@ package com.securebank.service.impl;
 import com.securebank.dto.AccountDTO;
 import com.securebank.dto.CreateAccountRequest;
 import com.securebank.exception.ResourceNotFoundException;
+import com.securebank.ledger.AccountVersions;
+import com.securebank.ledger.HotAccountManager;
 import com.securebank.model.Account;
 import com.securebank.model.User;
+import com.securebank.money.Money;
+import com.securebank.repository.AccountListRepository;
 import com.securebank.repository.AccountRepository;
+import com.securebank.repository.AccountRow;
 import com.securebank.repository.UserRepository;
+import com.securebank.security.AccountOwnershipIndex;
+import com.securebank.security.PrincipalCache;
 import com.securebank.service.AccountService;
-import com.securebank.util.SecurityUtils;
+import com.securebank.util.IdGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,44 +28,64 @@ import java.util.stream.Collectors;
 public class AccountServiceImpl implements AccountService {
     
     private final AccountRepository accountRepository;
+    private final AccountListRepository accountListRepository;
     private final UserRepository userRepository;
-    private final SecurityUtils securityUtils;
+    private final PrincipalCache principalCache;
+    private final AccountOwnershipIndex ownershipIndex;
+    private final IdGenerator idGenerator;
+    private final HotAccountManager hotAccountManager;
+    private final AccountVersions accountVersions;
     
     @Override
+    @Transactional(readOnly = true)
     public List<AccountDTO> getCurrentUserAccounts() {
-        User currentUser = securityUtils.getCurrentUser();
-        return accountRepository.findByUserId(currentUser.getId()).stream()
+        return accountListRepository.findRowsByUserId(principalCache.currentUserId()).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
     
     @Override
+    @Transactional(readOnly = true)
     public AccountDTO getAccountById(Long id) {
-        User currentUser = securityUtils.getCurrentUser();
-        Account account = accountRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + id));
-        
         // Security check - users can only access their own accounts
-        if (!account.getUser().getId().equals(currentUser.getId())) {
-            throw new SecurityException("You don't have permission to access this account");
-        }
+        ownershipIndex.checkOwner(id, principalCache.currentUserId(),
+                "You don't have permission to access this account");
         
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + id));
         return mapToDTO(account);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public String getCurrentUserAccountsETag() {
+        return accountVersions.userETag(principalCache.currentUserId());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public String getAccountETag(Long id) {
+        // Same check as getAccountById, so a 304 never reveals anything the caller may not read
+        ownershipIndex.checkOwner(id, principalCache.currentUserId(),
+                "You don't have permission to access this account");
+        return accountVersions.accountETag(id);
+    }
+    
     @Override
     @Transactional
     public AccountDTO createAccount(CreateAccountRequest request) {
-        User currentUser = securityUtils.getCurrentUser();
+        Long currentUserId = principalCache.currentUserId();
+        User currentUser = userRepository.getReferenceById(currentUserId);
         
         Account account = new Account();
         account.setAccountNumber(generateAccountNumber());
         account.setAccountType(Account.AccountType.valueOf(request.getAccountType()));
-        account.setBalance(BigDecimal.ZERO);
+        account.setBalance(Money.ZERO);
         account.setActive(true);
         account.setUser(currentUser);
         
         Account savedAccount = accountRepository.save(account);
+        ownershipIndex.register(savedAccount.getId(), currentUserId);
         return mapToDTO(savedAccount);
     }
     
@@ -70,6 +95,7 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + id));
         account.setActive(true);
+        accountVersions.changed(id);
         return mapToDTO(accountRepository.save(account));
     }
     
@@ -79,11 +105,30 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + id));
         account.setActive(false);
+        accountVersions.changed(id);
         return mapToDTO(accountRepository.save(account));
     }
     
-    private String generateAccountNumber() {
-        return UUID.randomUUID().toString().replaceAll("-", "").substring(0, 10);
+    @Override
+    public AccountDTO enableHotMode(Long id) {
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + id));
+        hotAccountManager.enable(id);
+        account.setHot(true);
+        return mapToDTO(account);
+    }
+    
+    @Override
+    public AccountDTO disableHotMode(Long id) {
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + id));
+        hotAccountManager.disable(id);
+        account.setHot(false);
+        return mapToDTO(account);
+    }
+    
+    String generateAccountNumber() {
+        return idGenerator.nextAccountNumber();
     }
     
     private AccountDTO mapToDTO(Account account) {
@@ -91,9 +136,23 @@ public class AccountServiceImpl implements AccountService {
         dto.setId(account.getId());
         dto.setAccountNumber(account.getAccountNumber());
         dto.setAccountType(account.getAccountType().name());
-        dto.setBalance(account.getBalance());
+        // Hot accounts keep part of their balance in slots, so sum them for an exact figure
+        dto.setBalance(account.isHot()
+                ? hotAccountManager.balanceOf(account.getId())
+                : account.getBalance());
         dto.setActive(account.isActive());
         dto.setCreatedAt(account.getCreatedAt());
         return dto;
     }
+    
+    private AccountDTO mapToDTO(AccountRow row) {
+        AccountDTO dto = new AccountDTO();
+        dto.setId(row.getId());
+        dto.setAccountNumber(row.getAccountNumber());
+        dto.setAccountType(row.getAccountType().name());
+        dto.setBalance(row.isHot() ? hotAccountManager.balanceOf(row.getId()) : row.getBalance());
+        dto.setActive(row.isActive());
+        dto.setCreatedAt(row.getCreatedAt());
+        return dto;
+    }
 }
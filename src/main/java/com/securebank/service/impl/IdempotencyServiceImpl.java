@@ -0,0 +1,278 @@
+package com.securebank.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securebank.dto.TransactionDTO;
+import com.securebank.model.IdempotencyRecord;
+import com.securebank.repository.IdempotencyRecordRepository;
+import com.securebank.security.PrincipalCache;
+import com.securebank.service.IdempotencyService;
+import com.securebank.service.TransactionService;
+import com.securebank.util.IdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Two-tier idempotency store. The in-memory tier holds a future per (user, key): concurrent
+ * duplicates on this node wait on the first execution, and replays within the TTL are served
+ * without touching the database. The idempotency_keys table is the durable tier; a PENDING row
+ * is claimed before executing, so duplicates arriving on another node (or after a restart) are
+ * either replayed from the stored response or rejected while the original is still running.
+ *
+ * The PENDING row also holds the reference number the action posts under. A PENDING row whose
+ * posting exists (e.g. the COMPLETED save failed) is completed from the transactions table; one
+ * with no posting after application.idempotency.pending-timeout was abandoned by a crash, and the
+ * next duplicate takes it over and runs the action under the same reference.
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final PrincipalCache principalCache;
+    private final TransactionService transactionService;
+    private final IdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long memoryTtlMillis;
+    private final long retentionMillis;
+    private final long pendingTimeoutMillis;
+
+    public IdempotencyServiceImpl(
+            IdempotencyRecordRepository recordRepository,
+            PrincipalCache principalCache,
+            TransactionService transactionService,
+            IdGenerator idGenerator,
+            ObjectMapper objectMapper,
+            @Value("${application.idempotency.max-entries:100000}") int maxEntries,
+            @Value("${application.idempotency.memory-ttl:600000}") long memoryTtlMillis,
+            @Value("${application.idempotency.retention:86400000}") long retentionMillis,
+            @Value("${application.idempotency.pending-timeout:60000}") long pendingTimeoutMillis
+    ) {
+        this.recordRepository = recordRepository;
+        this.principalCache = principalCache;
+        this.transactionService = transactionService;
+        this.idGenerator = idGenerator;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.memoryTtlMillis = memoryTtlMillis;
+        this.retentionMillis = retentionMillis;
+        this.pendingTimeoutMillis = pendingTimeoutMillis;
+    }
+
+    @Override
+    public TransactionDTO execute(String idempotencyKey, String operation, Object request,
+                                  Function<String, TransactionDTO> action) {
+        if (idempotencyKey == null) {
+            return action.apply(idGenerator.nextReferenceNumber());
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Long userId = principalCache.currentUserId();
+        String requestHash = fingerprint(operation, request);
+        String cacheKey = userId + ":" + idempotencyKey;
+
+        Entry candidate = new Entry(requestHash, new CompletableFuture<>());
+        Entry existing = entries.putIfAbsent(cacheKey, candidate);
+        while (existing != null && existing.isExpired(System.currentTimeMillis())) {
+            entries.remove(cacheKey, existing);
+            existing = entries.putIfAbsent(cacheKey, candidate);
+        }
+        if (existing != null) {
+            // Replay, or a concurrent duplicate that collapses onto the execution in flight
+            checkSameRequest(existing.requestHash(), requestHash);
+            return await(existing.result());
+        }
+
+        try {
+            TransactionDTO result = executeOnce(userId, idempotencyKey, operation, requestHash, action);
+            candidate.complete(result, System.currentTimeMillis() + memoryTtlMillis);
+            if (entries.size() > maxEntries) {
+                // Over budget: drop it from memory, the table still answers replays
+                entries.remove(cacheKey, candidate);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(cacheKey, candidate);
+            candidate.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private TransactionDTO executeOnce(Long userId, String idempotencyKey, String operation, String requestHash,
+                                       Function<String, TransactionDTO> action) {
+        Optional<IdempotencyRecord> stored = recordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+        if (stored.isPresent()) {
+            IdempotencyRecord record = stored.get();
+            checkSameRequest(record.getRequestHash(), requestHash);
+            if (record.getStatus() == IdempotencyRecord.Status.PENDING) {
+                return resumePending(record, action);
+            }
+            return readResponse(record.getResponse());
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setUserId(userId);
+        record.setIdempotencyKey(idempotencyKey);
+        record.setOperation(operation);
+        record.setRequestHash(requestHash);
+        record.setReferenceNumber(idGenerator.nextReferenceNumber());
+        record.setStatus(IdempotencyRecord.Status.PENDING);
+        try {
+            record = recordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            throw stillProcessing();
+        }
+        return run(record, action);
+    }
+
+    private TransactionDTO run(IdempotencyRecord record, Function<String, TransactionDTO> action) {
+        TransactionDTO result;
+        try {
+            result = action.apply(record.getReferenceNumber());
+        } catch (RuntimeException e) {
+            // Failures are not remembered, so the client may retry with the same key
+            recordRepository.delete(record);
+            throw e;
+        }
+        complete(record, result);
+        return result;
+    }
+
+    private TransactionDTO resumePending(IdempotencyRecord record, Function<String, TransactionDTO> action) {
+        if (record.getReferenceNumber() == null) {
+            throw stillProcessing();
+        }
+        Optional<TransactionDTO> posted = transactionService.findByReferenceNumber(record.getReferenceNumber());
+        if (posted.isPresent()) {
+            complete(record, posted.get());
+            return posted.get();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (record.getCreatedAt().isAfter(now.minus(Duration.ofMillis(pendingTimeoutMillis)))) {
+            throw stillProcessing();
+        }
+        // Only one duplicate wins the takeover; the others see the restarted clock
+        if (recordRepository.reclaim(record.getId(), IdempotencyRecord.Status.PENDING, record.getCreatedAt(), now) == 0) {
+            throw stillProcessing();
+        }
+        log.warn("Taking over idempotency key {} of user {}, abandoned without a posting since {}",
+                record.getIdempotencyKey(), record.getUserId(), record.getCreatedAt());
+        record.setCreatedAt(now);
+        return run(record, action);
+    }
+
+    private void complete(IdempotencyRecord record, TransactionDTO result) {
+        record.setStatus(IdempotencyRecord.Status.COMPLETED);
+        record.setResponse(writeResponse(result));
+        recordRepository.save(record);
+    }
+
+    private static ResponseStatusException stillProcessing() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+    }
+
+    @Scheduled(fixedDelayString = "${application.idempotency.purge-interval:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        int deleted = recordRepository.deleteCreatedBefore(LocalDateTime.now().minus(Duration.ofMillis(retentionMillis)));
+        if (deleted > 0) {
+            log.debug("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private void checkSameRequest(String expectedHash, String requestHash) {
+        if (!expectedHash.equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request");
+        }
+    }
+
+    private TransactionDTO await(CompletableFuture<TransactionDTO> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String writeResponse(TransactionDTO result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store idempotent response", e);
+        }
+    }
+
+    private TransactionDTO readResponse(String response) {
+        try {
+            return objectMapper.readValue(response, TransactionDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored idempotent response", e);
+        }
+    }
+
+    private static final class Entry {
+        private final String requestHash;
+        private final CompletableFuture<TransactionDTO> result;
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        Entry(String requestHash, CompletableFuture<TransactionDTO> result) {
+            this.requestHash = requestHash;
+            this.result = result;
+        }
+
+        String requestHash() {
+            return requestHash;
+        }
+
+        CompletableFuture<TransactionDTO> result() {
+            return result;
+        }
+
+        void complete(TransactionDTO value, long expiresAtMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+            result.complete(value);
+        }
+
+        boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+}
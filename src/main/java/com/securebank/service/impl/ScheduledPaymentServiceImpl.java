@@ -0,0 +1,128 @@
+package com.securebank.service.impl;
+
+import com.securebank.dto.ScheduledPaymentDTO;
+import com.securebank.dto.ScheduledPaymentRequest;
+import com.securebank.exception.ResourceNotFoundException;
+import com.securebank.model.ScheduledPayment;
+import com.securebank.payment.ScheduledPaymentEngine;
+import com.securebank.repository.ScheduledPaymentRepository;
+import com.securebank.security.AccountOwnershipIndex;
+import com.securebank.security.PrincipalCache;
+import com.securebank.service.ScheduledPaymentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ScheduledPaymentServiceImpl implements ScheduledPaymentService {
+    
+    private static final Duration FIRST_RUN_GRACE = Duration.ofMinutes(1);
+    
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final PrincipalCache principalCache;
+    private final AccountOwnershipIndex ownershipIndex;
+    private final ScheduledPaymentEngine scheduledPaymentEngine;
+    
+    @Override
+    @Transactional
+    public ScheduledPaymentDTO schedule(ScheduledPaymentRequest request) {
+        Long currentUserId = principalCache.currentUserId();
+        
+        // Security check
+        ownershipIndex.checkOwner(request.getAccountId(), currentUserId,
+                "You don't have permission to make payments from this account");
+        
+        // Validate request
+        if (request.getAmount() == null || !request.getAmount().isPositive()) {
+            throw new IllegalArgumentException("Payment amount must be positive");
+        }
+        if (request.getFirstRunAt() == null) {
+            throw new IllegalArgumentException("First run time is required");
+        }
+        // A past first run would be paid at once, and a recurring one once per missed occurrence;
+        // the grace only absorbs clock skew of a "pay now" schedule
+        if (request.getFirstRunAt().isBefore(LocalDateTime.now().minus(FIRST_RUN_GRACE))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "First run time must not be in the past");
+        }
+        if (request.getEndAt() != null && request.getEndAt().isBefore(request.getFirstRunAt())) {
+            throw new IllegalArgumentException("End time must not be before the first run time");
+        }
+        ScheduledPayment.Recurrence recurrence;
+        try {
+            recurrence = request.getRecurrence() != null
+                    ? ScheduledPayment.Recurrence.valueOf(request.getRecurrence().toUpperCase())
+                    : ScheduledPayment.Recurrence.ONCE;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported recurrence: " + request.getRecurrence());
+        }
+        
+        ScheduledPayment payment = new ScheduledPayment();
+        payment.setUserId(currentUserId);
+        payment.setAccountId(request.getAccountId());
+        payment.setAmount(request.getAmount());
+        payment.setDescription(request.getDescription());
+        payment.setCategory(request.getCategory());
+        payment.setMerchantName(request.getMerchantName());
+        payment.setRecurrence(recurrence);
+        payment.setFirstRunAt(request.getFirstRunAt());
+        payment.setNextRunAt(request.getFirstRunAt());
+        payment.setEndAt(request.getEndAt());
+        
+        ScheduledPayment saved = scheduledPaymentRepository.save(payment);
+        scheduledPaymentEngine.scheduled(saved.getId(), saved.getNextRunAt());
+        return mapToDTO(saved);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<ScheduledPaymentDTO> getCurrentUserSchedules() {
+        return scheduledPaymentRepository.findByUserIdOrderByNextRunAt(principalCache.currentUserId()).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    @Transactional
+    public ScheduledPaymentDTO cancel(Long id) {
+        ScheduledPayment payment = scheduledPaymentRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Scheduled payment not found with id: " + id));
+        
+        // Security check - users can only cancel their own schedules
+        if (!payment.getUserId().equals(principalCache.currentUserId())) {
+            throw new SecurityException("You don't have permission to cancel this scheduled payment");
+        }
+        
+        if (payment.getStatus() == ScheduledPayment.Status.ACTIVE) {
+            payment.setStatus(ScheduledPayment.Status.CANCELLED);
+        }
+        return mapToDTO(scheduledPaymentRepository.save(payment));
+    }
+    
+    private ScheduledPaymentDTO mapToDTO(ScheduledPayment payment) {
+        ScheduledPaymentDTO dto = new ScheduledPaymentDTO();
+        dto.setId(payment.getId());
+        dto.setAccountId(payment.getAccountId());
+        dto.setAmount(payment.getAmount());
+        dto.setDescription(payment.getDescription());
+        dto.setCategory(payment.getCategory());
+        dto.setMerchantName(payment.getMerchantName());
+        dto.setRecurrence(payment.getRecurrence().name());
+        dto.setFirstRunAt(payment.getFirstRunAt());
+        dto.setNextRunAt(payment.getNextRunAt());
+        dto.setEndAt(payment.getEndAt());
+        dto.setRuns(payment.getRuns());
+        dto.setFailures(payment.getFailures());
+        dto.setLastRunAt(payment.getLastRunAt());
+        dto.setLastError(payment.getLastError());
+        dto.setStatus(payment.getStatus().name());
+        return dto;
+    }
+}
@@ -0,0 +1,100 @@
+package com.securebank.service.impl;
+
+import com.securebank.dto.StatementDTO;
+import com.securebank.dto.StatementTotalDTO;
+import com.securebank.model.AccountDailyTotal.Dimension;
+import com.securebank.money.Money;
+import com.securebank.repository.DailySnapshotRepository;
+import com.securebank.security.AccountOwnershipIndex;
+import com.securebank.security.PrincipalCache;
+import com.securebank.service.StatementService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Statements and spending summaries served from account_daily_totals. The snapshot rows are
+ * written in the same transaction as the ledger postings, including today's, so any range of
+ * whole days is answered from at most one row per day and dimension key without reading raw
+ * transactions.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatementServiceImpl implements StatementService {
+
+    private final DailySnapshotRepository dailySnapshotRepository;
+    private final PrincipalCache principalCache;
+    private final AccountOwnershipIndex ownershipIndex;
+
+    // Repeatable read, so the closing balance and the range totals come from the same snapshot
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public StatementDTO getStatement(Long accountId, LocalDate from, LocalDate to) {
+        // Security check - users can only access their own accounts' statements
+        ownershipIndex.checkOwner(accountId, principalCache.currentUserId(),
+                "You don't have permission to access statements for this account");
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.withDayOfMonth(1);
+        checkRange(start, end);
+
+        Map<Dimension, List<StatementTotalDTO>> totals = dailySnapshotRepository.totals(accountId, start, end);
+        Money credits = Money.ZERO;
+        Money debits = Money.ZERO;
+        long count = 0;
+        for (StatementTotalDTO total : totals.get(Dimension.ALL)) {
+            credits = credits.plus(total.getCredits());
+            debits = debits.plus(total.getDebits());
+            count += total.getCount();
+        }
+
+        Money closingBalance = dailySnapshotRepository.balanceAtEndOf(accountId, end);
+        Money openingBalance = closingBalance.minus(credits).minus(debits);
+
+        return new StatementDTO(
+                accountId,
+                start,
+                end,
+                openingBalance,
+                closingBalance,
+                credits,
+                debits,
+                count,
+                totals.get(Dimension.TYPE),
+                totals.get(Dimension.CATEGORY),
+                totals.get(Dimension.MERCHANT));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StatementTotalDTO> getSummary(Long accountId, LocalDate from, LocalDate to, String groupBy) {
+        // Security check - users can only access their own accounts' statements
+        ownershipIndex.checkOwner(accountId, principalCache.currentUserId(),
+                "You don't have permission to access statements for this account");
+
+        Dimension dimension;
+        try {
+            dimension = Dimension.valueOf((groupBy != null ? groupBy : "category").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported summary grouping: " + groupBy);
+        }
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.withDayOfMonth(1);
+        checkRange(start, end);
+
+        return dailySnapshotRepository.totals(accountId, start, end).get(dimension);
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Statement start date must not be after its end date");
+        }
+    }
+}
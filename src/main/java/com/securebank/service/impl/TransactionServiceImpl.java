@@ -1,79 +1,204 @@
 package com.securebank.service.impl;
 
+import com.securebank.archive.ArchivedTransaction;
+import com.securebank.archive.TransactionArchiveStore;
 import com.securebank.dto.*;
-import com.securebank.exception.InsufficientFundsException;
 import com.securebank.exception.ResourceNotFoundException;
+import com.securebank.feed.TransactionFeed;
+import com.securebank.fraud.VelocityEngine;
+import com.securebank.fraud.VelocityEngine.Reservation;
+import com.securebank.fraud.VelocityLimitExceededException;
+import com.securebank.ledger.AccountVersions;
+import com.securebank.ledger.LedgerEngine;
+import com.securebank.ledger.LedgerEntry;
 import com.securebank.model.Account;
 import com.securebank.model.Transaction;
-import com.securebank.model.User;
+import com.securebank.money.Money;
 import com.securebank.repository.AccountRepository;
+import com.securebank.repository.TransactionExportRepository;
+import com.securebank.repository.TransactionHistoryRepository;
+import com.securebank.repository.TransactionListRepository;
 import com.securebank.repository.TransactionRepository;
+import com.securebank.repository.TransactionRow;
+import com.securebank.security.AccountOwnershipIndex;
+import com.securebank.security.PrincipalCache;
 import com.securebank.service.TransactionService;
-import com.securebank.util.SecurityUtils;
+import com.securebank.util.IdGenerator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
     
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    
     private final TransactionRepository transactionRepository;
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final TransactionListRepository transactionListRepository;
+    private final TransactionExportRepository transactionExportRepository;
     private final AccountRepository accountRepository;
-    private final SecurityUtils securityUtils;
+    private final PrincipalCache principalCache;
+    private final AccountOwnershipIndex ownershipIndex;
+    private final LedgerEngine ledgerEngine;
+    private final VelocityEngine velocityEngine;
+    private final AccountVersions accountVersions;
+    private final TransactionArchiveStore archiveStore;
+    private final TransactionFeed transactionFeed;
+    private final IdGenerator idGenerator;
+    
+    @Value("${application.bulk.max-items:50000}")
+    private int maxBulkItems;
     
     @Override
+    @Transactional(readOnly = true)
     public List<TransactionDTO> getTransactionsByAccountId(Long accountId, Integer page, Integer size) {
-        User currentUser = securityUtils.getCurrentUser();
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + accountId));
-        
         // Security check - users can only access their own accounts' transactions
-        if (!account.getUser().getId().equals(currentUser.getId())) {
-            throw new SecurityException("You don't have permission to access transactions for this account");
-        }
+        ownershipIndex.checkOwner(accountId, principalCache.currentUserId(),
+                "You don't have permission to access transactions for this account");
         
+        // Newest first; the order is part of the query
         Pageable pageable = PageRequest.of(
                 page != null ? page : 0,
-                size != null ? size : 20,
-                Sort.by("timestamp").descending()
+                size != null ? size : 20
         );
         
-        return transactionRepository.findByAccountId(accountId, pageable).stream()
+        List<TransactionDTO> transactions = transactionListRepository.findRowsByAccountId(accountId, pageable).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
+        if (transactions.size() == pageable.getPageSize() || archiveStore.isEmpty()) {
+            return transactions;
+        }
+        
+        // Archived rows are all older than live ones, so a short page continues into the archive
+        long liveCount = transactions.isEmpty() && pageable.getOffset() > 0
+                ? transactionListRepository.countByAccountId(accountId)
+                : pageable.getOffset() + transactions.size();
+        long skip = Math.max(0, pageable.getOffset() - liveCount);
+        archiveStore.findByAccountId(accountId, skip, pageable.getPageSize() - transactions.size())
+                .forEach(row -> transactions.add(row.toDTO()));
+        return transactions;
     }
     
     @Override
-    @Transactional
-    public TransactionDTO deposit(DepositRequest request) {
-        User currentUser = securityUtils.getCurrentUser();
-        Account account = accountRepository.findById(request.getAccountId())
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + request.getAccountId()));
+    @Transactional(readOnly = true)
+    public TransactionPageDTO getTransactionHistory(Long accountId, String cursor, Integer size) {
+        // Security check - users can only access their own accounts' transactions
+        ownershipIndex.checkOwner(accountId, principalCache.currentUserId(),
+                "You don't have permission to access transactions for this account");
         
-        // Security check
-        if (!account.getUser().getId().equals(currentUser.getId())) {
-            throw new SecurityException("You don't have permission to deposit to this account");
+        int pageSize = Math.min(size != null && size > 0 ? size : 20, MAX_HISTORY_PAGE_SIZE);
+        // Fetch one extra row to learn whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        
+        TransactionCursor position = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+        List<TransactionDTO> transactions = (position == null
+                ? transactionHistoryRepository.findLatest(accountId, limit)
+                : transactionHistoryRepository.findBefore(accountId, position.timestamp(), position.id(), limit))
+                .stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+        
+        // Archived rows are all older than live ones, so a short page continues into the archive
+        // from its last row; that also skips rows of a partition archived since they were read
+        if (transactions.size() <= pageSize) {
+            if (!transactions.isEmpty()) {
+                TransactionDTO last = transactions.get(transactions.size() - 1);
+                position = new TransactionCursor(last.getTimestamp(), last.getId());
+            }
+            archiveStore.findBefore(accountId,
+                            position != null ? position.timestamp() : null,
+                            position != null ? position.id() : null,
+                            pageSize + 1 - transactions.size())
+                    .forEach(row -> transactions.add(row.toDTO()));
         }
         
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            TransactionDTO last = transactions.get(pageSize - 1);
+            nextCursor = new TransactionCursor(last.getTimestamp(), last.getId()).encode();
+            return new TransactionPageDTO(transactions.subList(0, pageSize), nextCursor);
+        }
+        return new TransactionPageDTO(transactions, nextCursor);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public String getTransactionsETag(Long accountId) {
+        // Same check as the list endpoints, so a 304 never reveals anything the caller may not read
+        ownershipIndex.checkOwner(accountId, principalCache.currentUserId(),
+                "You don't have permission to access transactions for this account");
+        return accountVersions.accountETag(accountId);
+    }
+    
+    @Override
+    public void streamTransactions(Long accountId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        // Security check - users can only access their own accounts' transactions
+        ownershipIndex.checkOwner(accountId, principalCache.currentUserId(),
+                "You don't have permission to access transactions for this account");
+        transactionFeed.subscribe(accountId, request, response);
+    }
+    
+    @Override
+    public TransactionExport exportTransactions(Long accountId) {
+        // Security check - users can only access their own accounts' transactions
+        ownershipIndex.checkOwner(accountId, principalCache.currentUserId(),
+                "You don't have permission to access transactions for this account");
+        
+        // The archive continues after the last live row, as in the history
+        return consumer -> {
+            TransactionDTO[] last = new TransactionDTO[1];
+            transactionExportRepository.streamByAccountId(accountId, dto -> {
+                last[0] = dto;
+                consumer.accept(dto);
+            });
+            archiveStore.forEachBefore(accountId,
+                    last[0] != null ? last[0].getTimestamp() : null,
+                    last[0] != null ? last[0].getId() : null,
+                    row -> consumer.accept(row.toDTO()));
+        };
+    }
+    
+    @Override
+    public TransactionDTO deposit(DepositRequest request) {
+        return deposit(request, generateReferenceNumber());
+    }
+    
+    @Override
+    public TransactionDTO deposit(DepositRequest request, String referenceNumber) {
+        // Security check
+        ownershipIndex.checkOwner(request.getAccountId(), principalCache.currentUserId(),
+                "You don't have permission to deposit to this account");
+        Account account = accountRepository.getReferenceById(request.getAccountId());
+        
         // Validate amount
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        Money amount = request.getAmount();
+        if (amount == null || !amount.isPositive()) {
             throw new IllegalArgumentException("Deposit amount must be positive");
         }
         
         // Create transaction
         Transaction transaction = new Transaction();
-        transaction.setReferenceNumber(generateReferenceNumber());
+        transaction.setReferenceNumber(referenceNumber);
         transaction.setType(Transaction.TransactionType.DEPOSIT);
-        transaction.setAmount(request.getAmount());
+        transaction.setAmount(amount);
         transaction.setDescription(request.getDescription());
         transaction.setCategory("Deposit");
         transaction.setMerchantName(request.getMerchantName());
@@ -81,133 +206,366 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
         
         // Update account balance
-        account.setBalance(account.getBalance().add(request.getAmount()));
-        accountRepository.save(account);
-        
-        Transaction savedTransaction = transactionRepository.save(transaction);
+        Transaction savedTransaction = ledgerEngine.post(LedgerEntry.credit(transaction)).get(0);
         return mapToDTO(savedTransaction);
     }
     
     @Override
-    @Transactional
     public TransactionDTO withdraw(WithdrawRequest request) {
-        User currentUser = securityUtils.getCurrentUser();
-        Account account = accountRepository.findById(request.getAccountId())
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + request.getAccountId()));
+        return withdraw(request, generateReferenceNumber());
+    }
+    
+    @Override
+    public TransactionDTO withdraw(WithdrawRequest request, String referenceNumber) {
+        Long currentUserId = principalCache.currentUserId();
         
         // Security check
-        if (!account.getUser().getId().equals(currentUser.getId())) {
-            throw new SecurityException("You don't have permission to withdraw from this account");
-        }
+        ownershipIndex.checkOwner(request.getAccountId(), currentUserId,
+                "You don't have permission to withdraw from this account");
+        Account account = accountRepository.getReferenceById(request.getAccountId());
         
         // Validate amount
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        Money amount = request.getAmount();
+        if (amount == null || !amount.isPositive()) {
             throw new IllegalArgumentException("Withdrawal amount must be positive");
         }
         
-        // Check sufficient funds
-        if (account.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientFundsException("Insufficient funds for withdrawal");
-        }
-        
         // Create transaction
         Transaction transaction = new Transaction();
-        transaction.setReferenceNumber(generateReferenceNumber());
+        transaction.setReferenceNumber(referenceNumber);
         transaction.setType(Transaction.TransactionType.WITHDRAWAL);
-        transaction.setAmount(request.getAmount().negate());
+        transaction.setAmount(amount.negate());
         transaction.setDescription(request.getDescription());
         transaction.setCategory("Withdrawal");
         transaction.setMerchantName(request.getMerchantName());
         transaction.setAccount(account);
         transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
         
-        // Update account balance
-        account.setBalance(account.getBalance().subtract(request.getAmount()));
-        accountRepository.save(account);
-        
-        Transaction savedTransaction = transactionRepository.save(transaction);
+        // Velocity limits, then check sufficient funds and update account balance
+        Reservation reservation = velocityEngine.reserve(currentUserId, request.getAccountId(), amount);
+        Transaction savedTransaction;
+        try {
+            savedTransaction = ledgerEngine.post(
+                    LedgerEntry.debit(transaction, "Insufficient funds for withdrawal")).get(0);
+        } catch (RuntimeException e) {
+            velocityEngine.release(reservation);
+            throw e;
+        }
         return mapToDTO(savedTransaction);
     }
     
     @Override
-    @Transactional
     public TransactionDTO transfer(TransferRequest request) {
-        User currentUser = securityUtils.getCurrentUser();
-        
-        // Get source account
-        Account sourceAccount = accountRepository.findById(request.getSourceAccountId())
-                .orElseThrow(() -> new ResourceNotFoundException("Source account not found with id: " + request.getSourceAccountId()));
+        return transfer(request, generateReferenceNumber());
+    }
+    
+    @Override
+    public TransactionDTO transfer(TransferRequest request, String referenceNumber) {
+        Long currentUserId = principalCache.currentUserId();
         
         // Security check for source account
-        if (!sourceAccount.getUser().getId().equals(currentUser.getId())) {
+        Long sourceOwnerId = ownershipIndex.ownerOf(request.getSourceAccountId());
+        if (sourceOwnerId == null) {
+            throw new ResourceNotFoundException("Source account not found with id: " + request.getSourceAccountId());
+        }
+        if (!sourceOwnerId.equals(currentUserId)) {
             throw new SecurityException("You don't have permission to transfer from this account");
         }
         
-        // Get destination account
-        Account destinationAccount = accountRepository.findById(request.getDestinationAccountId())
-                .orElseThrow(() -> new ResourceNotFoundException("Destination account not found with id: " + request.getDestinationAccountId()));
+        // Check destination account exists
+        if (ownershipIndex.ownerOf(request.getDestinationAccountId()) == null) {
+            throw new ResourceNotFoundException("Destination account not found with id: " + request.getDestinationAccountId());
+        }
+        
+        Account sourceAccount = accountRepository.getReferenceById(request.getSourceAccountId());
+        Account destinationAccount = accountRepository.getReferenceById(request.getDestinationAccountId());
         
         // Validate amount
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        Money amount = request.getAmount();
+        if (amount == null || !amount.isPositive()) {
             throw new IllegalArgumentException("Transfer amount must be positive");
         }
         
-        // Check sufficient funds
-        if (sourceAccount.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientFundsException("Insufficient funds for transfer");
-        }
-        
         // Create withdrawal transaction
         Transaction withdrawalTransaction = new Transaction();
-        withdrawalTransaction.setReferenceNumber(generateReferenceNumber());
+        withdrawalTransaction.setReferenceNumber(referenceNumber);
         withdrawalTransaction.setType(Transaction.TransactionType.TRANSFER_OUT);
-        withdrawalTransaction.setAmount(request.getAmount().negate());
+        withdrawalTransaction.setAmount(amount.negate());
         withdrawalTransaction.setDescription(request.getDescription());
         withdrawalTransaction.setCategory("Transfer");
         withdrawalTransaction.setMerchantName("Internal Transfer");
         withdrawalTransaction.setAccount(sourceAccount);
+        withdrawalTransaction.setDestinationAccount(destinationAccount);
         withdrawalTransaction.setStatus(Transaction.TransactionStatus.COMPLETED);
         
         // Create deposit transaction
         Transaction depositTransaction = new Transaction();
         depositTransaction.setReferenceNumber(generateReferenceNumber());
         depositTransaction.setType(Transaction.TransactionType.TRANSFER_IN);
-        depositTransaction.setAmount(request.getAmount());
+        depositTransaction.setAmount(amount);
         depositTransaction.setDescription(request.getDescription());
         depositTransaction.setCategory("Transfer");
         depositTransaction.setMerchantName("Internal Transfer");
         depositTransaction.setAccount(destinationAccount);
         depositTransaction.setStatus(Transaction.TransactionStatus.COMPLETED);
         
-        // Update account balances
-        sourceAccount.setBalance(sourceAccount.getBalance().subtract(request.getAmount()));
-        destinationAccount.setBalance(destinationAccount.getBalance().add(request.getAmount()));
+        // Velocity limits on the source, then check sufficient funds and update both balances atomically
+        Reservation reservation = velocityEngine.reserve(currentUserId, request.getSourceAccountId(), amount);
+        Transaction savedTransaction;
+        try {
+            savedTransaction = ledgerEngine.post(
+                    LedgerEntry.debit(withdrawalTransaction, "Insufficient funds for transfer"),
+                    LedgerEntry.credit(depositTransaction)).get(0);
+        } catch (RuntimeException e) {
+            velocityEngine.release(reservation);
+            throw e;
+        }
         
-        accountRepository.save(sourceAccount);
-        accountRepository.save(destinationAccount);
+        return mapToDTO(savedTransaction);
+    }
+    
+    @Override
+    public TransactionDTO payment(PaymentRequest request) {
+        return pay(principalCache.currentUserId(), generateReferenceNumber(), request);
+    }
+    
+    @Override
+    public TransactionDTO payment(PaymentRequest request, String referenceNumber) {
+        return pay(principalCache.currentUserId(), referenceNumber, request);
+    }
+    
+    private TransactionDTO pay(Long currentUserId, String referenceNumber, PaymentRequest request) {
+        // Security check
+        ownershipIndex.checkOwner(request.getAccountId(), currentUserId,
+                "You don't have permission to make payments from this account");
+        Account account = accountRepository.getReferenceById(request.getAccountId());
         
-        transactionRepository.save(depositTransaction);
-        Transaction savedTransaction = transactionRepository.save(withdrawalTransaction);
+        // Validate amount
+        Money amount = request.getAmount();
+        if (amount == null || !amount.isPositive()) {
+            throw new IllegalArgumentException("Payment amount must be positive");
+        }
         
+        // Create transaction
+        Transaction transaction = new Transaction();
+        transaction.setReferenceNumber(referenceNumber);
+        transaction.setType(Transaction.TransactionType.PAYMENT);
+        transaction.setAmount(amount.negate());
+        transaction.setDescription(request.getDescription());
+        transaction.setCategory(request.getCategory());
+        transaction.setMerchantName(request.getMerchantName());
+        transaction.setAccount(account);
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        
+        // Velocity limits, then check sufficient funds and update account balance
+        Reservation reservation = velocityEngine.reserve(currentUserId, request.getAccountId(), amount);
+        Transaction savedTransaction;
+        try {
+            savedTransaction = ledgerEngine.post(
+                    LedgerEntry.debit(transaction, "Insufficient funds for payment")).get(0);
+        } catch (RuntimeException e) {
+            velocityEngine.release(reservation);
+            throw e;
+        }
         return mapToDTO(savedTransaction);
     }
     
     @Override
-    public TransactionDTO getTransactionById(Long transactionId) {
-        User currentUser = securityUtils.getCurrentUser();
+    public String[] scheduledPayments(List<ScheduledPaymentOrder> payments) {
+        String[] rejections = new String[payments.size()];
+        List<LedgerEntry> entries = new ArrayList<>(payments.size());
+        List<Integer> entryIndexes = new ArrayList<>(payments.size());
+        List<Reservation> reservations = new ArrayList<>(payments.size());
         
-        Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + transactionId));
+        Map<Long, Long> owners = ownershipIndex.ownersOf(payments.stream()
+                .map(payment -> payment.request().getAccountId())
+                .collect(Collectors.toSet()));
         
-        // Security check - users can only access their own transactions
-        if (!transaction.getAccount().getUser().getId().equals(currentUser.getId())) {
-            throw new SecurityException("You don't have permission to access this transaction");
+        for (int i = 0; i < payments.size(); i++) {
+            ScheduledPaymentOrder payment = payments.get(i);
+            PaymentRequest request = payment.request();
+            // Same refusals as pay(), but as results, so one payment never fails the others
+            if (!payment.userId().equals(owners.get(request.getAccountId()))) {
+                rejections[i] = "You don't have permission to make payments from this account";
+                continue;
+            }
+            Money amount = request.getAmount();
+            if (amount == null || !amount.isPositive()) {
+                rejections[i] = "Payment amount must be positive";
+                continue;
+            }
+            
+            Transaction transaction = new Transaction();
+            transaction.setReferenceNumber(payment.referenceNumber());
+            transaction.setType(Transaction.TransactionType.PAYMENT);
+            transaction.setAmount(amount.negate());
+            transaction.setDescription(request.getDescription());
+            transaction.setCategory(request.getCategory());
+            transaction.setMerchantName(request.getMerchantName());
+            transaction.setAccount(accountRepository.getReferenceById(request.getAccountId()));
+            transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+            
+            try {
+                reservations.add(velocityEngine.reserve(payment.userId(), request.getAccountId(), amount));
+            } catch (VelocityLimitExceededException e) {
+                rejections[i] = e.getReason();
+                continue;
+            }
+            entries.add(LedgerEntry.debit(transaction, "Insufficient funds for payment"));
+            entryIndexes.add(i);
+        }
+        
+        boolean[] accepted;
+        try {
+            accepted = entries.isEmpty() ? new boolean[0] : ledgerEngine.postEach(entries);
+        } catch (RuntimeException e) {
+            reservations.forEach(velocityEngine::release);
+            throw e;
+        }
+        for (int e = 0; e < entries.size(); e++) {
+            if (!accepted[e]) {
+                velocityEngine.release(reservations.get(e));
+                rejections[entryIndexes.get(e)] = entries.get(e).insufficientFundsMessage();
+            }
+        }
+        return rejections;
+    }
+    
+    @Override
+    public BulkTransactionResultDTO bulk(BulkTransactionRequest request) {
+        List<BulkTransactionItem> items = request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Bulk request must contain at least one item");
+        }
+        if (items.size() > maxBulkItems) {
+            throw new IllegalArgumentException("Bulk request cannot contain more than " + maxBulkItems + " items");
+        }
+        
+        Long currentUserId = principalCache.currentUserId();
+        
+        BulkTransactionItemResult[] results = new BulkTransactionItemResult[items.size()];
+        List<LedgerEntry> entries = new ArrayList<>(items.size());
+        List<Integer> entryIndexes = new ArrayList<>(items.size());
+        List<Reservation> reservations = new ArrayList<>(items.size());
+        
+        // One owner query for every account the batch touches, not one per item
+        Map<Long, Long> owners = ownershipIndex.ownersOf(items.stream()
+                .map(BulkTransactionItem::getAccountId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        
+        for (int i = 0; i < items.size(); i++) {
+            BulkTransactionItem item = items.get(i);
+            Long ownerId = item.getAccountId() != null ? owners.get(item.getAccountId()) : null;
+            
+            // Validate item
+            if (ownerId == null) {
+                results[i] = BulkTransactionItemResult.rejected(i, "Account not found with id: " + item.getAccountId());
+                continue;
+            }
+            if (!ownerId.equals(currentUserId)) {
+                results[i] = BulkTransactionItemResult.rejected(i, "You don't have permission to use this account");
+                continue;
+            }
+            if (item.getAmountError() != null) {
+                results[i] = BulkTransactionItemResult.rejected(i, item.getAmountError());
+                continue;
+            }
+            Money amount = item.getAmount();
+            if (amount == null || !amount.isPositive()) {
+                results[i] = BulkTransactionItemResult.rejected(i, "Amount must be positive");
+                continue;
+            }
+            
+            Transaction transaction = new Transaction();
+            transaction.setReferenceNumber(generateReferenceNumber());
+            transaction.setDescription(item.getDescription());
+            transaction.setMerchantName(item.getMerchantName());
+            transaction.setAccount(accountRepository.getReferenceById(item.getAccountId()));
+            transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+            
+            if ("DEPOSIT".equals(item.getType())) {
+                transaction.setType(Transaction.TransactionType.DEPOSIT);
+                transaction.setAmount(amount);
+                transaction.setCategory("Deposit");
+                entries.add(LedgerEntry.credit(transaction));
+                reservations.add(null);
+            } else if ("PAYMENT".equals(item.getType())) {
+                Reservation reservation;
+                try {
+                    reservation = velocityEngine.reserve(currentUserId, item.getAccountId(), amount);
+                } catch (VelocityLimitExceededException e) {
+                    results[i] = BulkTransactionItemResult.rejected(i, e.getReason());
+                    continue;
+                }
+                transaction.setType(Transaction.TransactionType.PAYMENT);
+                transaction.setAmount(amount.negate());
+                transaction.setCategory(item.getCategory());
+                entries.add(LedgerEntry.debit(transaction, "Insufficient funds for payment"));
+                reservations.add(reservation);
+            } else {
+                results[i] = BulkTransactionItemResult.rejected(i, "Unsupported transaction type: " + item.getType());
+                continue;
+            }
+            entryIndexes.add(i);
         }
         
+        // Balance deltas are grouped per account and committed together with batched inserts
+        boolean[] accepted;
+        try {
+            accepted = entries.isEmpty() ? new boolean[0] : ledgerEngine.postEach(entries);
+        } catch (RuntimeException e) {
+            reservations.forEach(velocityEngine::release);
+            throw e;
+        }
+        int acceptedCount = 0;
+        for (int e = 0; e < entries.size(); e++) {
+            int i = entryIndexes.get(e);
+            if (accepted[e]) {
+                Transaction transaction = entries.get(e).transaction();
+                results[i] = BulkTransactionItemResult.accepted(i, transaction.getId(), transaction.getReferenceNumber());
+                acceptedCount++;
+            } else {
+                velocityEngine.release(reservations.get(e));
+                results[i] = BulkTransactionItemResult.rejected(i, entries.get(e).insufficientFundsMessage());
+            }
+        }
+        
+        return new BulkTransactionResultDTO(acceptedCount, items.size() - acceptedCount, Arrays.asList(results));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionDTO getTransactionById(Long transactionId) {
+        Transaction transaction = transactionRepository.findById(transactionId).orElse(null);
+        if (transaction == null) {
+            ArchivedTransaction archived = archiveStore.findById(transactionId);
+            if (archived == null) {
+                throw new ResourceNotFoundException("Transaction not found with id: " + transactionId);
+            }
+            ownershipIndex.checkOwner(archived.accountId(), principalCache.currentUserId(),
+                    "You don't have permission to access this transaction");
+            return archived.toDTO();
+        }
+        
+        // Security check - users can only access their own transactions
+        ownershipIndex.checkOwner(transaction.getAccount().getId(), principalCache.currentUserId(),
+                "You don't have permission to access this transaction");
+        
         return mapToDTO(transaction);
     }
     
-    private TransactionDTO mapToDTO(Transaction transaction) {
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TransactionDTO> findByReferenceNumber(String referenceNumber) {
+        return transactionListRepository.findRowByReferenceNumber(referenceNumber).map(row -> {
+            ownershipIndex.checkOwner(row.getAccountId(), principalCache.currentUserId(),
+                    "You don't have permission to access this transaction");
+            return mapToDTO(row);
+        });
+    }
+    
+    TransactionDTO mapToDTO(Transaction transaction) {
         TransactionDTO dto = new TransactionDTO();
         dto.setId(transaction.getId());
         dto.setReferenceNumber(transaction.getReferenceNumber());
@@ -222,7 +580,22 @@ public class TransactionServiceImpl implements TransactionService {
         return dto;
     }
     
-    private String generateReferenceNumber() {
-        return UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    TransactionDTO mapToDTO(TransactionRow row) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(row.getId());
+        dto.setReferenceNumber(row.getReferenceNumber());
+        dto.setType(row.getType().name());
+        dto.setAmount(row.getAmount());
+        dto.setDescription(row.getDescription());
+        dto.setCategory(row.getCategory());
+        dto.setMerchantName(row.getMerchantName());
+        dto.setTimestamp(row.getTimestamp());
+        dto.setStatus(row.getStatus().name());
+        dto.setAccountId(row.getAccountId());
+        return dto;
+    }
+    
+    String generateReferenceNumber() {
+        return idGenerator.nextReferenceNumber();
     }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.securebank.util;
+
+public interface IdGenerator {
+
+    // Unique, time-ordered reference for a posted transaction
+    String nextReferenceNumber();
+
+    // Unique numeric account number ending in a Luhn check digit
+    String nextAccountNumber();
+}
@@ -0,0 +1,58 @@
+package com.securebank.util;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Database side of {@link SnowflakeIdGenerator}'s node leases. Expiry is judged by the database
+ * clock, so nodes with skewed clocks still agree on who holds a node id.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdNodeLeases {
+
+    // Takes the node id if it is free or its lease has expired, keeping the previous high water
+    private static final String CLAIM_SQL =
+            "INSERT INTO id_node_leases (node_id, instance_id, expires_at, high_water) "
+                    + "VALUES (?, ?, LOCALTIMESTAMP + ? * INTERVAL '1 millisecond', 0) "
+                    + "ON CONFLICT (node_id) DO UPDATE SET instance_id = EXCLUDED.instance_id, expires_at = EXCLUDED.expires_at "
+                    + "WHERE id_node_leases.expires_at < LOCALTIMESTAMP "
+                    + "RETURNING high_water";
+
+    private static final String EXTEND_SQL =
+            "UPDATE id_node_leases SET expires_at = LOCALTIMESTAMP + ? * INTERVAL '1 millisecond', "
+                    + "high_water = GREATEST(high_water, ?) WHERE node_id = ? AND instance_id = ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE id_node_leases SET expires_at = LOCALTIMESTAMP WHERE node_id = ? AND instance_id = ?";
+
+    private static final String LIVE_COUNT_SQL =
+            "SELECT COUNT(*) FROM id_node_leases WHERE expires_at > LOCALTIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdNodeLeases(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns the node's high water, or null while another instance holds the lease
+    public Long claim(int nodeId, String instanceId, long ttlMillis) {
+        return jdbcTemplate.query(CLAIM_SQL, rs -> rs.next() ? rs.getLong(1) : null, nodeId, instanceId, ttlMillis);
+    }
+
+    // Renews the lease and raises the high water; false once the lease has been taken over
+    public boolean extend(int nodeId, String instanceId, long highWater, long ttlMillis) {
+        return jdbcTemplate.update(EXTEND_SQL, ttlMillis, highWater, nodeId, instanceId) == 1;
+    }
+
+    public void release(int nodeId, String instanceId) {
+        jdbcTemplate.update(RELEASE_SQL, nodeId, instanceId);
+    }
+
+    // Every running instance holds one lease, so this is the number of running nodes
+    public int liveCount() {
+        Integer count = jdbcTemplate.queryForObject(LIVE_COUNT_SQL, Integer.class);
+        return count != null ? count : 0;
+    }
+}
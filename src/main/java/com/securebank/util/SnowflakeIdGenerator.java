@@ -0,0 +1,232 @@
+package com.securebank.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style generator: every id is (time, node, sequence), so ids never collide across
+ * threads or across nodes configured with distinct node ids. State is a single CAS-updated long
+ * per id kind; there is no lock and no shared random source.
+ *
+ * Reference numbers: 41 bits of milliseconds, 10 bits of node, 12 bits of sequence, rendered as
+ * 13 Crockford base32 characters so they sort by creation time.
+ * Account numbers: 30 bits of seconds, 10 bits of node, 8 bits of sequence, rendered as 15
+ * decimal digits followed by a Luhn check digit.
+ *
+ * When a sequence is exhausted, or the wall clock steps backwards, the generator keeps going on
+ * the next tick of its own logical clock instead of waiting.
+ *
+ * The node id is leased in id_node_leases (see {@link IdNodeLeases}): startup fails if the
+ * configured id is held by another live instance, and -1 claims the first free id. The lease also
+ * reserves time ahead of the logical clock; ids are only issued below the reservation and a
+ * restart resumes above it, so ids stay unique even if the logical clock had run ahead or the
+ * wall clock stepped back across the restart.
+ */
+@Slf4j
+@Component
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final int REFERENCE_SEQUENCE_BITS = 12;
+    private static final int ACCOUNT_SEQUENCE_BITS = 8;
+    private static final int ACCOUNT_DIGITS = 15;
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final IdNodeLeases leases;
+    private final int configuredNodeId;
+    private final long leaseTtl;
+    private final LongSupplier clock;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong referenceState = new AtomicLong();
+    private final AtomicLong accountState = new AtomicLong();
+    // Not a monitor: renewing does database I/O, which would pin a virtual thread's carrier
+    private final ReentrantLock reserveLock = new ReentrantLock();
+
+    private int nodeId = -1;
+    // Milliseconds since the epoch below which ids may be issued, and the lease's local deadline
+    private volatile long reservedUntil;
+    private volatile long leaseValidUntilNanos;
+
+    @Autowired
+    public SnowflakeIdGenerator(
+            IdNodeLeases leases,
+            @Value("${application.id.node-id:-1}") int nodeId,
+            @Value("${application.id.lease-ttl:30000}") long leaseTtl
+    ) {
+        this(leases, nodeId, leaseTtl, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(IdNodeLeases leases, int nodeId, long leaseTtl, LongSupplier clock) {
+        if (nodeId < -1 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be -1 or between 0 and " + MAX_NODE_ID);
+        }
+        if (leaseTtl < 1000) {
+            throw new IllegalArgumentException("Id lease ttl must be at least one account-number tick (1000 ms)");
+        }
+        this.leases = leases;
+        this.configuredNodeId = nodeId;
+        this.leaseTtl = leaseTtl;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void start() {
+        Long highWater = null;
+        if (configuredNodeId >= 0) {
+            highWater = leases.claim(configuredNodeId, instanceId, leaseTtl);
+            if (highWater == null) {
+                throw new IllegalStateException("Node id " + configuredNodeId + " is leased by another running instance");
+            }
+            nodeId = configuredNodeId;
+        } else {
+            for (int candidate = 0; candidate <= MAX_NODE_ID && highWater == null; candidate++) {
+                highWater = leases.claim(candidate, instanceId, leaseTtl);
+                nodeId = candidate;
+            }
+            if (highWater == null) {
+                throw new IllegalStateException("All " + (MAX_NODE_ID + 1) + " node ids are leased");
+            }
+        }
+        // Ids below the previous holder's reservation may already be in use, so resume above it
+        referenceState.set((highWater << REFERENCE_SEQUENCE_BITS) - 1);
+        accountState.set(((highWater / 1000) << ACCOUNT_SEQUENCE_BITS) - 1);
+        reserve();
+        log.info("Issuing ids as node {}", nodeId);
+    }
+
+    // Keeps the lease alive and the reservation ahead of the clock, so issuing ids never waits on it
+    @Scheduled(fixedDelayString = "${application.id.renew-interval:10000}")
+    void renew() {
+        reserve();
+    }
+
+    @PreDestroy
+    void stop() {
+        leases.release(nodeId, instanceId);
+    }
+
+    int nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String nextReferenceNumber() {
+        long tickAndSequence = next(referenceState, now() - EPOCH_MILLIS, REFERENCE_SEQUENCE_BITS, 1);
+        long tick = tickAndSequence >>> REFERENCE_SEQUENCE_BITS;
+        long sequence = tickAndSequence & ((1L << REFERENCE_SEQUENCE_BITS) - 1);
+        long id = (tick << (NODE_BITS + REFERENCE_SEQUENCE_BITS)) | ((long) nodeId << REFERENCE_SEQUENCE_BITS) | sequence;
+
+        char[] chars = new char[13];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String nextAccountNumber() {
+        long tickAndSequence = next(accountState, (now() - EPOCH_MILLIS) / 1000, ACCOUNT_SEQUENCE_BITS, 1000);
+        long tick = tickAndSequence >>> ACCOUNT_SEQUENCE_BITS;
+        long sequence = tickAndSequence & ((1L << ACCOUNT_SEQUENCE_BITS) - 1);
+        long id = (tick << (NODE_BITS + ACCOUNT_SEQUENCE_BITS)) | ((long) nodeId << ACCOUNT_SEQUENCE_BITS) | sequence;
+
+        char[] digits = new char[ACCOUNT_DIGITS + 1];
+        for (int i = ACCOUNT_DIGITS - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        digits[ACCOUNT_DIGITS] = (char) ('0' + luhnCheckDigit(digits, ACCOUNT_DIGITS));
+        return new String(digits);
+    }
+
+    private long now() {
+        if (System.nanoTime() - leaseValidUntilNanos >= 0) {
+            reserveLock.lock();
+            try {
+                if (System.nanoTime() - leaseValidUntilNanos >= 0) {
+                    reserve();
+                }
+            } finally {
+                reserveLock.unlock();
+            }
+        }
+        return clock.getAsLong();
+    }
+
+    // Advances (tick << sequenceBits | sequence) past both its previous value and the current time,
+    // staying below the reservation; tickMillis is the length of one tick
+    private long next(AtomicLong state, long nowTick, int sequenceBits, long tickMillis) {
+        long floor = nowTick << sequenceBits;
+        while (true) {
+            long current = state.get();
+            long candidate = Math.max(current + 1, floor);
+            if ((candidate >>> sequenceBits) >= reservedUntil / tickMillis) {
+                reserveLock.lock();
+                try {
+                    if ((candidate >>> sequenceBits) >= reservedUntil / tickMillis) {
+                        reserve();
+                    }
+                } finally {
+                    reserveLock.unlock();
+                }
+                continue;
+            }
+            if (state.compareAndSet(current, candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    // Renews the lease and moves the reservation one lease ttl past the newest tick of either kind
+    private void reserve() {
+        reserveLock.lock();
+        try {
+            long started = System.nanoTime();
+            long from = Math.max(clock.getAsLong() - EPOCH_MILLIS, Math.max(
+                    (referenceState.get() >>> REFERENCE_SEQUENCE_BITS) + 1,
+                    ((accountState.get() >>> ACCOUNT_SEQUENCE_BITS) + 1) * 1000));
+            long until = Math.max(reservedUntil, from + leaseTtl);
+            if (!leases.extend(nodeId, instanceId, until, leaseTtl)) {
+                leaseValidUntilNanos = started;
+                throw new IllegalStateException("Lease on node id " + nodeId + " was taken over by another instance");
+            }
+            reservedUntil = until;
+            leaseValidUntilNanos = started + TimeUnit.MILLISECONDS.toNanos(leaseTtl);
+        } finally {
+            reserveLock.unlock();
+        }
+    }
+
+    static int luhnCheckDigit(char[] digits, int length) {
+        int sum = 0;
+        boolean doubleIt = true;
+        for (int i = length - 1; i >= 0; i--) {
+            int digit = digits[i] - '0';
+            if (doubleIt) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleIt = !doubleIt;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
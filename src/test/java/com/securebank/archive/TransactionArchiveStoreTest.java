@@ -0,0 +1,102 @@
+package com.securebank.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionArchiveStoreTest {
+
+    private static final long ACCOUNT_ID = 42L;
+    private static final LocalDateTime MARCH = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime APRIL = MARCH.plusMonths(1);
+
+    @TempDir
+    Path directory;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    // transaction_archives as the database sees it: file path and range end per id
+    private final List<Object[]> archives = new ArrayList<>();
+    private TransactionArchiveStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenAnswer(invocation -> (long) archives.size());
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < archives.size(); i++) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn(i + 1L);
+                when(rs.getString("file_path")).thenReturn(archives.get(i)[0].toString());
+                when(rs.getTimestamp("range_end")).thenReturn(Timestamp.valueOf((LocalDateTime) archives.get(i)[1]));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        store = new TransactionArchiveStore(jdbcTemplate);
+        store.refresh();
+    }
+
+    @Test
+    void readsServeAnArchiveAnotherNodeJustWrote() throws Exception {
+        assertThat(store.isEmpty()).isTrue();
+
+        // Another node archives March; this one has not refreshed since
+        archive("march", APRIL, row(3, MARCH.plusDays(20)), row(2, MARCH.plusDays(10)), row(1, MARCH.plusDays(10)));
+
+        assertThat(ids(store.findBefore(ACCOUNT_ID, null, null, 10))).containsExactly(3L, 2L, 1L);
+        assertThat(store.findById(2L)).isNotNull();
+    }
+
+    @Test
+    void findBeforeContinuesAfterThePosition() throws Exception {
+        archive("march", APRIL, row(3, MARCH.plusDays(20)), row(2, MARCH.plusDays(10)), row(1, MARCH.plusDays(10)));
+        archive("april", APRIL.plusMonths(1), row(5, APRIL.plusDays(2)), row(4, APRIL.plusDays(1)));
+
+        // A position inside April, then one on a shared timestamp in March, which the id breaks
+        assertThat(ids(store.findBefore(ACCOUNT_ID, APRIL.plusDays(2), 5L, 10))).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(ids(store.findBefore(ACCOUNT_ID, MARCH.plusDays(10), 2L, 10))).containsExactly(1L);
+        assertThat(ids(store.findBefore(ACCOUNT_ID, null, null, 2))).containsExactly(5L, 4L);
+
+        List<ArchivedTransaction> exported = new ArrayList<>();
+        store.forEachBefore(ACCOUNT_ID, APRIL.plusDays(1), 4L, exported::add);
+        assertThat(ids(exported)).containsExactly(3L, 2L, 1L);
+    }
+
+    private void archive(String name, LocalDateTime rangeEnd, ArchivedTransaction... rows) throws Exception {
+        Path path = directory.resolve(name + ".sbta");
+        try (ArchiveWriter writer = new ArchiveWriter(path)) {
+            for (ArchivedTransaction row : rows) {
+                writer.add(row);
+            }
+            writer.finish();
+        }
+        archives.add(new Object[] {path, rangeEnd});
+    }
+
+    private static ArchivedTransaction row(long id, LocalDateTime timestamp) {
+        return new ArchivedTransaction(id, "REF" + id, "DEPOSIT", new BigDecimal("1.00"), null, null, null,
+                timestamp, 0, ACCOUNT_ID, null);
+    }
+
+    private static List<Long> ids(List<ArchivedTransaction> rows) {
+        return rows.stream().map(ArchivedTransaction::id).toList();
+    }
+}
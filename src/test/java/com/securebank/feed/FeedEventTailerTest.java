@@ -0,0 +1,111 @@
+package com.securebank.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.securebank.money.Money;
+import com.securebank.money.MoneyJsonComponent;
+import com.securebank.outbox.OutboxMessage;
+import com.securebank.outbox.OutboxWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Two nodes' tailers reading what the relay's feed sink wrote
+class FeedEventTailerTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .registerModule(new SimpleModule()
+                    .addSerializer(Money.class, new MoneyJsonComponent.Serializer())
+                    .addDeserializer(Money.class, new MoneyJsonComponent.Deserializer()));
+    private final List<FeedEventTailer> tailers = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private FeedOutboxSink sink;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:feed-events-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE feed_events (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "account_id BIGINT NOT NULL, transaction_id BIGINT NOT NULL, data TEXT NOT NULL, created_at TIMESTAMP NOT NULL)");
+        OutboxWriter outboxWriter = mock(OutboxWriter.class);
+        when(outboxWriter.isEnabled()).thenReturn(true);
+        sink = new FeedOutboxSink(jdbcTemplate, objectMapper, outboxWriter, HOUR);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (FeedEventTailer tailer : tailers) {
+            tailer.stop();
+        }
+    }
+
+    @Test
+    void everyNodePushesWhatTheRelayWrote() {
+        TransactionFeed thisNode = mock(TransactionFeed.class);
+        TransactionFeed otherNode = mock(TransactionFeed.class);
+        tailer(thisNode, 10, HOUR);
+        tailer(otherNode, 10, HOUR);
+
+        sink.deliver(List.of(
+                posted(1, 7L, 10L, "{\"id\":10,\"referenceNumber\":\"REF10\",\"amount\":12.50,\"accountId\":7}"),
+                new OutboxMessage(2, 7L, 11L, "ACCOUNT_CLOSED", "{}", LocalDateTime.now())));
+
+        for (TransactionFeed feed : List.of(thisNode, otherNode)) {
+            verify(feed, timeout(5000)).publish(eq(7L), eq(10L), contains("\"referenceNumber\":\"REF10\""));
+            verify(feed, timeout(5000)).publish(eq(7L), eq(10L), contains("\"amount\":12.50"));
+            verify(feed, never()).publish(anyLong(), eq(11L), anyString());
+            verify(feed, never()).resyncAll();
+        }
+    }
+
+    @Test
+    void nodeThatFellBehindTheRetentionResyncs() {
+        TransactionFeed feed = mock(TransactionFeed.class);
+
+        // Reads every 200 ms while rows are only kept for 50
+        tailer(feed, 200, 50);
+
+        verify(feed, timeout(5000)).resyncAll();
+    }
+
+    @Test
+    void sinkPrunesRowsPastTheRetention() {
+        jdbcTemplate.update("INSERT INTO feed_events (account_id, transaction_id, data, created_at) VALUES (1, 1, '{}', ?)",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(2)));
+
+        sink.deliver(List.of(posted(1, 7L, 10L, "{\"id\":10}")));
+
+        Long remaining = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM feed_events", Long.class);
+        assertThat(remaining).isEqualTo(1);
+    }
+
+    private void tailer(TransactionFeed feed, long pollIntervalMillis, long retentionMillis) {
+        FeedEventTailer tailer = new FeedEventTailer(jdbcTemplate, feed, 100, pollIntervalMillis, retentionMillis);
+        tailer.start();
+        tailers.add(tailer);
+    }
+
+    private static OutboxMessage posted(long id, Long accountId, Long transactionId, String payload) {
+        return new OutboxMessage(id, accountId, transactionId, OutboxWriter.TRANSACTION_POSTED, payload, LocalDateTime.now());
+    }
+}
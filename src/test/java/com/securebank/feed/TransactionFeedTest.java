@@ -0,0 +1,180 @@
+package com.securebank.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import com.securebank.money.MoneyJsonComponent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionFeedTest {
+
+    private static final long ACCOUNT_ID = 1L;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // One dispatcher and no write grace, so a write that blocked would hold up every stream
+    private final TransactionFeed feed = new TransactionFeed(new ObjectMapper().findAndRegisterModules()
+            .registerModule(new SimpleModule().addSerializer(Money.class, new MoneyJsonComponent.Serializer())),
+            registry, 64, 10, 1_800_000, 1, 0, false);
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void streamStartsWithResync() throws Exception {
+        Stream stream = subscribe();
+
+        awaitTrue(() -> stream.text().equals("event:resync\ndata:\n\n"));
+    }
+
+    @Test
+    void stalledStreamDoesNotHoldUpOthers() throws Exception {
+        Stream stalled = subscribe();
+        Stream healthy = subscribe();
+        awaitTrue(() -> stalled.text().contains("resync") && healthy.text().contains("resync"));
+        stalled.out.ready = false;
+
+        feed.publish(List.of(transaction(11L), transaction(12L)));
+
+        awaitTrue(() -> healthy.text().contains("id:12\n"));
+        assertThat(healthy.text()).contains("id:11\nevent:transaction\ndata:{").contains("\"amount\":10.00,");
+        assertThat(stalled.text()).doesNotContain("event:transaction");
+        assertThat(registry.get("securebank.feed.buffered").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void streamResumesWhenContainerReportsWritePossible() throws Exception {
+        Stream stream = subscribe();
+        awaitTrue(() -> stream.text().contains("resync"));
+        stream.out.ready = false;
+        feed.publish(List.of(transaction(11L)));
+        Thread.sleep(50);
+        assertThat(stream.text()).doesNotContain("id:11");
+
+        stream.out.ready = true;
+        stream.out.listener.onWritePossible();
+
+        awaitTrue(() -> stream.text().contains("id:11\n"));
+    }
+
+    @Test
+    void heartbeatClosesStalledStream() throws Exception {
+        Stream stream = subscribe();
+        awaitTrue(() -> stream.text().contains("resync"));
+        stream.out.ready = false;
+        feed.publish(List.of(transaction(11L)));
+        Thread.sleep(50); // the drain finds the stream not ready
+
+        feed.heartbeat();
+
+        assertThat(subscribers()).isZero();
+        assertThat(stream.request.isAsyncStarted()).isFalse();
+    }
+
+    private double subscribers() {
+        return registry.get("securebank.feed.subscribers").gauge().value();
+    }
+
+    private Stream subscribe() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transactions/account/1/stream");
+        request.setAsyncSupported(true);
+        FakeOutputStream out = new FakeOutputStream();
+        feed.subscribe(ACCOUNT_ID, request, new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return out;
+            }
+        });
+        return new Stream(request, out);
+    }
+
+    private static Transaction transaction(Long id) {
+        Account account = new Account();
+        account.setId(ACCOUNT_ID);
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setReferenceNumber("REF" + id);
+        transaction.setType(Transaction.TransactionType.DEPOSIT);
+        transaction.setAmount(Money.of(new BigDecimal("10.00")));
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 12, 0));
+        transaction.setAccount(account);
+        return transaction;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private record Stream(MockHttpServletRequest request, FakeOutputStream out) {
+
+        String text() {
+            return out.text();
+        }
+    }
+
+    // Stands in for the container's non-blocking stream: writes are only legal while ready
+    private static final class FakeOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        volatile boolean ready = true;
+        volatile WriteListener listener;
+
+        @Override
+        public synchronized void write(int b) {
+            if (!ready) {
+                throw new IllegalStateException("Write while not ready");
+            }
+            written.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (!ready) {
+                throw new IllegalStateException("Write while not ready");
+            }
+            written.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+            try {
+                writeListener.onWritePossible();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        synchronized String text() {
+            return written.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.securebank.journal;
+
+import com.securebank.dto.JournalReplayReportDTO;
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import com.securebank.util.IdNodeLeases;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JournalReplayTest {
+
+    @TempDir
+    Path directory;
+
+    private final IdNodeLeases idNodeLeases = mock(IdNodeLeases.class);
+    // Read-only flag of the transaction the cross-check streamed in, and its connection's autocommit
+    private final List<Boolean> streamedOn = new ArrayList<>();
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:journal-replay-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource) {
+            @Override
+            public void query(PreparedStatementCreator creator, RowCallbackHandler handler) throws DataAccessException {
+                Connection connection = DataSourceUtils.getConnection(dataSource);
+                try {
+                    streamedOn.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+                    streamedOn.add(connection.getAutoCommit());
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    DataSourceUtils.releaseConnection(connection, dataSource);
+                }
+                super.query(creator, handler);
+            }
+        };
+        jdbcTemplate.execute("CREATE TABLE accounts (id BIGINT PRIMARY KEY, balance DECIMAL(19, 2))");
+        jdbcTemplate.execute("CREATE TABLE account_balance_slots (account_id BIGINT, slot INT, balance DECIMAL(19, 2))");
+        when(idNodeLeases.liveCount()).thenReturn(2);
+    }
+
+    @Test
+    void replaysEveryNodesJournal() throws Exception {
+        PostingJournal thisNode = journal("node-a");
+        PostingJournal otherNode = journal("node-b");
+        // Both journals number their groups from 1; this node's first group is still in flight
+        thisNode.append(List.of(posting(1L, -500)));
+        thisNode.finish(thisNode.append(List.of(posting(1L, 1000), posting(2L, 250))), true);
+        otherNode.finish(otherNode.append(List.of(posting(1L, 300))), true);
+        otherNode.finish(otherNode.append(List.of(posting(2L, 999))), false);
+        jdbcTemplate.update("INSERT INTO accounts VALUES (1, 13.00), (2, 2.00)");
+
+        JournalReplay replay = new JournalReplay(thisNode, jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                idNodeLeases, List.of(directory.resolve("node-b").toString()));
+        String runId = replay.runAsync(true, 10);
+        JournalReplayReportDTO report = replay.report(runId);
+        for (long deadline = System.currentTimeMillis() + 30_000;
+             !"DONE".equals(report.getState()) && System.currentTimeMillis() < deadline; report = replay.report(runId)) {
+            Thread.sleep(20);
+        }
+
+        assertThat(report.getJournals()).isEqualTo(2);
+        assertThat(report.getCommittedGroups()).isEqualTo(2);
+        assertThat(report.getAbortedGroups()).isEqualTo(1);
+        assertThat(report.getUnmarkedGroups()).isEqualTo(1);
+        assertThat(report.getPostings()).isEqualTo(3);
+        // Account 1 matches 10.00 + 3.00; account 2 is recorded at 2.00 against 2.50 journaled
+        assertThat(report.getDiscrepancyCount()).isEqualTo(1);
+        assertThat(report.getDiscrepancies().get(0).getAccountId()).isEqualTo(2L);
+        // Streamed in a read-only transaction, as Postgres only honours the fetch size there
+        assertThat(streamedOn).containsExactly(true, false);
+    }
+
+    private PostingJournal journal(String node) {
+        PostingJournal journal = new PostingJournal(jdbcTemplate, new SimpleMeterRegistry(), true,
+                directory.resolve(node).toString(), 1024 * 1024);
+        journal.start();
+        return journal;
+    }
+
+    private static Transaction posting(Long accountId, long minorUnits) {
+        Account account = new Account();
+        account.setId(accountId);
+        Transaction transaction = new Transaction();
+        transaction.setAccount(account);
+        transaction.setAmount(Money.ofMinor(minorUnits));
+        transaction.setReferenceNumber("JR" + System.nanoTime());
+        return transaction;
+    }
+}
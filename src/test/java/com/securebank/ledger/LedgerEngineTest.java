@@ -0,0 +1,207 @@
+package com.securebank.ledger;
+
+import com.securebank.exception.InsufficientFundsException;
+import com.securebank.feed.TransactionFeed;
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LedgerEngineTest {
+
+    private static final long ACCOUNT_ID = 1L;
+
+    private final LedgerWriter ledgerWriter = mock(LedgerWriter.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicLong databaseBalance = new AtomicLong();
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(16);
+        when(jdbcTemplate.queryForObject(anyString(), eq(BigDecimal.class), any(Object[].class)))
+                .thenAnswer(invocation -> BigDecimal.valueOf(databaseBalance.get(), 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void uncommittedCreditDoesNotFundDebit() throws Exception {
+        LedgerEngine engine = engine(60_000);
+        CompletableFuture<Void> creditCommit = new CompletableFuture<>();
+        CountDownLatch submitted = new CountDownLatch(1);
+        when(ledgerWriter.submit(anyList())).thenAnswer(invocation -> {
+            submitted.countDown();
+            return creditCommit;
+        });
+
+        Future<?> credit = executor.submit(() -> engine.post(LedgerEntry.credit(transaction("100.00"))));
+        assertThat(submitted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> engine.post(LedgerEntry.debit(transaction("-50.00"), "no funds")))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        creditCommit.completeExceptionally(new IllegalStateException("group commit failed"));
+        assertThatThrownBy(credit::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> engine.post(LedgerEntry.debit(transaction("-50.00"), "no funds")))
+                .isInstanceOf(InsufficientFundsException.class);
+    }
+
+    @Test
+    void committedCreditFundsDebit() {
+        LedgerEngine engine = engine(60_000);
+        when(ledgerWriter.submit(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+        engine.post(LedgerEntry.credit(transaction("100.00")));
+        engine.post(LedgerEntry.debit(transaction("-100.00"), "no funds"));
+
+        assertThatThrownBy(() -> engine.post(LedgerEntry.debit(transaction("-0.01"), "no funds")))
+                .isInstanceOf(InsufficientFundsException.class);
+    }
+
+    @Test
+    void failedSubmitReleasesReservedDebit() {
+        LedgerEngine engine = engine(60_000);
+        databaseBalance.set(10_000);
+        when(ledgerWriter.submit(anyList()))
+                .thenThrow(new IllegalStateException("Interrupted while queueing ledger posting"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThatThrownBy(() -> engine.post(LedgerEntry.debit(transaction("-100.00"), "no funds")))
+                .isInstanceOf(IllegalStateException.class);
+        engine.post(LedgerEntry.debit(transaction("-100.00"), "no funds"));
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        LedgerEngine engine = engine(60_000);
+        databaseBalance.set(100_000); // 1000.00
+        when(ledgerWriter.submit(anyList())).thenAnswer(invocation ->
+                CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS)));
+
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int worker = 0; worker < 16; worker++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    try {
+                        engine.post(LedgerEntry.debit(transaction("-1.00"), "no funds"));
+                        accepted.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        // expected once the balance is spent
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+
+        assertThat(accepted.get()).isEqualTo(1000);
+    }
+
+    @Test
+    void postEachAcceptsDebitsUpToTheBalanceAcrossChunks() {
+        LedgerEngine engine = engine(60_000);
+        databaseBalance.set(50_000); // 500.00
+        when(ledgerWriter.submit(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            entries.add(LedgerEntry.debit(transaction("-1.00"), "no funds"));
+        }
+        boolean[] accepted = engine.postEach(entries);
+
+        int count = 0;
+        for (boolean ok : accepted) {
+            count += ok ? 1 : 0;
+        }
+        assertThat(count).isEqualTo(500);
+        assertThat(accepted[499]).isTrue();
+        assertThat(accepted[500]).isFalse();
+        assertThatThrownBy(() -> engine.post(LedgerEntry.debit(transaction("-0.01"), "no funds")))
+                .isInstanceOf(InsufficientFundsException.class);
+    }
+
+    @Test
+    void expiredBalanceIsReloadedFromDatabase() {
+        LedgerEngine engine = engine(0);
+        databaseBalance.set(10_000);
+        when(ledgerWriter.submit(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+        engine.post(LedgerEntry.debit(transaction("-50.00"), "no funds"));
+        // Another node spent most of the rest
+        databaseBalance.set(1_000);
+
+        assertThatThrownBy(() -> engine.post(LedgerEntry.debit(transaction("-50.00"), "no funds")))
+                .isInstanceOf(InsufficientFundsException.class);
+    }
+
+    @Test
+    void postInTransactionDoesNotCountDeltasTwice() {
+        LedgerEngine engine = engine(60_000);
+        databaseBalance.set(10_000);
+        when(ledgerWriter.submit(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            engine.postInTransaction(List.of(LedgerEntry.credit(transaction("50.00"))));
+            // The batch transaction commits, and a debit loads the new balance before afterCommit runs
+            databaseBalance.set(15_000);
+            engine.post(LedgerEntry.debit(transaction("-10.00"), "no funds"));
+            databaseBalance.set(14_000);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThatThrownBy(() -> engine.post(LedgerEntry.debit(transaction("-140.01"), "no funds")))
+                .isInstanceOf(InsufficientFundsException.class);
+        engine.post(LedgerEntry.debit(transaction("-140.00"), "no funds"));
+    }
+
+    private LedgerEngine engine(long balanceTtlMillis) {
+        return new LedgerEngine(ledgerWriter, jdbcTemplate, mock(TransactionFeed.class),
+                16, balanceTtlMillis);
+    }
+
+    private static Transaction transaction(String amount) {
+        Account account = new Account();
+        account.setId(ACCOUNT_ID);
+        Transaction transaction = new Transaction();
+        transaction.setAccount(account);
+        transaction.setAmount(Money.of(new BigDecimal(amount)));
+        return transaction;
+    }
+}
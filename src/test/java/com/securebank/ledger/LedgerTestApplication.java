@@ -0,0 +1,22 @@
+package com.securebank.ledger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+// The ledger engine and writer on the embedded test database; the rest of the group's work is mocked by the tests
+@SpringBootConfiguration
+@AutoConfigurationPackage
+@EntityScan("com.securebank.model")
+@Import({LedgerEngine.class, LedgerWriter.class, AccountVersions.class})
+class LedgerTestApplication {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
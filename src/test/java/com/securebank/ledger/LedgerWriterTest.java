@@ -0,0 +1,198 @@
+package com.securebank.ledger;
+
+import com.securebank.exception.InsufficientFundsException;
+import com.securebank.feed.TransactionFeed;
+import com.securebank.journal.PostingJournal;
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.model.User;
+import com.securebank.money.Money;
+import com.securebank.outbox.OutboxWriter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Postings committed through the real writer; no test transaction, the writer commits its own
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerWriterTest {
+
+    private static final AtomicLong REFERENCES = new AtomicLong();
+
+    @MockBean
+    private HotAccountManager hotAccountManager;
+    @MockBean
+    private DailySnapshotWriter dailySnapshotWriter;
+    @MockBean
+    private OutboxWriter outboxWriter;
+    @MockBean
+    private PostingJournal postingJournal;
+    @MockBean
+    private TransactionFeed transactionFeed;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+    @Autowired
+    private AccountVersions accountVersions;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService executor;
+    private Account first;
+    private Account second;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(9);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = new User();
+            user.setFirstName("Ledger");
+            user.setLastName("Test");
+            user.setEmail("ledger" + REFERENCES.incrementAndGet() + "@securebank.com");
+            user.setPassword("x");
+            user.setPhoneNumber("000");
+            entityManager.persist(user);
+            first = account(user, "1000.00");
+            second = account(user, "1000.00");
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentPostingsLoseNoUpdates() throws Exception {
+        List<Future<?>> workers = new ArrayList<>();
+        for (int worker = 0; worker < 8; worker++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    boolean forward = ThreadLocalRandom.current().nextBoolean();
+                    Account from = forward ? first : second;
+                    Account to = forward ? second : first;
+                    try {
+                        ledgerEngine.post(
+                                LedgerEntry.debit(transaction(from, "-7.00"), "no funds"),
+                                LedgerEntry.credit(transaction(to, "7.00")));
+                        ledgerEngine.post(LedgerEntry.credit(transaction(from, "0.01")));
+                    } catch (InsufficientFundsException e) {
+                        // possible once one side is drained
+                    }
+                }
+            }));
+        }
+        // A batch job writing both accounts in its own transaction, listing them the other way round
+        workers.add(executor.submit(() -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            for (int i = 0; i < 50; i++) {
+                transactionTemplate.executeWithoutResult(status -> ledgerEngine.postInTransaction(List.of(
+                        LedgerEntry.credit(transaction(second, "0.10")),
+                        LedgerEntry.credit(transaction(first, "0.10")))));
+            }
+        }));
+        for (Future<?> worker : workers) {
+            worker.get(120, TimeUnit.SECONDS);
+        }
+
+        for (Account account : List.of(first, second)) {
+            BigDecimal posted = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(amount), 0) FROM transactions WHERE account_id = ?", BigDecimal.class, account.getId());
+            assertThat(balance(account)).isEqualByComparingTo(new BigDecimal("1000.00").add(posted));
+        }
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE account_id IN (?, ?)",
+                Long.class, first.getId(), second.getId());
+        assertThat(count).isGreaterThanOrEqualTo(8 * 100 + 2 * 50);
+    }
+
+    @Test
+    void writeLeavesCallerEntitiesManaged() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Account managed = entityManager.find(Account.class, first.getId());
+
+            ledgerEngine.postInTransaction(List.of(LedgerEntry.credit(transaction(managed, "5.00"))));
+
+            assertThat(entityManager.contains(managed)).isTrue();
+        });
+        assertThat(balance(first)).isEqualByComparingTo("1005.00");
+    }
+
+    @Test
+    void postingsRaiseTheVersionEveryNodeReads() {
+        String accountETag = accountVersions.accountETag(first.getId());
+        String otherAccountETag = accountVersions.accountETag(second.getId());
+        String userETag = accountVersions.userETag(first.getUser().getId());
+
+        ledgerEngine.post(LedgerEntry.credit(transaction(first, "1.00")));
+
+        assertThat(accountVersions.accountETag(first.getId())).isNotEqualTo(accountETag);
+        assertThat(accountVersions.accountETag(second.getId())).isEqualTo(otherAccountETag);
+        assertThat(accountVersions.userETag(first.getUser().getId())).isNotEqualTo(userETag);
+        // Nothing kept in memory: another node reads the same ETags from the database
+        AccountVersions otherNode = new AccountVersions(jdbcTemplate);
+        assertThat(otherNode.accountETag(first.getId())).isEqualTo(accountVersions.accountETag(first.getId()));
+        assertThat(otherNode.userETag(first.getUser().getId())).isEqualTo(accountVersions.userETag(first.getUser().getId()));
+    }
+
+    @Test
+    void rolledBackPostingKeepsTheVersion() {
+        String accountETag = accountVersions.accountETag(first.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ledgerEngine.postInTransaction(List.of(LedgerEntry.credit(transaction(first, "1.00"))));
+            status.setRollbackOnly();
+        });
+
+        assertThat(accountVersions.accountETag(first.getId())).isEqualTo(accountETag);
+    }
+
+    private Account account(User user, String balance) {
+        Account account = new Account();
+        account.setAccountNumber("LEDGER" + REFERENCES.incrementAndGet());
+        account.setAccountType(Account.AccountType.CHECKING);
+        account.setBalance(Money.of(new BigDecimal(balance)));
+        account.setUser(user);
+        entityManager.persist(account);
+        return account;
+    }
+
+    private BigDecimal balance(Account account) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, account.getId());
+    }
+
+    private static Transaction transaction(Account account, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setReferenceNumber("LEDGER-REF" + REFERENCES.incrementAndGet());
+        transaction.setType(amount.startsWith("-") ? Transaction.TransactionType.WITHDRAWAL : Transaction.TransactionType.DEPOSIT);
+        transaction.setAmount(Money.of(new BigDecimal(amount)));
+        transaction.setAccount(account);
+        return transaction;
+    }
+}
@@ -0,0 +1,58 @@
+package com.securebank.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalGetBytesFilterTest {
+
+    private static final byte[] BODY = "[{\"id\":1,\"amount\":42.50}]".getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ConditionalGetBytesFilter filter = new ConditionalGetBytesFilter(new ConditionalGetMetrics(registry));
+
+    @Test
+    void servedBodyBytesAreRecorded() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/accounts"), response, (req, res) -> {
+            ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, "\"u1-1\"");
+            res.getOutputStream().write(BODY);
+        });
+
+        assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+        assertThat(body("served").totalAmount()).isEqualTo(BODY.length);
+        assertThat(body("not_modified").count()).isZero();
+    }
+
+    @Test
+    void notModifiedWritesNoBody() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/accounts"), new MockHttpServletResponse(), (req, res) -> {
+            HttpServletResponse response = (HttpServletResponse) res;
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, "\"u1-1\"");
+        });
+
+        assertThat(body("not_modified").count()).isEqualTo(1);
+        assertThat(body("not_modified").totalAmount()).isZero();
+    }
+
+    @Test
+    void responsesWithoutETagAreNotRecorded() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/transactions/account/1/export"),
+                new MockHttpServletResponse(), (req, res) -> res.getOutputStream().write(BODY));
+
+        assertThat(body("served").count()).isZero();
+    }
+
+    private DistributionSummary body(String outcome) {
+        return registry.get("securebank.conditional.get.body").tag("outcome", outcome).summary();
+    }
+}
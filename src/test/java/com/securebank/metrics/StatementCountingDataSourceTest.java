@@ -0,0 +1,70 @@
+package com.securebank.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatementCountingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch()).thenReturn(new int[]{1, 1, 1});
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.supportsBatchUpdates()).thenReturn(true);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(preparedStatement.getConnection()).thenReturn(connection);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        jdbcTemplate = new JdbcTemplate(new StatementCountingDataSource(dataSource));
+        StatementCountingDataSource.reset();
+    }
+
+    @Test
+    void countsJdbcTemplateStatements() {
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + 1 WHERE id = 1");
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + ? WHERE id = ?", 1, 2L);
+        jdbcTemplate.batchUpdate("UPDATE accounts SET balance = balance + ? WHERE id = ?",
+                List.of(new Object[]{1, 1L}, new Object[]{1, 2L}, new Object[]{1, 3L}));
+
+        assertThat(StatementCountingDataSource.count()).isEqualTo(3);
+    }
+
+    @Test
+    void countsPerThread() throws Exception {
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            int writerCount = writer.submit(() -> {
+                StatementCountingDataSource.reset();
+                jdbcTemplate.update("UPDATE accounts SET balance = 0 WHERE id = 1");
+                jdbcTemplate.update("UPDATE accounts SET balance = 0 WHERE id = 2");
+                return StatementCountingDataSource.count();
+            }).get(5, TimeUnit.SECONDS);
+
+            assertThat(writerCount).isEqualTo(2);
+            assertThat(StatementCountingDataSource.count()).isZero();
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.securebank.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void parseAndBigDecimalAgreeOnTrailingZeros() {
+        for (String amount : new String[] {"10.000", "10.50000", "-0.000", "7"}) {
+            assertThat(parse(amount)).isEqualTo(Money.of(new BigDecimal(amount)));
+        }
+    }
+
+    @Test
+    void parseAndBigDecimalBothRejectSubMinorDigits() {
+        for (String amount : new String[] {"10.005", "10.0001"}) {
+            assertThatThrownBy(() -> parse(amount)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> Money.of(new BigDecimal(amount))).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static Money parse(String amount) {
+        return Money.parse(amount.toCharArray(), 0, amount.length());
+    }
+}
@@ -0,0 +1,111 @@
+package com.securebank.repository;
+
+import com.securebank.metrics.StatementCountingDataSource;
+import com.securebank.model.Account;
+import com.securebank.model.User;
+import com.securebank.repository.AccountRow;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class AccountListRepositoryTest {
+
+    private static final int ACCOUNTS = 10;
+    private static final int ROUNDS = 200;
+
+    // What the list endpoint loaded before the projection
+    private static final String ENTITY_LIST_JPQL = "SELECT a FROM Account a WHERE a.user.id = :userId ORDER BY a.id";
+
+    @Autowired
+    private AccountListRepository accountListRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setFirstName("List");
+        user.setLastName("Test");
+        user.setEmail("accounts@securebank.com");
+        user.setPassword("x");
+        user.setPhoneNumber("000");
+        user.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(user);
+        userId = user.getId();
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = new Account();
+            account.setAccountNumber("ACCT" + String.format("%06d", i));
+            account.setAccountType(Account.AccountType.SAVINGS);
+            account.setUser(user);
+            account.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(account);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void listIsOneStatement() {
+        StatementCountingDataSource.reset();
+
+        List<AccountRow> accounts = accountListRepository.findRowsByUserId(userId);
+
+        assertThat(StatementCountingDataSource.count()).isEqualTo(1);
+        assertThat(accounts).hasSize(ACCOUNTS);
+        assertThat(accounts.get(0).getAccountNumber()).isEqualTo("ACCT000000");
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void listAllocatesLessThanLoadingEntities() {
+        long[] allocated = allocatedPerList(
+                () -> accountListRepository.findRowsByUserId(userId),
+                () -> entityManager.createQuery(ENTITY_LIST_JPQL, Account.class)
+                        .setParameter("userId", userId)
+                        .getResultList());
+
+        assertThat(allocated[0]).isLessThan(allocated[1]);
+    }
+
+    // Average bytes allocated by this thread per list, for each query. All of them are warmed up
+    // first, so the JIT has compiled the code they share before any is measured.
+    @SafeVarargs
+    private long[] allocatedPerList(Supplier<List<?>>... queries) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (Supplier<List<?>> query : queries) {
+            for (int i = 0; i < ROUNDS; i++) {
+                query.get();
+                entityManager.clear();
+            }
+        }
+        long[] allocated = new long[queries.length];
+        for (int q = 0; q < queries.length; q++) {
+            long rows = 0;
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < ROUNDS; i++) {
+                rows += queries[q].get().size();
+                entityManager.clear();
+            }
+            allocated[q] = (threads.getCurrentThreadAllocatedBytes() - before) / ROUNDS;
+            assertThat(rows).isEqualTo((long) ROUNDS * ACCOUNTS);
+        }
+        return allocated;
+    }
+}
@@ -0,0 +1,129 @@
+package com.securebank.repository;
+
+import com.securebank.metrics.StatementCountingDataSource;
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.model.User;
+import com.securebank.money.Money;
+import com.securebank.repository.TransactionRow;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class TransactionListRepositoryTest {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int ROUNDS = 200;
+
+    // What the list endpoint loaded before the projection
+    private static final String ENTITY_PAGE_JPQL =
+            "SELECT t FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.timestamp DESC, t.id DESC";
+
+    @Autowired
+    private TransactionListRepository transactionListRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setFirstName("List");
+        user.setLastName("Test");
+        user.setEmail("list@securebank.com");
+        user.setPassword("x");
+        user.setPhoneNumber("000");
+        user.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(user);
+
+        Account account = new Account();
+        account.setAccountNumber("LIST000001");
+        account.setAccountType(Account.AccountType.CHECKING);
+        account.setUser(user);
+        account.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(account);
+        accountId = account.getId();
+
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 3 * PAGE_SIZE; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setReferenceNumber("LIST" + i);
+            transaction.setType(Transaction.TransactionType.DEPOSIT);
+            transaction.setAmount(Money.of(new BigDecimal("10.00")));
+            transaction.setDescription("List test");
+            transaction.setTimestamp(start.plusMinutes(i));
+            transaction.setAccount(account);
+            entityManager.persist(transaction);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pageIsOneStatement() {
+        StatementCountingDataSource.reset();
+
+        List<TransactionRow> page = transactionListRepository.findRowsByAccountId(accountId, PageRequest.of(1, PAGE_SIZE));
+
+        assertThat(StatementCountingDataSource.count()).isEqualTo(1);
+        assertThat(page).hasSize(PAGE_SIZE);
+        assertThat(page.get(0).getReferenceNumber()).isEqualTo("LIST" + (2 * PAGE_SIZE - 1));
+        assertThat(page.get(0).getAccountId()).isEqualTo(accountId);
+        // Nothing is attached to the persistence context
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void pageAllocatesLessThanLoadingEntities() {
+        long[] allocated = allocatedPerPage(
+                () -> transactionListRepository.findRowsByAccountId(accountId, PageRequest.of(0, PAGE_SIZE)),
+                () -> entityManager.createQuery(ENTITY_PAGE_JPQL, Transaction.class)
+                        .setParameter("accountId", accountId)
+                        .setMaxResults(PAGE_SIZE)
+                        .getResultList());
+
+        assertThat(allocated[0]).isLessThan(allocated[1]);
+    }
+
+    // Average bytes allocated by this thread per page, for each query. All of them are warmed up
+    // first, so the JIT has compiled the code they share before any is measured.
+    @SafeVarargs
+    private long[] allocatedPerPage(Supplier<List<?>>... queries) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (Supplier<List<?>> query : queries) {
+            for (int i = 0; i < ROUNDS; i++) {
+                query.get();
+                entityManager.clear();
+            }
+        }
+        long[] allocated = new long[queries.length];
+        for (int q = 0; q < queries.length; q++) {
+            long rows = 0;
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < ROUNDS; i++) {
+                rows += queries[q].get().size();
+                entityManager.clear();
+            }
+            allocated[q] = (threads.getCurrentThreadAllocatedBytes() - before) / ROUNDS;
+            assertThat(rows).isEqualTo((long) ROUNDS * PAGE_SIZE);
+        }
+        return allocated;
+    }
+}
@@ -0,0 +1,91 @@
+package com.securebank.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccountOwnershipIndexTest {
+
+    private static final Map<Long, Long> DATABASE = Map.of(1L, 10L, 2L, 10L, 3L, 20L);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            queries.incrementAndGet();
+            List<Object> requested = new ArrayList<>();
+            Connection connection = mock(Connection.class);
+            when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+            when(connection.createArrayOf(eq("bigint"), any())).thenAnswer(call -> {
+                requested.addAll(List.of((Object[]) call.getArgument(1)));
+                return mock(Array.class);
+            });
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object id : requested) {
+                Long ownerId = DATABASE.get((Long) id);
+                if (ownerId != null) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getLong(1)).thenReturn((Long) id);
+                    when(rs.getLong(2)).thenReturn(ownerId);
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void coldAccountsAreLoadedWithOneQuery() {
+        AccountOwnershipIndex index = new AccountOwnershipIndex(jdbcTemplate, 1000);
+
+        Map<Long, Long> owners = index.ownersOf(List.of(1L, 2L, 3L, 1L, 404L));
+
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(owners).containsExactlyInAnyOrderEntriesOf(DATABASE);
+    }
+
+    @Test
+    void warmAccountsAreServedWithoutQuerying() {
+        AccountOwnershipIndex index = new AccountOwnershipIndex(jdbcTemplate, 1000);
+        index.ownersOf(List.of(1L, 2L));
+
+        Map<Long, Long> owners = index.ownersOf(List.of(2L, 1L));
+
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(owners).containsEntry(1L, 10L).containsEntry(2L, 10L);
+    }
+
+    @Test
+    void onlyMissingAccountsAreQueried() {
+        AccountOwnershipIndex index = new AccountOwnershipIndex(jdbcTemplate, 1000);
+        index.ownersOf(List.of(1L));
+
+        Map<Long, Long> owners = index.ownersOf(List.of(1L, 3L));
+
+        assertThat(queries.get()).isEqualTo(2);
+        assertThat(owners).containsEntry(1L, 10L).containsEntry(3L, 20L);
+    }
+}
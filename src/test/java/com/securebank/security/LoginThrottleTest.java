@@ -0,0 +1,57 @@
+package com.securebank.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+
+    private static final long NOW = 1_000_000L;
+    private static final int MAX_ENTRIES = 256;
+
+    @Test
+    void floodOfNewEmailsStaysBoundedAndKeepsLocks() {
+        LoginThrottle throttle = throttle();
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("victim@example.com", null, NOW);
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            throttle.recordFailure("user" + i + "@example.com", null, NOW);
+        }
+
+        assertThat(throttle.stats().emails()).isLessThanOrEqualTo(MAX_ENTRIES);
+        assertThat(throttle.check("victim@example.com", null, NOW)).isEqualTo(LoginThrottle.Decision.BLOCKED);
+    }
+
+    @Test
+    void fullStripeIsEvictedInBatches() {
+        LoginThrottle throttle = throttle();
+        for (int i = 0; i < 100_000; i++) {
+            throttle.recordFailure("user" + i + "@example.com", null, NOW);
+        }
+
+        // Evicting one counter per new key would keep every stripe exactly full
+        assertThat(throttle.stats().emails()).isLessThan(MAX_ENTRIES);
+    }
+
+    @Test
+    void idleCountersAreEvictedBeforeActiveOnes() {
+        LoginThrottle throttle = throttle();
+        for (int i = 0; i < 2 * MAX_ENTRIES; i++) {
+            throttle.recordFailure("old" + i + "@example.com", null, NOW);
+        }
+        long later = NOW + 300_000;
+
+        for (int i = 0; i < MAX_ENTRIES / 2; i++) {
+            throttle.recordFailure("new" + i + "@example.com", null, later);
+        }
+
+        assertThat(throttle.stats().idleEvictions()).isPositive();
+    }
+
+    private static LoginThrottle throttle() {
+        return new LoginThrottle(new SimpleMeterRegistry(), MAX_ENTRIES, 5, 300_000, 900_000, 100, 6_000);
+    }
+}
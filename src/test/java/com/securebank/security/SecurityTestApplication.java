@@ -0,0 +1,22 @@
+package com.securebank.security;
+
+import com.securebank.config.MetricsConfig;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+// The principal cache and its JPA eviction on the embedded test database, with statements counted as in production
+@SpringBootConfiguration
+@AutoConfigurationPackage
+@EntityScan("com.securebank.model")
+@Import({PrincipalCache.class, UserChangeListener.class})
+class SecurityTestApplication {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return MetricsConfig.statementCountingDataSourcePostProcessor();
+    }
+}
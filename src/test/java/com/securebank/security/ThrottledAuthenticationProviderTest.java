@@ -0,0 +1,103 @@
+package com.securebank.security;
+
+import com.securebank.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ThrottledAuthenticationProviderTest {
+
+    private static final String EMAIL = "locked@securebank.com";
+    private static final String PASSWORD = "secret";
+    private static final long LOCK_DURATION = 900_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private EntityManager entityManager;
+
+    private ThrottledAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        // Loads the lock state from the users row, as the application's provider does
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider();
+        delegate.setUserDetailsService(email -> jdbcTemplate.queryForObject(
+                "SELECT account_non_locked FROM users WHERE email = ?",
+                (rs, row) -> org.springframework.security.core.userdetails.User.withUsername(email)
+                        .password("{noop}" + PASSWORD)
+                        .roles("USER")
+                        .accountLocked(!rs.getBoolean(1))
+                        .build(),
+                email));
+        LoginThrottle throttle = new LoginThrottle(new SimpleMeterRegistry(), 256, 5, 300_000, LOCK_DURATION, 100, 6_000);
+        provider = new ThrottledAuthenticationProvider(delegate, throttle, jdbcTemplate, principalCache);
+    }
+
+    @Test
+    void manuallyLockedAccountStaysLockedAfterFailedLogin() {
+        user(null);
+
+        assertThatThrownBy(() -> provider.authenticate(login("wrong"))).isInstanceOf(LockedException.class);
+        assertThatThrownBy(() -> provider.authenticate(login(PASSWORD))).isInstanceOf(LockedException.class);
+
+        assertThat(accountNonLocked()).isFalse();
+    }
+
+    @Test
+    void expiredLockIsLifted() {
+        user(LocalDateTime.now().minusSeconds(LOCK_DURATION / 1000 + 60));
+
+        assertThat(provider.authenticate(login(PASSWORD)).isAuthenticated()).isTrue();
+
+        assertThat(accountNonLocked()).isTrue();
+    }
+
+    @Test
+    void lockStaysUntilItRunsOut() {
+        user(LocalDateTime.now().minusSeconds(60));
+
+        assertThatThrownBy(() -> provider.authenticate(login(PASSWORD))).isInstanceOf(LockedException.class);
+        assertThatThrownBy(() -> provider.authenticate(login("wrong"))).isInstanceOf(LockedException.class);
+
+        assertThat(accountNonLocked()).isFalse();
+    }
+
+    private void user(LocalDateTime lockTime) {
+        User user = new User();
+        user.setFirstName("Locked");
+        user.setLastName("User");
+        user.setEmail(EMAIL);
+        user.setPassword("x");
+        user.setPhoneNumber("000");
+        user.setAccountNonLocked(false);
+        user.setLockTime(lockTime);
+        entityManager.persist(user);
+        entityManager.flush();
+    }
+
+    private Boolean accountNonLocked() {
+        return jdbcTemplate.queryForObject("SELECT account_non_locked FROM users WHERE email = ?", Boolean.class, EMAIL);
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, password);
+    }
+}
@@ -0,0 +1,91 @@
+package com.securebank.security;
+
+import com.securebank.metrics.StatementCountingDataSource;
+import com.securebank.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Updates commit for real, since eviction waits for the commit
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserChangeListenerTest {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long userId;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setFirstName("Principal");
+            user.setLastName("Cache");
+            user.setEmail("principal" + SEQUENCE.incrementAndGet() + "@securebank.com");
+            user.setPassword("x");
+            user.setPhoneNumber("000");
+            entityManager.persist(user);
+            userId = user.getId();
+            email = user.getEmail();
+        });
+    }
+
+    @Test
+    void statusChangeEvictsOnCommit() {
+        principalCache.userIdOf(email);
+        assertThat(lookups(email)).isZero();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.find(User.class, userId).setEnabled(true);
+            entityManager.flush();
+            // Not before the commit: a lookup now would cache the old row again
+            assertThat(lookups(email)).isZero();
+        });
+
+        assertThat(lookups(email)).isEqualTo(1);
+    }
+
+    @Test
+    void emailChangeEvictsTheOldSubject() {
+        principalCache.userIdOf(email);
+        String newEmail = "renamed" + SEQUENCE.incrementAndGet() + "@securebank.com";
+
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(User.class, userId).setEmail(newEmail));
+
+        assertThat(lookups(newEmail)).isEqualTo(1);
+        try {
+            principalCache.userIdOf(email);
+        } catch (SecurityException e) {
+            return; // no longer resolves
+        }
+        throw new AssertionError("Old email still resolves to user " + userId);
+    }
+
+    private int lookups(String subject) {
+        StatementCountingDataSource.reset();
+        assertThat(principalCache.userIdOf(subject)).isEqualTo(userId);
+        return StatementCountingDataSource.count();
+    }
+}
@@ -0,0 +1,57 @@
+package com.securebank.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedClaimsCacheTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void staysBoundedUnderBurstOfDistinctTokens() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(100, 60_000);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("token-" + i, claims(), NOW);
+        }
+
+        assertThat(cache.size()).isEqualTo(100);
+        // The newest tokens are cached, not skipped
+        assertThat(cache.get("token-9999", NOW)).isNotNull();
+    }
+
+    @Test
+    void readEntriesSurviveEviction() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(4, 60_000);
+        for (int i = 0; i < 4; i++) {
+            cache.put("token-" + i, claims(), NOW);
+        }
+        cache.get("token-0", NOW);
+
+        cache.put("token-4", claims(), NOW);
+
+        assertThat(cache.get("token-0", NOW)).isNotNull();
+        assertThat(cache.get("token-1", NOW)).isNull();
+        assertThat(cache.size()).isEqualTo(4);
+    }
+
+    @Test
+    void expiredEntriesAreReplacedFirst() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(2, 60_000);
+        cache.put("short", claims(), NOW - 59_000);
+        cache.put("long", claims(), NOW);
+        cache.get("short", NOW - 1);
+        cache.get("long", NOW);
+
+        cache.put("new", claims(), NOW + 2_000);
+
+        assertThat(cache.get("long", NOW + 2_000)).isNotNull();
+        assertThat(cache.get("new", NOW + 2_000)).isNotNull();
+    }
+
+    private static Claims claims() {
+        return Jwts.claims().setSubject("user@example.com");
+    }
+}
@@ -0,0 +1,139 @@
+package com.securebank.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securebank.dto.TransactionDTO;
+import com.securebank.model.IdempotencyRecord;
+import com.securebank.repository.IdempotencyRecordRepository;
+import com.securebank.security.PrincipalCache;
+import com.securebank.service.TransactionService;
+import com.securebank.util.IdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceImplTest {
+
+    private static final long USER_ID = 7L;
+    private static final String KEY = "key-1";
+    private static final Map<String, Object> REQUEST = Map.of("accountId", 1, "amount", "10.00");
+
+    private final IdempotencyRecordRepository recordRepository = mock(IdempotencyRecordRepository.class);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final IdGenerator idGenerator = mock(IdGenerator.class);
+    private final List<String> executedReferences = new ArrayList<>();
+    private IdempotencyServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(principalCache.currentUserId()).thenReturn(USER_ID);
+        when(idGenerator.nextReferenceNumber()).thenReturn("NEWREF");
+        service = new IdempotencyServiceImpl(recordRepository, principalCache, transactionService, idGenerator,
+                new ObjectMapper(), 1000, 600_000, 86_400_000, 60_000);
+    }
+
+    @Test
+    void pendingKeyWhosePostingCommittedIsCompletedFromTheTransaction() {
+        IdempotencyRecord record = pending(LocalDateTime.now());
+        TransactionDTO posted = dto("REF1");
+        when(transactionService.findByReferenceNumber("REF1")).thenReturn(Optional.of(posted));
+
+        TransactionDTO result = service.execute(KEY, "deposit", REQUEST, this::action);
+
+        assertThat(result.getReferenceNumber()).isEqualTo("REF1");
+        assertThat(executedReferences).isEmpty();
+        assertThat(record.getStatus()).isEqualTo(IdempotencyRecord.Status.COMPLETED);
+        verify(recordRepository).save(record);
+    }
+
+    @Test
+    void freshPendingKeyWithoutPostingIsStillProcessing() {
+        pending(LocalDateTime.now());
+        when(transactionService.findByReferenceNumber("REF1")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.execute(KEY, "deposit", REQUEST, this::action))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(executedReferences).isEmpty();
+    }
+
+    @Test
+    void stalePendingKeyWithoutPostingIsTakenOverUnderTheSameReference() {
+        IdempotencyRecord record = pending(LocalDateTime.now().minusMinutes(5));
+        when(transactionService.findByReferenceNumber("REF1")).thenReturn(Optional.empty());
+        when(recordRepository.reclaim(eq(1L), eq(IdempotencyRecord.Status.PENDING), eq(record.getCreatedAt()), any()))
+                .thenReturn(1);
+
+        TransactionDTO result = service.execute(KEY, "deposit", REQUEST, this::action);
+
+        assertThat(executedReferences).containsExactly("REF1");
+        assertThat(result.getReferenceNumber()).isEqualTo("REF1");
+        assertThat(record.getStatus()).isEqualTo(IdempotencyRecord.Status.COMPLETED);
+    }
+
+    @Test
+    void onlyOneDuplicateTakesOverAStaleKey() {
+        pending(LocalDateTime.now().minusMinutes(5));
+        when(transactionService.findByReferenceNumber("REF1")).thenReturn(Optional.empty());
+        when(recordRepository.reclaim(any(), any(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.execute(KEY, "deposit", REQUEST, this::action))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(executedReferences).isEmpty();
+    }
+
+    @Test
+    void newKeyPostsUnderTheReferenceStoredWithThePendingRow() {
+        when(recordRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY)).thenReturn(Optional.empty());
+        when(recordRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.execute(KEY, "deposit", REQUEST, this::action);
+
+        assertThat(executedReferences).containsExactly("NEWREF");
+        verify(transactionService, never()).findByReferenceNumber(anyString());
+    }
+
+    private TransactionDTO action(String referenceNumber) {
+        executedReferences.add(referenceNumber);
+        return dto(referenceNumber);
+    }
+
+    private IdempotencyRecord pending(LocalDateTime createdAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(1L);
+        record.setUserId(USER_ID);
+        record.setIdempotencyKey(KEY);
+        record.setOperation("deposit");
+        record.setReferenceNumber("REF1");
+        record.setStatus(IdempotencyRecord.Status.PENDING);
+        record.setCreatedAt(createdAt);
+        // Stored by the first attempt of the same request
+        record.setRequestHash(ReflectionTestUtils.invokeMethod(service, "fingerprint", "deposit", REQUEST));
+        when(recordRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY)).thenReturn(Optional.of(record));
+        return record;
+    }
+
+    private static TransactionDTO dto(String referenceNumber) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setReferenceNumber(referenceNumber);
+        return dto;
+    }
+}
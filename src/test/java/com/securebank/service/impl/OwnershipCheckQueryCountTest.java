@@ -0,0 +1,166 @@
+package com.securebank.service.impl;
+
+import com.securebank.archive.TransactionArchiveStore;
+import com.securebank.dto.DepositRequest;
+import com.securebank.feed.TransactionFeed;
+import com.securebank.fraud.VelocityEngine;
+import com.securebank.journal.PostingJournal;
+import com.securebank.ledger.AccountVersions;
+import com.securebank.ledger.DailySnapshotWriter;
+import com.securebank.ledger.HotAccountManager;
+import com.securebank.metrics.StatementCountingDataSource;
+import com.securebank.model.Account;
+import com.securebank.model.User;
+import com.securebank.money.Money;
+import com.securebank.outbox.OutboxWriter;
+import com.securebank.security.PrincipalCache;
+import com.securebank.util.IdGenerator;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+// Statements issued on the request thread by ownership-checked calls; no test transaction, as the
+// ledger writer commits deposits on its own thread
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OwnershipCheckQueryCountTest {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @MockBean
+    private VelocityEngine velocityEngine;
+    @MockBean
+    private AccountVersions accountVersions;
+    @MockBean
+    private TransactionArchiveStore archiveStore;
+    @MockBean
+    private TransactionFeed transactionFeed;
+    @MockBean
+    private IdGenerator idGenerator;
+    @MockBean
+    private HotAccountManager hotAccountManager;
+    @MockBean
+    private DailySnapshotWriter dailySnapshotWriter;
+    @MockBean
+    private OutboxWriter outboxWriter;
+    @MockBean
+    private PostingJournal postingJournal;
+
+    @Autowired
+    private AccountServiceImpl accountService;
+    @Autowired
+    private TransactionServiceImpl transactionService;
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String ownerEmail;
+    private String otherEmail;
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        when(idGenerator.nextReferenceNumber()).thenAnswer(invocation -> "QC-REF" + SEQUENCE.incrementAndGet());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User owner = user();
+            ownerEmail = owner.getEmail();
+            otherEmail = user().getEmail();
+
+            Account account = new Account();
+            account.setAccountNumber("QC" + SEQUENCE.incrementAndGet());
+            account.setAccountType(Account.AccountType.CHECKING);
+            account.setUser(owner);
+            entityManager.persist(account);
+            accountId = account.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getAccountByIdLoadsOnlyTheAccountOnceWarm() {
+        authenticate(ownerEmail);
+
+        assertThat(statements(() -> accountService.getAccountById(accountId))).isEqualTo(3); // user id, owner, account
+        assertThat(statements(() -> accountService.getAccountById(accountId))).isEqualTo(1);
+
+        authenticate(otherEmail);
+        assertThat(statements(() -> assertThatThrownBy(() -> accountService.getAccountById(accountId))
+                .isInstanceOf(SecurityException.class))).isEqualTo(1); // this user's id only
+        assertThat(statements(() -> assertThatThrownBy(() -> accountService.getAccountById(accountId))
+                .isInstanceOf(SecurityException.class))).isZero();
+    }
+
+    @Test
+    void depositIssuesNoStatementOnTheRequestThreadOnceWarm() {
+        authenticate(ownerEmail);
+
+        assertThat(statements(() -> transactionService.deposit(deposit("10.00")))).isEqualTo(3); // user id, owner, balance
+        assertThat(statements(() -> transactionService.deposit(deposit("5.00")))).isZero();
+
+        authenticate(otherEmail);
+        principalCache.currentUserId();
+        assertThat(statements(() -> assertThatThrownBy(() -> transactionService.deposit(deposit("1.00")))
+                .isInstanceOf(SecurityException.class))).isZero();
+
+        BigDecimal balance = jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+        assertThat(balance).isEqualByComparingTo("15.00");
+    }
+
+    private User user() {
+        User user = new User();
+        user.setFirstName("Query");
+        user.setLastName("Count");
+        user.setEmail("qc" + SEQUENCE.incrementAndGet() + "@securebank.com");
+        user.setPassword("x");
+        user.setPhoneNumber("000");
+        entityManager.persist(user);
+        return user;
+    }
+
+    private DepositRequest deposit(String amount) {
+        DepositRequest request = new DepositRequest();
+        request.setAccountId(accountId);
+        request.setAmount(Money.of(new BigDecimal(amount)));
+        return request;
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private static int statements(Runnable call) {
+        StatementCountingDataSource.reset();
+        call.run();
+        return StatementCountingDataSource.count();
+    }
+}
@@ -0,0 +1,81 @@
+package com.securebank.service.impl;
+
+import com.securebank.dto.ScheduledPaymentDTO;
+import com.securebank.dto.ScheduledPaymentRequest;
+import com.securebank.model.ScheduledPayment;
+import com.securebank.money.Money;
+import com.securebank.payment.ScheduledPaymentEngine;
+import com.securebank.repository.ScheduledPaymentRepository;
+import com.securebank.security.AccountOwnershipIndex;
+import com.securebank.security.PrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScheduledPaymentServiceImplTest {
+
+    private static final long USER_ID = 7L;
+    private static final long ACCOUNT_ID = 11L;
+
+    private final ScheduledPaymentRepository repository = mock(ScheduledPaymentRepository.class);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+    private final AccountOwnershipIndex ownershipIndex = mock(AccountOwnershipIndex.class);
+    private final ScheduledPaymentEngine engine = mock(ScheduledPaymentEngine.class);
+    private ScheduledPaymentServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(principalCache.currentUserId()).thenReturn(USER_ID);
+        when(repository.save(any(ScheduledPayment.class))).thenAnswer(invocation -> {
+            ScheduledPayment payment = invocation.getArgument(0);
+            payment.setId(1L);
+            return payment;
+        });
+        service = new ScheduledPaymentServiceImpl(repository, principalCache, ownershipIndex, engine);
+    }
+
+    @Test
+    void firstRunInThePastIsRejected() {
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+
+        assertThatThrownBy(() -> service.schedule(request(yesterday)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        verify(repository, never()).save(any());
+        verify(engine, never()).scheduled(any(), any());
+    }
+
+    @Test
+    void firstRunNowOrLaterIsScheduled() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime tomorrow = now.plusDays(1);
+
+        ScheduledPaymentDTO scheduled = service.schedule(request(tomorrow));
+        service.schedule(request(now));
+
+        assertThat(scheduled.getNextRunAt()).isEqualTo(tomorrow);
+        verify(engine).scheduled(1L, tomorrow);
+        verify(engine).scheduled(1L, now);
+    }
+
+    private static ScheduledPaymentRequest request(LocalDateTime firstRunAt) {
+        ScheduledPaymentRequest request = new ScheduledPaymentRequest();
+        request.setAccountId(ACCOUNT_ID);
+        request.setAmount(Money.of(new BigDecimal("25.00")));
+        request.setRecurrence("monthly");
+        request.setFirstRunAt(firstRunAt);
+        return request;
+    }
+}
@@ -0,0 +1,46 @@
+package com.securebank.service.impl;
+
+import com.securebank.config.MetricsConfig;
+import com.securebank.ledger.LedgerEngine;
+import com.securebank.ledger.LedgerWriter;
+import com.securebank.repository.AccountListRepository;
+import com.securebank.repository.AccountRepository;
+import com.securebank.repository.TransactionExportRepository;
+import com.securebank.repository.TransactionListRepository;
+import com.securebank.security.AccountOwnershipIndex;
+import com.securebank.security.PrincipalCache;
+import com.securebank.security.UserChangeListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+// The account and transaction services on the embedded test database, with the real ownership
+// checks and ledger, and statements counted as in production; tests mock the rest
+@SpringBootConfiguration
+@AutoConfigurationPackage
+@EntityScan("com.securebank.model")
+@EnableJpaRepositories(basePackageClasses = AccountRepository.class)
+@Import({
+        AccountServiceImpl.class, TransactionServiceImpl.class,
+        AccountListRepository.class, TransactionListRepository.class, TransactionExportRepository.class,
+        PrincipalCache.class, UserChangeListener.class, AccountOwnershipIndex.class,
+        LedgerEngine.class, LedgerWriter.class
+})
+class ServiceTestApplication {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return MetricsConfig.statementCountingDataSourcePostProcessor();
+    }
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
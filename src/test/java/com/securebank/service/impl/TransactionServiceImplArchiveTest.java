@@ -0,0 +1,128 @@
+package com.securebank.service.impl;
+
+import com.securebank.archive.ArchivedTransaction;
+import com.securebank.archive.TransactionArchiveStore;
+import com.securebank.dto.TransactionCursor;
+import com.securebank.dto.TransactionDTO;
+import com.securebank.dto.TransactionPageDTO;
+import com.securebank.feed.TransactionFeed;
+import com.securebank.fraud.VelocityEngine;
+import com.securebank.ledger.AccountVersions;
+import com.securebank.ledger.LedgerEngine;
+import com.securebank.model.Account;
+import com.securebank.model.Transaction;
+import com.securebank.money.Money;
+import com.securebank.repository.AccountRepository;
+import com.securebank.repository.TransactionExportRepository;
+import com.securebank.repository.TransactionHistoryRepository;
+import com.securebank.repository.TransactionListRepository;
+import com.securebank.repository.TransactionRepository;
+import com.securebank.security.AccountOwnershipIndex;
+import com.securebank.security.PrincipalCache;
+import com.securebank.util.IdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// History and export run past the live rows into the archive
+class TransactionServiceImplArchiveTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 1, 12, 0);
+    private static final LocalDateTime OLD = NOW.minusYears(3);
+
+    private final TransactionHistoryRepository historyRepository = mock(TransactionHistoryRepository.class);
+    private final TransactionExportRepository exportRepository = mock(TransactionExportRepository.class);
+    private final TransactionArchiveStore archiveStore = mock(TransactionArchiveStore.class);
+
+    @Test
+    void historyPageContinuesIntoTheArchive() {
+        when(historyRepository.findLatest(eq(ACCOUNT_ID), any())).thenReturn(List.of(live(9, NOW), live(8, NOW.minusDays(1))));
+        when(archiveStore.findBefore(ACCOUNT_ID, NOW.minusDays(1), 8L, 2))
+                .thenReturn(List.of(archived(3, OLD), archived(2, OLD.minusDays(1))));
+
+        TransactionPageDTO page = service().getTransactionHistory(ACCOUNT_ID, null, 3);
+
+        assertThat(page.getTransactions()).extracting(TransactionDTO::getId).containsExactly(9L, 8L, 3L);
+        assertThat(page.getNextCursor()).isEqualTo(new TransactionCursor(OLD, 3L).encode());
+    }
+
+    @Test
+    void historyCursorInTheArchiveReadsOnlyTheArchive() {
+        when(historyRepository.findBefore(eq(ACCOUNT_ID), eq(OLD), eq(3L), any())).thenReturn(List.of());
+        when(archiveStore.findBefore(ACCOUNT_ID, OLD, 3L, 4)).thenReturn(List.of(archived(2, OLD.minusDays(1))));
+
+        TransactionPageDTO page = service().getTransactionHistory(ACCOUNT_ID, new TransactionCursor(OLD, 3L).encode(), 3);
+
+        assertThat(page.getTransactions()).extracting(TransactionDTO::getId).containsExactly(2L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportContinuesAfterTheLastLiveRow() {
+        doAnswer(invocation -> {
+            Consumer<TransactionDTO> consumer = invocation.getArgument(1);
+            consumer.accept(service().mapToDTO(live(9, NOW)));
+            return null;
+        }).when(exportRepository).streamByAccountId(eq(ACCOUNT_ID), any());
+        doAnswer(invocation -> {
+            Consumer<ArchivedTransaction> consumer = invocation.getArgument(3);
+            consumer.accept(archived(3, OLD));
+            return null;
+        }).when(archiveStore).forEachBefore(eq(ACCOUNT_ID), eq(NOW), eq(9L), any(Consumer.class));
+
+        List<Long> exported = new ArrayList<>();
+        service().exportTransactions(ACCOUNT_ID).writeTo(dto -> exported.add(dto.getId()));
+
+        assertThat(exported).containsExactly(9L, 3L);
+    }
+
+    private static Transaction live(long id, LocalDateTime timestamp) {
+        Account account = new Account();
+        account.setId(ACCOUNT_ID);
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setReferenceNumber("REF" + id);
+        transaction.setType(Transaction.TransactionType.DEPOSIT);
+        transaction.setAmount(Money.ofMinor(100));
+        transaction.setTimestamp(timestamp);
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setAccount(account);
+        return transaction;
+    }
+
+    private static ArchivedTransaction archived(long id, LocalDateTime timestamp) {
+        return new ArchivedTransaction(id, "REF" + id, "DEPOSIT", new BigDecimal("1.00"), null, null, null,
+                timestamp, Transaction.TransactionStatus.COMPLETED.ordinal(), ACCOUNT_ID, null);
+    }
+
+    private TransactionServiceImpl service() {
+        return new TransactionServiceImpl(
+                mock(TransactionRepository.class),
+                historyRepository,
+                mock(TransactionListRepository.class),
+                exportRepository,
+                mock(AccountRepository.class),
+                mock(PrincipalCache.class),
+                mock(AccountOwnershipIndex.class),
+                mock(LedgerEngine.class),
+                mock(VelocityEngine.class),
+                mock(AccountVersions.class),
+                archiveStore,
+                mock(TransactionFeed.class),
+                mock(IdGenerator.class)
+        );
+    }
+}
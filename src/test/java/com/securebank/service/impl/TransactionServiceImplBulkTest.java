@@ -0,0 +1,132 @@
+package com.securebank.service.impl;
+
+import com.securebank.archive.TransactionArchiveStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securebank.dto.BulkTransactionItem;
+import com.securebank.dto.BulkTransactionItemResult;
+import com.securebank.dto.BulkTransactionRequest;
+import com.securebank.dto.BulkTransactionResultDTO;
+import com.securebank.feed.TransactionFeed;
+import com.securebank.fraud.VelocityEngine;
+import com.securebank.ledger.AccountVersions;
+import com.securebank.ledger.LedgerEngine;
+import com.securebank.model.Account;
+import com.securebank.money.Money;
+import com.securebank.repository.AccountRepository;
+import com.securebank.repository.TransactionExportRepository;
+import com.securebank.repository.TransactionHistoryRepository;
+import com.securebank.repository.TransactionListRepository;
+import com.securebank.repository.TransactionRepository;
+import com.securebank.security.AccountOwnershipIndex;
+import com.securebank.security.PrincipalCache;
+import com.securebank.util.IdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceImplBulkTest {
+
+    private static final long USER_ID = 7L;
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+    private final AccountOwnershipIndex ownershipIndex = mock(AccountOwnershipIndex.class);
+    private final LedgerEngine ledgerEngine = mock(LedgerEngine.class);
+    private final IdGenerator idGenerator = mock(IdGenerator.class);
+
+    @Test
+    void ownersAreResolvedOnceForTheWholeBatch() {
+        TransactionServiceImpl service = service();
+        stubOwnersAndLedger();
+
+        List<BulkTransactionItem> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(new BulkTransactionItem("DEPOSIT", (long) (i % 50), Money.ofMinor(100), null, null, null, null));
+        }
+        items.add(new BulkTransactionItem("DEPOSIT", 404L, Money.ofMinor(100), null, null, null, null));
+        BulkTransactionResultDTO result = service.bulk(new BulkTransactionRequest(items));
+
+        verify(ownershipIndex, times(1)).ownersOf(any());
+        verify(ownershipIndex, never()).ownerOf(any());
+        assertThat(result.getAccepted()).isEqualTo(1000);
+        assertThat(result.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void anAmountWithTooManyDecimalsRejectsOnlyItsItem() throws Exception {
+        TransactionServiceImpl service = service();
+        stubOwnersAndLedger();
+
+        BulkTransactionRequest request = new ObjectMapper().readValue("""
+                {"items": [
+                  {"type": "DEPOSIT", "accountId": 1, "amount": 10.005},
+                  {"type": "DEPOSIT", "accountId": 1, "amount": "10.50"}
+                ]}""", BulkTransactionRequest.class);
+        BulkTransactionResultDTO result = service.bulk(request);
+
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getResults().get(0).getError()).contains("decimal places");
+        assertThat(result.getResults().get(1).getStatus()).isEqualTo(BulkTransactionItemResult.ACCEPTED);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubOwnersAndLedger() {
+        when(principalCache.currentUserId()).thenReturn(USER_ID);
+        when(ownershipIndex.ownersOf(any())).thenAnswer(invocation -> {
+            Map<Long, Long> owners = new HashMap<>();
+            for (Long accountId : (Collection<Long>) invocation.getArgument(0)) {
+                if (accountId != 404L) {
+                    owners.put(accountId, USER_ID);
+                }
+            }
+            return owners;
+        });
+        when(accountRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            Account account = new Account();
+            account.setId(invocation.getArgument(0));
+            return account;
+        });
+        when(ledgerEngine.postEach(anyList())).thenAnswer(invocation -> {
+            boolean[] accepted = new boolean[invocation.<List<?>>getArgument(0).size()];
+            Arrays.fill(accepted, true);
+            return accepted;
+        });
+    }
+
+    private TransactionServiceImpl service() {
+        TransactionServiceImpl service = new TransactionServiceImpl(
+                mock(TransactionRepository.class),
+                mock(TransactionHistoryRepository.class),
+                mock(TransactionListRepository.class),
+                mock(TransactionExportRepository.class),
+                accountRepository,
+                principalCache,
+                ownershipIndex,
+                ledgerEngine,
+                mock(VelocityEngine.class),
+                mock(AccountVersions.class),
+                mock(TransactionArchiveStore.class),
+                mock(TransactionFeed.class),
+                idGenerator
+        );
+        ReflectionTestUtils.setField(service, "maxBulkItems", 50_000);
+        return service;
+    }
+}
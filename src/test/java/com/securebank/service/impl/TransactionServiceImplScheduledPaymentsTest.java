@@ -0,0 +1,109 @@
+package com.securebank.service.impl;
+
+import com.securebank.archive.TransactionArchiveStore;
+import com.securebank.dto.PaymentRequest;
+import com.securebank.feed.TransactionFeed;
+import com.securebank.fraud.VelocityEngine;
+import com.securebank.fraud.VelocityEngine.Reservation;
+import com.securebank.fraud.VelocityLimitExceededException;
+import com.securebank.ledger.AccountVersions;
+import com.securebank.ledger.LedgerEngine;
+import com.securebank.model.Account;
+import com.securebank.money.Money;
+import com.securebank.repository.AccountRepository;
+import com.securebank.repository.TransactionExportRepository;
+import com.securebank.repository.TransactionHistoryRepository;
+import com.securebank.repository.TransactionListRepository;
+import com.securebank.repository.TransactionRepository;
+import com.securebank.security.AccountOwnershipIndex;
+import com.securebank.security.PrincipalCache;
+import com.securebank.service.TransactionService.ScheduledPaymentOrder;
+import com.securebank.util.IdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceImplScheduledPaymentsTest {
+
+    private static final long USER_ID = 7L;
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final AccountOwnershipIndex ownershipIndex = mock(AccountOwnershipIndex.class);
+    private final LedgerEngine ledgerEngine = mock(LedgerEngine.class);
+    private final VelocityEngine velocityEngine = mock(VelocityEngine.class);
+
+    @BeforeEach
+    void setUp() {
+        when(ownershipIndex.ownersOf(any())).thenReturn(Map.of(1L, USER_ID, 2L, USER_ID, 3L, 99L));
+        when(accountRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            Account account = new Account();
+            account.setId(invocation.getArgument(0));
+            return account;
+        });
+    }
+
+    @Test
+    void businessRefusalsAreReturnedPerPayment() {
+        when(velocityEngine.reserve(eq(USER_ID), eq(2L), any(Money.class)))
+                .thenThrow(new VelocityLimitExceededException("daily-payments"));
+        when(ledgerEngine.postEach(anyList())).thenReturn(new boolean[] {true, false});
+
+        String[] rejections = service().scheduledPayments(List.of(
+                order(1L, "SP1-0"), order(2L, "SP2-0"), order(3L, "SP3-0"), order(1L, "SP4-0")));
+
+        assertThat(rejections[0]).isNull();
+        assertThat(rejections[1]).contains("daily-payments");
+        assertThat(rejections[2]).contains("permission");
+        assertThat(rejections[3]).isEqualTo("Insufficient funds for payment");
+    }
+
+    @Test
+    void otherFailuresThrowAndReleaseReservations() {
+        Reservation reservation = mock(Reservation.class);
+        when(velocityEngine.reserve(eq(USER_ID), anyLong(), any(Money.class))).thenReturn(reservation);
+        when(ledgerEngine.postEach(anyList())).thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThatThrownBy(() -> service().scheduledPayments(List.of(order(1L, "SP1-0"), order(2L, "SP2-0"))))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        verify(velocityEngine, times(2)).release(reservation);
+    }
+
+    private static ScheduledPaymentOrder order(Long accountId, String reference) {
+        PaymentRequest request = new PaymentRequest();
+        request.setAccountId(accountId);
+        request.setAmount(Money.ofMinor(1000));
+        return new ScheduledPaymentOrder(USER_ID, reference, request);
+    }
+
+    private TransactionServiceImpl service() {
+        return new TransactionServiceImpl(
+                mock(TransactionRepository.class),
+                mock(TransactionHistoryRepository.class),
+                mock(TransactionListRepository.class),
+                mock(TransactionExportRepository.class),
+                accountRepository,
+                mock(PrincipalCache.class),
+                ownershipIndex,
+                ledgerEngine,
+                velocityEngine,
+                mock(AccountVersions.class),
+                mock(TransactionArchiveStore.class),
+                mock(TransactionFeed.class),
+                mock(IdGenerator.class)
+        );
+    }
+}
@@ -0,0 +1,182 @@
+package com.securebank.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000_000L;
+
+    private final FakeLeases leases = new FakeLeases();
+
+    @Test
+    void idsAreUniqueUnderConcurrency() throws Exception {
+        SnowflakeIdGenerator generator = started(0, System::currentTimeMillis);
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        Set<String> accounts = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < 8; worker++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        assertThat(references.add(generator.nextReferenceNumber())).isTrue();
+                        if (i % 50 == 0) {
+                            assertThat(accounts.add(generator.nextAccountNumber())).isTrue();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(references).hasSize(800_000);
+        assertThat(accounts).hasSize(16_000);
+    }
+
+    @Test
+    void idsAreUniqueAcrossNodes() throws Exception {
+        // Lowest, neighbouring, middle and highest node ids, all on one frozen clock so every
+        // node issues ids for the same ticks
+        int[] nodeIds = {0, 1, 2, 512, SnowflakeIdGenerator.MAX_NODE_ID};
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        Set<String> accounts = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(nodeIds.length * 2);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int nodeId : nodeIds) {
+                SnowflakeIdGenerator generator = started(nodeId, () -> NOW);
+                for (int worker = 0; worker < 2; worker++) {
+                    workers.add(executor.submit(() -> {
+                        for (int i = 0; i < 50_000; i++) {
+                            assertThat(references.add(generator.nextReferenceNumber())).isTrue();
+                            if (i % 100 == 0) {
+                                assertThat(accounts.add(generator.nextAccountNumber())).isTrue();
+                            }
+                        }
+                    }));
+                }
+            }
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(references).hasSize(nodeIds.length * 2 * 50_000);
+        assertThat(accounts).hasSize(nodeIds.length * 2 * 500);
+        assertThat(references).allSatisfy(reference -> assertThat(reference).hasSize(13));
+        assertThat(accounts).allSatisfy(account -> assertThat(account).hasSize(16));
+    }
+
+    @Test
+    void restartDoesNotRepeatIdsAfterTheClockRanAhead() {
+        SnowflakeIdGenerator first = started(3, () -> NOW);
+        Set<String> issued = new HashSet<>();
+        // 256 account numbers per second, so this runs the logical clock ~40 s ahead of the wall clock
+        for (int i = 0; i < 10_000; i++) {
+            issued.add(first.nextAccountNumber());
+            issued.add(first.nextReferenceNumber());
+        }
+        leases.expire(3);
+
+        // The wall clock has also stepped back across the restart
+        SnowflakeIdGenerator second = started(3, () -> NOW - 5_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(issued.add(second.nextAccountNumber())).isTrue();
+            assertThat(issued.add(second.nextReferenceNumber())).isTrue();
+        }
+    }
+
+    @Test
+    void configuredNodeIdHeldByAnotherInstanceFailsStartup() {
+        started(5, () -> NOW);
+
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(leases, 5, 30_000, () -> NOW);
+        assertThatThrownBy(second::start).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void unconfiguredNodeIdClaimsTheFirstFreeOne() {
+        started(0, () -> NOW);
+        started(1, () -> NOW);
+
+        assertThat(started(-1, () -> NOW).nodeId()).isEqualTo(2);
+    }
+
+    @Test
+    void lostLeaseStopsIssuingIds() {
+        SnowflakeIdGenerator generator = started(0, () -> NOW);
+        leases.expire(0);
+        started(0, () -> NOW);
+
+        assertThatThrownBy(generator::renew).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(generator::nextReferenceNumber).isInstanceOf(IllegalStateException.class);
+    }
+
+    private SnowflakeIdGenerator started(int nodeId, LongSupplier clock) {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(leases, nodeId, 30_000, clock);
+        generator.start();
+        return generator;
+    }
+
+    // In-memory id_node_leases; a lease lasts until expire() is called
+    private static class FakeLeases extends IdNodeLeases {
+
+        private final Map<Integer, String> holders = new HashMap<>();
+        private final Map<Integer, Long> highWaters = new HashMap<>();
+
+        FakeLeases() {
+            super(null);
+        }
+
+        @Override
+        public synchronized Long claim(int nodeId, String instanceId, long ttlMillis) {
+            if (holders.containsKey(nodeId)) {
+                return null;
+            }
+            holders.put(nodeId, instanceId);
+            return highWaters.getOrDefault(nodeId, 0L);
+        }
+
+        @Override
+        public synchronized boolean extend(int nodeId, String instanceId, long highWater, long ttlMillis) {
+            if (!instanceId.equals(holders.get(nodeId))) {
+                return false;
+            }
+            highWaters.merge(nodeId, highWater, Math::max);
+            return true;
+        }
+
+        @Override
+        public synchronized void release(int nodeId, String instanceId) {
+            holders.remove(nodeId, instanceId);
+        }
+
+        synchronized void expire(int nodeId) {
+            holders.remove(nodeId);
+        }
+    }
+}